@@ -1,8 +1,8 @@
 package com.musicstore.bluevelvet.api.controller;
 
+import com.musicstore.bluevelvet.domain.security.RoleMaskAuthorizationManager;
 import com.musicstore.bluevelvet.domain.service.UserService;
 import com.musicstore.bluevelvet.infrastructure.entity.User;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -47,10 +47,20 @@ public class AuthController {
         return "register";
     }
 
+    // Sem @RequiresRole: quem não é ADMIN continua no formulário com a mensagem, em vez de ir para o login
+    // ou para /authorization-error
     @PostMapping("/register")
     public String register(@ModelAttribute User user,
                            RedirectAttributes redirectAttributes) {
         try {
+            // Apenas ADMIN pode registrar novos usuários (conferido antes de revelar se o e-mail existe)
+            int roleMask = RoleMaskAuthorizationManager.roleMask(SecurityContextHolder.getContext().getAuthentication());
+            if ((roleMask & User.Role.ADMINISTRATOR.mask()) == 0) {
+                redirectAttributes.addFlashAttribute(ERROR_MESSAGE,
+                        "Apenas administradores podem registrar novos usuários.");
+                return REDIRECT_REGISTER;
+            }
+
             // Valida se já existe usuário com esse email
             if (userService.findByEmail(user.getEmail()).isPresent()) {
                 redirectAttributes.addFlashAttribute(ERROR_MESSAGE,
@@ -65,15 +75,6 @@ public class AuthController {
                 return REDIRECT_REGISTER;
             }
 
-            // Apenas ADMIN pode registrar novos usuários
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth == null || auth.getAuthorities().stream()
-                    .noneMatch(a -> a.getAuthority().equals("ROLE_ADMINISTRATOR"))) {
-                redirectAttributes.addFlashAttribute(ERROR_MESSAGE,
-                        "Apenas administradores podem registrar novos usuários.");
-                return REDIRECT_REGISTER;
-            }
-
             // Salva o novo usuário
             userService.save(user);
             redirectAttributes.addFlashAttribute("successMessage",
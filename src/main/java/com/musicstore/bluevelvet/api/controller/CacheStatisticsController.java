@@ -0,0 +1,28 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.api.response.CacheStatisticsResponse;
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
+import com.musicstore.bluevelvet.domain.service.CacheStatisticsService;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Log4j2 @RestController @RequiredArgsConstructor
+@RequiresRole(Role.ADMINISTRATOR)
+@RequestMapping("/api/cache/stats")
+public class CacheStatisticsController {
+
+    private final CacheStatisticsService service;
+
+    @GetMapping
+    @Operation(summary = "Second-level cache statistics", description = "Hit, miss and put counts per Hibernate cache region and for the shop listing cache, with the configured size and TTL bounds")
+    public ResponseEntity<CacheStatisticsResponse> getStatistics() {
+        log.debug("Request received to read second-level cache statistics");
+        return ResponseEntity.ok(service.getStatistics());
+    }
+}
@@ -2,14 +2,19 @@ package com.musicstore.bluevelvet.api.controller;
 
 import com.musicstore.bluevelvet.api.request.CategoryRequest;
 import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.domain.dto.ResourceVersion;
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
 import com.musicstore.bluevelvet.domain.service.CategoryService;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @Log4j2 @RestController @RequiredArgsConstructor
 @RequestMapping("/categories")
@@ -19,19 +24,30 @@ public class CategoryController {
 
     @GetMapping("/{id}")
     @Operation(summary = "Get category by id", description = "Get a product category from the Blue Velvet Music Store")
-    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id){
-        log.info("Request received to fetch a category by id {}", id);
+    public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id,
+                                                            @Parameter(description = "Levels of children to embed (0 = none, omitted = whole subtree)")
+                                                            @RequestParam(name = "depth", required = false) Integer depth,
+                                                            WebRequest request){
+        log.info("Request received to fetch a category by id {} with depth {}", id, depth);
 
-        return ResponseEntity.ok(service.findById(id));
+        // Validação condicional antes de carregar a árvore: um 304 não toca o banco
+        ResourceVersion version = service.findVersion(id, normalizeDepth(depth));
+        if (request.checkNotModified(version.etag(), version.lastModifiedMillis()))
+            return null;
+
+        return ResponseEntity.ok(service.findById(id, normalizeDepth(depth)));
     }
 
     @GetMapping
     @Operation(summary = "Get all categories", description = "Get all product categories from the Blue Velvet Music Store")
-    public ResponseEntity<Page<CategoryResponse>> getAllCategories(Pageable pageable) {
-        log.info("Request received to fetch all categories");
-        return ResponseEntity.ok(service.findAll(pageable));
+    public ResponseEntity<Page<CategoryResponse>> getAllCategories(Pageable pageable,
+                                                                   @Parameter(description = "Levels of children to embed (0 = none, omitted = whole subtree)")
+                                                                   @RequestParam(name = "depth", required = false) Integer depth) {
+        log.info("Request received to fetch all categories with depth {}", depth);
+        return ResponseEntity.ok(service.findAll(pageable, normalizeDepth(depth)));
     }
 
+    @RequiresRole(Role.ADMINISTRATOR)
     @PostMapping
     @Operation(summary = "Create a new category", description = "Create a new product category for the Blue Velvet Music Store")
     public ResponseEntity<CategoryResponse> createCategory(@RequestBody CategoryRequest request){
@@ -40,6 +56,7 @@ public class CategoryController {
         return ResponseEntity.ok(service.createCategory(request));
     }
 
+    @RequiresRole(Role.ADMINISTRATOR)
     @PutMapping("/{id}")
     @Operation(summary = "Update category by id", description = "Update a product category from the Blue Velvet Music Store")
     public ResponseEntity<CategoryResponse> updateCategoryById(@PathVariable Long id, @RequestBody CategoryRequest request){
@@ -48,6 +65,7 @@ public class CategoryController {
         return ResponseEntity.ok(service.updateCategory(id,request));
     }
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @DeleteMapping("/{id}")
     @Operation(summary = "Delete category by id", description = "Delete a product category from the Blue Velvet Music Store")
     public ResponseEntity<Void> deleteCategoryById(@PathVariable Long id){
@@ -56,6 +74,7 @@ public class CategoryController {
         return ResponseEntity.noContent().build();
     }
 
+    @RequiresRole(Role.ADMINISTRATOR)
     @PatchMapping("/{id}")
     @Operation(summary = "Partial update by id", description = "Update only selected fields of a category from the Blue Velvet Music Store")
     public ResponseEntity<CategoryResponse> patchCategoryById(@PathVariable Long id, @RequestBody CategoryRequest request){
@@ -64,4 +83,8 @@ public class CategoryController {
         return ResponseEntity.ok(service.partiallyUpdateCategory(id, request));
     }
 
+    private static Integer normalizeDepth(Integer depth) {
+        return depth == null ? null : Math.max(depth, 0);
+    }
+
 }
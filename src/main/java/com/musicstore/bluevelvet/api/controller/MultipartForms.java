@@ -0,0 +1,41 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.ServletRequestDataBinder;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Leitura dos formulários com upload dentro da tarefa assíncrona (FileStorageService.uploadExecutor).
+ * Com spring.servlet.multipart.resolve-lazily o corpo só é lido no primeiro acesso aos parâmetros ou arquivos;
+ * por isso esses handlers recebem o HttpServletRequest em vez de @ModelAttribute/@RequestParam, que
+ * fariam o Tomcat consumir o corpo inteiro na própria thread antes do handler.
+ */
+final class MultipartForms {
+
+    private MultipartForms() {
+    }
+
+    /**
+     * Preenche o formulário com os campos da requisição (mesmas regras do @ModelAttribute)
+     */
+    static <T> T bind(HttpServletRequest request, T form) {
+        ServletRequestDataBinder binder = new ServletRequestDataBinder(form);
+        binder.bind(request);
+
+        FieldError error = binder.getBindingResult().getFieldError();
+        if (error != null)
+            throw new IllegalArgumentException("Valor inválido para o campo " + error.getField() + ": " + error.getRejectedValue());
+        return form;
+    }
+
+    /**
+     * Arquivo enviado no campo informado, ou null se não houver (inclusive em requisições que não são multipart)
+     */
+    static MultipartFile file(HttpServletRequest request, String name) {
+        MultipartHttpServletRequest multipart = WebUtils.getNativeRequest(request, MultipartHttpServletRequest.class);
+        return multipart != null ? multipart.getFile(name) : null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.api.request.ProductBulkRequest;
+import com.musicstore.bluevelvet.api.response.ProductBulkResponse;
+import com.musicstore.bluevelvet.domain.dto.ProblemDetails;
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@Log4j2 @RestController @RequiredArgsConstructor
+@RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
+@RequestMapping("/products/bulk")
+public class ProductBulkController {
+
+    private final ProductService service;
+
+    @PatchMapping
+    @Operation(summary = "Bulk update products", description = "Set enabled for ids, adjust prices by percent in a category subtree or set stock from a list, in one transaction")
+    public ResponseEntity<ProductBulkResponse> bulkUpdate(@RequestBody ProductBulkRequest request) {
+        log.info("Request received to run {} bulk product operations",
+                request.getOperations() == null ? 0 : request.getOperations().size());
+
+        return ResponseEntity.ok(service.bulkUpdate(request));
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<ProblemDetails> handleInvalidOperation(IllegalArgumentException exception) {
+        return ResponseEntity.badRequest().body(ProblemDetails.builder()
+                .timestamp(LocalDateTime.now())
+                .path("/products/bulk")
+                .error(HttpStatus.BAD_REQUEST.getReasonPhrase())
+                .status(HttpStatus.BAD_REQUEST.value())
+                .userMessage(exception.getMessage())
+                .build());
+    }
+}
@@ -2,25 +2,36 @@ package com.musicstore.bluevelvet.api.controller;
 
 import com.musicstore.bluevelvet.api.request.ProductRequest;
 import com.musicstore.bluevelvet.api.response.ProductResponse;
+import com.musicstore.bluevelvet.domain.pagination.KeysetPage;
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
 import com.musicstore.bluevelvet.domain.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import com.musicstore.bluevelvet.domain.service.FileStorageService;
 import com.musicstore.bluevelvet.domain.service.CategoryService;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
 
 @Controller
+@RequiresRole({Role.ADMINISTRATOR, Role.EDITOR, Role.SALES_MANAGER, Role.SHIPPING_MANAGER})
 @RequestMapping("/products")
 @RequiredArgsConstructor
 public class ProductController {
 
     private static final Integer PAGE_SIZE = 10;
+    private static final long UPLOAD_TIMEOUT_MS = 120_000;
+    static final String PAGER_PAGES = "pages";
+    static final String PAGER_CURSOR = "cursor";
+    static final String PAGER_SIMPLE = "simple";
     private final ProductService productService;
     private final FileStorageService fileStorageService;
     private final CategoryService categoryService;
@@ -30,8 +41,51 @@ public class ProductController {
             @RequestParam(name = "page", defaultValue = "0") Integer page,
             @RequestParam(name = "sort", defaultValue = "name") String sort,
             @RequestParam(name = "search", required = false) String search,
-            Model model
+            @RequestParam(name = "pager", defaultValue = PAGER_PAGES) String pager,
+            @RequestParam(name = "after", required = false) String after,
+            Model model,
+            RedirectAttributes redirectAttributes
     ) {
+        // Paginação por cursor: só para a listagem completa ordenada por nome
+        if (PAGER_CURSOR.equals(pager) && "name".equals(sort) && (search == null || search.trim().isEmpty())) {
+            try {
+                KeysetPage<ProductResponse> products = productService.findAllAfter(after, PAGE_SIZE);
+
+                model.addAttribute("products", products.content());
+                model.addAttribute("nextCursor", products.nextCursor());
+                model.addAttribute("pager", PAGER_CURSOR);
+                model.addAttribute("sort", sort);
+                model.addAttribute("search", search);
+
+                return "products/list";
+            } catch (IllegalArgumentException e) {
+                redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+                return "redirect:/products?pager=" + PAGER_CURSOR;
+            }
+        }
+
+        // Próxima/anterior: busca size + 1 linhas em vez de contar o total
+        if (PAGER_SIMPLE.equals(pager)) {
+            Slice<ProductResponse> products;
+
+            if (search != null && !search.trim().isEmpty()) {
+                products = productService.searchByNameSlice(search,
+                        PageRequest.of(page, PAGE_SIZE, Sort.by(sort)));
+            } else {
+                products = productService.findAllSlice(
+                        PageRequest.of(page, PAGE_SIZE, Sort.by(sort)));
+            }
+
+            model.addAttribute("products", products.getContent());
+            model.addAttribute("currentPage", page);
+            model.addAttribute("hasNext", products.hasNext());
+            model.addAttribute("pager", PAGER_SIMPLE);
+            model.addAttribute("sort", sort);
+            model.addAttribute("search", search);
+
+            return "products/list";
+        }
+
         Page<ProductResponse> products;
 
         if (search != null && !search.trim().isEmpty()) {
@@ -45,12 +99,14 @@ public class ProductController {
         model.addAttribute("products", products.getContent());
         model.addAttribute("currentPage", page);
         model.addAttribute("totalPages", products.getTotalPages());
+        model.addAttribute("pager", PAGER_PAGES);
         model.addAttribute("sort", sort);
         model.addAttribute("search", search);
 
         return "products/list";
     }
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @GetMapping("/create")
     public String createProductForm(Model model) {
         model.addAttribute("product", new ProductRequest());
@@ -59,27 +115,39 @@ public class ProductController {
         return "products/form";
     }
 
+    /**
+     * Leitura do corpo, gravação da imagem e do produto fora da thread do Tomcat (ver MultipartForms)
+     */
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @PostMapping
-    public String createProduct(
-            @ModelAttribute ProductRequest request,
-            @RequestParam(value = "imageFile", required = false) MultipartFile imageFile,
+    public WebAsyncTask<String> createProduct(
+            HttpServletRequest servletRequest,
             RedirectAttributes redirectAttributes
     ) {
-        try {
-            if (imageFile != null && !imageFile.isEmpty()) {
-                String savedFileName = fileStorageService.saveFile(imageFile);
-                request.setImage(savedFileName);
-            }
+        return new WebAsyncTask<>(UPLOAD_TIMEOUT_MS, fileStorageService.uploadExecutor(), () -> {
+            String savedFileName = null;
+            try {
+                ProductRequest request = MultipartForms.bind(servletRequest, new ProductRequest());
+                MultipartFile imageFile = MultipartForms.file(servletRequest, "imageFile");
+                if (imageFile != null && !imageFile.isEmpty()) {
+                    savedFileName = fileStorageService.saveFile(imageFile);
+                    request.setImage(savedFileName);
+                }
 
-            productService.createProduct(request);
-            redirectAttributes.addFlashAttribute("successMessage", "Produto criado com sucesso!");
-            return "redirect:/products";
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Erro ao criar produto: " + e.getMessage());
-            return "redirect:/products/create";
-        }
+                productService.createProduct(request);
+                redirectAttributes.addFlashAttribute("successMessage", "Produto criado com sucesso!");
+                return "redirect:/products";
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("errorMessage", "Erro ao criar produto: " + e.getMessage());
+                return "redirect:/products/create";
+            } finally {
+                // Produto gravado ou não: a imagem passa a depender só das referências no banco
+                fileStorageService.release(savedFileName);
+            }
+        });
     }
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @GetMapping("/{id}/edit")
     public String editProductForm(@PathVariable Long id, Model model, RedirectAttributes redirectAttributes) {
         try {
@@ -94,33 +162,44 @@ public class ProductController {
         }
     }
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @PostMapping("/{id}")
-    public String updateProduct(
+    public WebAsyncTask<String> updateProduct(
             @PathVariable Long id,
-            @ModelAttribute ProductRequest request,
-            @RequestParam(value = "imageFile", required = false) MultipartFile imageFile,
+            HttpServletRequest servletRequest,
             RedirectAttributes redirectAttributes
     ) {
-        try {
-            if (imageFile != null && !imageFile.isEmpty()) {
-                ProductResponse oldProduct = productService.findById(id);
-                if (oldProduct.getImage() != null && !oldProduct.getImage().isEmpty()) {
-                    fileStorageService.deleteFile(oldProduct.getImage());
+        return new WebAsyncTask<>(UPLOAD_TIMEOUT_MS, fileStorageService.uploadExecutor(), () -> {
+            String savedFileName = null;
+            try {
+                ProductRequest request = MultipartForms.bind(servletRequest, new ProductRequest());
+                MultipartFile imageFile = MultipartForms.file(servletRequest, "imageFile");
+                String oldImage = null;
+                if (imageFile != null && !imageFile.isEmpty()) {
+                    oldImage = productService.findById(id).getImage();
+
+                    savedFileName = fileStorageService.saveFile(imageFile);
+                    request.setImage(savedFileName);
                 }
 
-                String savedFileName = fileStorageService.saveFile(imageFile);
-                request.setImage(savedFileName);
-            }
+                productService.updateProduct(id, request);
 
-            productService.updateProduct(id, request);
-            redirectAttributes.addFlashAttribute("successMessage", "Produto atualizado com sucesso!");
-            return "redirect:/products";
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Erro ao atualizar produto: " + e.getMessage());
-            return "redirect:/products/" + id + "/edit";
-        }
+                // Imagem anterior só é liberada depois que o produto deixou de usá-la
+                if (oldImage != null && !oldImage.equals(request.getImage())) {
+                    fileStorageService.deleteFile(oldImage);
+                }
+                redirectAttributes.addFlashAttribute("successMessage", "Produto atualizado com sucesso!");
+                return "redirect:/products";
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute("errorMessage", "Erro ao atualizar produto: " + e.getMessage());
+                return "redirect:/products/" + id + "/edit";
+            } finally {
+                fileStorageService.release(savedFileName);
+            }
+        });
     }
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @PostMapping("/{id}/delete")
     public String deleteProduct(@PathVariable Long id, RedirectAttributes redirectAttributes) {
         try {
@@ -0,0 +1,47 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.api.response.ImportJobResponse;
+import com.musicstore.bluevelvet.domain.converter.ImportJobConverter;
+import com.musicstore.bluevelvet.domain.importer.ImportJob;
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
+import com.musicstore.bluevelvet.domain.service.ProductImportService;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+
+@Log4j2 @RestController @RequiredArgsConstructor
+@RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
+@RequestMapping("/api/products/import")
+public class ProductImportController {
+
+    private final ProductImportService service;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Bulk import products", description = "Import products from a CSV or NDJSON file; the import runs in the background")
+    public ResponseEntity<ImportJobResponse> importProducts(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Request received to import products from {} ({} bytes)", file.getOriginalFilename(), file.getSize());
+
+        if (file.isEmpty())
+            return ResponseEntity.badRequest().build();
+
+        ImportJob job = service.submit(file);
+        return ResponseEntity
+                .accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}").buildAndExpand(job.getId()).toUri())
+                .body(ImportJobConverter.convertToImportJobResponse(job));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get import progress", description = "Progress, counters and row errors of a bulk product import")
+    public ResponseEntity<ImportJobResponse> getImport(@PathVariable String id) {
+        return ResponseEntity.ok(ImportJobConverter.convertToImportJobResponse(service.findJob(id)));
+    }
+}
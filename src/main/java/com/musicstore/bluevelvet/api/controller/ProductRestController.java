@@ -0,0 +1,30 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.api.response.ProductResponse;
+import com.musicstore.bluevelvet.domain.dto.ResourceVersion;
+import com.musicstore.bluevelvet.domain.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+@Log4j2 @RestController @RequiredArgsConstructor
+@RequestMapping("/api/products")
+public class ProductRestController {
+
+    private final ProductService service;
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get product by id", description = "Get a product from the Blue Velvet Music Store, with ETag and Last-Modified for conditional requests")
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest request) {
+        log.info("Request received to fetch a product by id {}", id);
+
+        ResourceVersion version = service.findVersion(id);
+        if (request.checkNotModified(version.etag(), version.lastModifiedMillis()))
+            return null;
+
+        return ResponseEntity.ok(service.findById(id));
+    }
+}
@@ -1,12 +1,15 @@
 package com.musicstore.bluevelvet.api.controller;
 
+import com.musicstore.bluevelvet.api.response.CategoryPathResponse;
 import com.musicstore.bluevelvet.api.response.CategoryResponse;
 import com.musicstore.bluevelvet.api.response.ProductResponse;
+import com.musicstore.bluevelvet.domain.pagination.KeysetPage;
 import com.musicstore.bluevelvet.domain.service.CategoryService;
 import com.musicstore.bluevelvet.domain.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -27,6 +30,7 @@ public class PublicCategoryController {
 
     private static final Integer SHOP_PAGE_SIZE = 10;
     private static final Integer PRODUCT_PAGE_SIZE = 10;
+    private static final Integer SEARCH_PAGE_SIZE = 12;
     private final CategoryService categoryService;
     private final ProductService productService;
 
@@ -44,15 +48,26 @@ public class PublicCategoryController {
     @GetMapping("/shop")
     public String shopHome(
             @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "pager", defaultValue = ProductController.PAGER_PAGES) String pager,
             Model model
     ) {
-        Page<CategoryResponse> categories = categoryService.findAllRootsPaginated(
-                PageRequest.of(page, SHOP_PAGE_SIZE, Sort.by("name").ascending())
-        );
+        PageRequest pageRequest = PageRequest.of(page, SHOP_PAGE_SIZE, Sort.by("name").ascending());
+
+        if (ProductController.PAGER_SIMPLE.equals(pager)) {
+            Slice<CategoryResponse> categories = categoryService.findAllRootsSlice(pageRequest);
+
+            model.addAttribute("categories", categories.getContent());
+            model.addAttribute("hasNext", categories.hasNext());
+            model.addAttribute("totalPages", 0);
+        } else {
+            Page<CategoryResponse> categories = categoryService.findAllRootsPaginated(pageRequest);
+
+            model.addAttribute("categories", categories);
+            model.addAttribute("totalPages", categories.getTotalPages());
+        }
 
-        model.addAttribute("categories", categories);
         model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", categories.getTotalPages());
+        model.addAttribute("pager", pager);
         model.addAttribute("breadcrumb", "Home");
 
         return "shop/home";
@@ -67,6 +82,8 @@ public class PublicCategoryController {
     public String viewCategoryProducts(
             @PathVariable Long id,
             @RequestParam(name = "page", defaultValue = "0") Integer page,
+            @RequestParam(name = "pager", defaultValue = ProductController.PAGER_PAGES) String pager,
+            @RequestParam(name = "after", required = false) String after,
             Model model
     ) {
         try {
@@ -77,8 +94,8 @@ public class PublicCategoryController {
                 return "redirect:/shop";
             }
 
-            // Construir breadcrumb
-            List<String> breadcrumb = buildBreadcrumb(category);
+            // Construir breadcrumb (raiz até a categoria atual, pelo índice da árvore em memória)
+            List<CategoryPathResponse> breadcrumb = categoryService.findPath(id);
 
             // Buscar subcategorias habilitadas e ordenadas por nome
             List<CategoryResponse> enabledChildren = new ArrayList<>();
@@ -89,16 +106,36 @@ public class PublicCategoryController {
                         .toList();
             }
 
-            // Buscar produtos habilitados da categoria
-            Page<ProductResponse> products = productService.findByCategoryAndSubcategories(id,
-                    PageRequest.of(page, PRODUCT_PAGE_SIZE, Sort.by("name").ascending()));
-
             model.addAttribute("category", category);
             model.addAttribute("children", enabledChildren);
             model.addAttribute("breadcrumb", breadcrumb);
-            model.addAttribute("products", products.getContent());
-            model.addAttribute("currentPage", page);
-            model.addAttribute("totalPages", products.getTotalPages());
+            model.addAttribute("pager", pager);
+
+            // Buscar produtos habilitados da categoria
+            if (ProductController.PAGER_SIMPLE.equals(pager)) {
+                Slice<ProductResponse> products = productService.findByCategoryAndSubcategoriesSlice(id,
+                        PageRequest.of(page, PRODUCT_PAGE_SIZE, Sort.by("name").ascending()));
+
+                model.addAttribute("products", products.getContent());
+                model.addAttribute("hasNext", products.hasNext());
+                model.addAttribute("currentPage", page);
+                model.addAttribute("totalPages", 0);
+            } else if (ProductController.PAGER_CURSOR.equals(pager)) {
+                KeysetPage<ProductResponse> products = productService.findByCategoryAndSubcategoriesAfter(id,
+                        after, PRODUCT_PAGE_SIZE);
+
+                model.addAttribute("products", products.content());
+                model.addAttribute("nextCursor", products.nextCursor());
+                model.addAttribute("currentPage", 0);
+                model.addAttribute("totalPages", 0);
+            } else {
+                Page<ProductResponse> products = productService.findByCategoryAndSubcategories(id,
+                        PageRequest.of(page, PRODUCT_PAGE_SIZE, Sort.by("name").ascending()));
+
+                model.addAttribute("products", products.getContent());
+                model.addAttribute("currentPage", page);
+                model.addAttribute("totalPages", products.getTotalPages());
+            }
 
             return "shop/category";
         } catch (Exception e) {
@@ -107,32 +144,23 @@ public class PublicCategoryController {
     }
 
     /**
-     * Constrói o breadcrumb para uma categoria
-     * Exemplo: Home / Music / MP3
+     * Busca textual de produtos habilitados, ordenada por relevância
      */
-    private List<String> buildBreadcrumb(CategoryResponse category) {
-        List<String> breadcrumb = new ArrayList<>();
-        breadcrumb.add("Home");
-
-        // Adicionar caminho até a categoria raiz
-        CategoryResponse current = category;
-        List<String> path = new ArrayList<>();
-
-        while (current != null) {
-            path.add(0, current.getName());
-
-            if (current.getParentId() != null) {
-                try {
-                    current = categoryService.findById(current.getParentId());
-                } catch (Exception e) {
-                    break;
-                }
-            } else {
-                break;
-            }
-        }
+    @GetMapping("/shop/search")
+    public String searchProducts(
+            @RequestParam(name = "q", required = false) String query,
+            @RequestParam(name = "page", defaultValue = "0") Integer page,
+            Model model
+    ) {
+        Page<ProductResponse> products = productService.searchEnabled(query,
+                PageRequest.of(Math.max(page, 0), SEARCH_PAGE_SIZE));
+
+        model.addAttribute("products", products.getContent());
+        model.addAttribute("query", query == null || query.isBlank() ? null : query.trim());
+        model.addAttribute("totalElements", products.getTotalElements());
+        model.addAttribute("currentPage", products.getNumber());
+        model.addAttribute("totalPages", products.getTotalPages());
 
-        breadcrumb.addAll(path);
-        return breadcrumb;
+        return "shop/search";
     }
 }
@@ -0,0 +1,28 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.api.response.PasswordVerificationStatsResponse;
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
+import com.musicstore.bluevelvet.domain.service.PasswordVerificationService;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Log4j2 @RestController @RequiredArgsConstructor
+@RequiresRole(Role.ADMINISTRATOR)
+@RequestMapping("/api/security/stats")
+public class SecurityStatisticsController {
+
+    private final PasswordVerificationService passwordVerificationService;
+
+    @GetMapping("/password-verification")
+    @Operation(summary = "Password verification statistics", description = "Pool size, queue depth, rejected attempts and queue wait / BCrypt verification latency of the login admission control")
+    public ResponseEntity<PasswordVerificationStatsResponse> getPasswordVerificationStatistics() {
+        log.debug("Request received to read password verification statistics");
+        return ResponseEntity.ok(passwordVerificationService.stats());
+    }
+}
@@ -0,0 +1,34 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.api.response.SuggestionResponse;
+import com.musicstore.bluevelvet.domain.search.SuggestionIndex;
+import com.musicstore.bluevelvet.domain.service.SuggestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Log4j2 @RestController @RequiredArgsConstructor
+@RequestMapping("/api/suggest")
+public class SuggestionController {
+
+    private final SuggestionService service;
+
+    @GetMapping
+    @Operation(summary = "Suggest names by prefix", description = "Autocomplete category and product names from the Blue Velvet Music Store")
+    public ResponseEntity<List<SuggestionResponse>> suggest(@RequestParam(name = "q", defaultValue = "") String query,
+                                                            @Parameter(description = "CATEGORY or PRODUCT (omitted = both)")
+                                                            @RequestParam(name = "type", required = false) SuggestionIndex.Type type,
+                                                            @Parameter(description = "Maximum number of suggestions (1 to 50, default 10)")
+                                                            @RequestParam(name = "limit", required = false) Integer limit) {
+        log.debug("Request received to suggest names for prefix {} and type {}", query, type);
+        return ResponseEntity.ok(service.suggest(query, type, limit));
+    }
+}
@@ -2,19 +2,24 @@ package com.musicstore.bluevelvet.api.controller;
 
 import com.musicstore.bluevelvet.api.request.CategoryRequest;
 import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.domain.service.CatalogExportService;
 import com.musicstore.bluevelvet.domain.service.CategoryService;
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
 import com.musicstore.bluevelvet.domain.service.FileStorageService;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
@@ -30,20 +35,17 @@ public class ThymeleafController {
     public static final String ERROR_MESSAGE = "errorMessage";
     public static final String CATEGORIES = "categories";
 
-    public static final String ADMIN = "ROLE_ADMINISTRATOR";
-    public static final String EDITOR = "ROLE_EDITOR";
-    public static final String SHIPPER = "ROLE_SHIPPING_MANAGER";
-    public static final String SALESPERSON = "ROLE_SALES_MANAGER";
-    public static final String ASSISTANT = "ROLE_ASSISTANT";
-
     private static final Integer DEFAULT_DASHBOARD_PAGE_SIZE = 10;  // US-2032: 10 categorias por página no dashboard
     private static final Integer DEFAULT_LIST_PAGE_SIZE = 5;      // US-0907: 5 categorias raiz por página na listagem
+    private static final long UPLOAD_TIMEOUT_MS = 120_000;
     private final CategoryService service;
     private final FileStorageService fileStorageService;
+    private final CatalogExportService exportService;
 
 
     // ============== DASHBOARD ==============
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.SALES_MANAGER, Role.SHIPPING_MANAGER})
     @GetMapping("/dashboard")
     public String categoriesDashboard(
             @RequestParam(name = "page", defaultValue = "0") Integer page,
@@ -54,9 +56,6 @@ public class ThymeleafController {
             Authentication authentication
     ) {
 
-        if(!checkUserAuthorization(authentication, List.of(ADMIN, SALESPERSON, SHIPPER)))
-            return REDIRECT_AUTHORIZATION_ERROR;
-
         // Adiciona informações do usuário autenticado
         addUserInformations(model, authentication);
 
@@ -77,6 +76,7 @@ public class ThymeleafController {
     /**
      * Busca categorias por nome
      */
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @GetMapping("/dashboard/search")
     public String searchCategories(
             @RequestParam(name = "q", required = false) String query,
@@ -86,9 +86,6 @@ public class ThymeleafController {
             Authentication authentication
     ) {
 
-        if(!checkUserAuthorization(authentication, List.of(ADMIN, EDITOR)))
-            return REDIRECT_DASHBOARD;
-
         if (authentication != null) {
             model.addAttribute("username", authentication.getName());
             String role = authentication.getAuthorities().stream()
@@ -120,6 +117,7 @@ public class ThymeleafController {
 
     // ============== LIST ==============
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @GetMapping("/list")
     public String categoriesList(
             @RequestParam(name = "page", defaultValue = "0") Integer page,
@@ -129,9 +127,6 @@ public class ThymeleafController {
             Authentication authentication
     ) {
 
-        if(!checkUserAuthorization(authentication, List.of(ADMIN, EDITOR)))
-            return REDIRECT_AUTHORIZATION_ERROR;
-
         addUserInformations(model, authentication);
 
         Page<CategoryResponse> responsePage = service.findAllRootsWithOrderedChildren(
@@ -149,11 +144,9 @@ public class ThymeleafController {
 
     // ============== CREATE CATEGORY ==============
 
+    @RequiresRole(Role.ADMINISTRATOR)
     @GetMapping("/create-category")
-    public String createCategoryForm(Model model, Authentication authentication) {
-
-        if(!checkUserAuthorization(authentication, List.of(ADMIN)))
-            return REDIRECT_AUTHORIZATION_ERROR;
+    public String createCategoryForm(Model model) {
 
         List<CategoryResponse> responseList = service.findAllRoots();
         model.addAttribute("parentCategories", responseList);
@@ -162,44 +155,47 @@ public class ThymeleafController {
         return "form-category";
     }
 
+    @RequiresRole(Role.ADMINISTRATOR)
     @PostMapping("/category")
-    public String createCategory(@ModelAttribute CategoryRequest request,
-                                 @RequestParam(value = "imageFile", required = false) MultipartFile imageFile,
-                                 RedirectAttributes redirectAttributes,
-                                 Authentication authentication) {
-
-        if(!checkUserAuthorization(authentication, List.of(ADMIN)))
-            return REDIRECT_AUTHORIZATION_ERROR;
+    public WebAsyncTask<String> createCategory(HttpServletRequest servletRequest,
+                                               RedirectAttributes redirectAttributes) {
 
-        try {
-            // Processar upload de imagem
-            if (imageFile == null || imageFile.isEmpty())
-                throw new IllegalArgumentException("Campo imagem é obrigatório.");
+        // Leitura do corpo, gravação da imagem e da categoria fora da thread do Tomcat (ver MultipartForms)
+        return new WebAsyncTask<>(UPLOAD_TIMEOUT_MS, fileStorageService.uploadExecutor(), () -> {
+            String savedFileName = null;
+            try {
+                CategoryRequest request = MultipartForms.bind(servletRequest, new CategoryRequest());
+                MultipartFile imageFile = MultipartForms.file(servletRequest, "imageFile");
 
-            String savedFileName = fileStorageService.saveFile(imageFile);
-            request.setImage(savedFileName);
+                // Processar upload de imagem
+                if (imageFile == null || imageFile.isEmpty())
+                    throw new IllegalArgumentException("Campo imagem é obrigatório.");
 
-            request.setIsRoot(request.getParentId() == null);
-            service.createCategory(request);
-            redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE, "Categoria criada com sucesso!");
-            return REDIRECT_DASHBOARD;
+                savedFileName = fileStorageService.saveFile(imageFile);
+                request.setImage(savedFileName);
 
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute(ERROR_MESSAGE, "Erro ao criar categoria: " + e.getMessage());
-            return REDIRECT_DASHBOARD;
-        }
+                request.setIsRoot(request.getParentId() == null);
+                service.createCategory(request);
+                redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE, "Categoria criada com sucesso!");
+                return REDIRECT_DASHBOARD;
+
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute(ERROR_MESSAGE, "Erro ao criar categoria: " + e.getMessage());
+                return REDIRECT_DASHBOARD;
+            } finally {
+                // Categoria gravada ou não: a imagem passa a depender só das referências no banco
+                fileStorageService.release(savedFileName);
+            }
+        });
     }
 
     // ============== EDIT CATEGORY ==============
 
+    @RequiresRole(Role.ADMINISTRATOR)
     @GetMapping("/category/{id}/edit")
     public String editCategoryForm(@PathVariable Long id,
                                    Model model,
-                                   RedirectAttributes redirectAttributes,
-                                   Authentication authentication) {
-
-        if(!checkUserAuthorization(authentication, List.of(ADMIN)))
-            return REDIRECT_AUTHORIZATION_ERROR;
+                                   RedirectAttributes redirectAttributes) {
 
         try {
             CategoryResponse category = service.findById(id);
@@ -226,49 +222,52 @@ public class ThymeleafController {
         }
     }
 
+    @RequiresRole(Role.ADMINISTRATOR)
     @PostMapping("/category/{id}")
-    public String updateCategory(@PathVariable Long id,
-                                 @ModelAttribute CategoryRequest request,
-                                 @RequestParam(value = "imageFile", required = false) MultipartFile imageFile,
-                                 RedirectAttributes redirectAttributes,
-                                 Authentication authentication) {
+    public WebAsyncTask<String> updateCategory(@PathVariable Long id,
+                                               HttpServletRequest servletRequest,
+                                               RedirectAttributes redirectAttributes) {
+
+        return new WebAsyncTask<>(UPLOAD_TIMEOUT_MS, fileStorageService.uploadExecutor(), () -> {
+            String savedFileName = null;
+            try {
+                CategoryRequest request = MultipartForms.bind(servletRequest, new CategoryRequest());
+                MultipartFile imageFile = MultipartForms.file(servletRequest, "imageFile");
+
+                // Processar upload de nova imagem
+                String oldImage = null;
+                if (imageFile != null && !imageFile.isEmpty()) {
+                    // Busca categoria antiga para liberar a imagem anterior depois da atualização
+                    oldImage = service.findById(id).getImage();
+
+                    savedFileName = fileStorageService.saveFile(imageFile);
+                    request.setImage(savedFileName);
+                }
 
-        if(!checkUserAuthorization(authentication, List.of(ADMIN)))
-            return REDIRECT_AUTHORIZATION_ERROR;
+                request.setIsRoot(request.getParentId() == null);
+                service.updateCategory(id, request);
 
-        try {
-            // Processar upload de nova imagem
-            if (imageFile != null && !imageFile.isEmpty()) {
-                // Busca categoria antiga para deletar imagem anterior
-                CategoryResponse oldCategory = service.findById(id);
-                if (oldCategory.getImage() != null && !oldCategory.getImage().isEmpty()) {
-                    fileStorageService.deleteFile(oldCategory.getImage());
+                if (oldImage != null && !oldImage.equals(request.getImage())) {
+                    fileStorageService.deleteFile(oldImage);
                 }
-
-                String savedFileName = fileStorageService.saveFile(imageFile);
-                request.setImage(savedFileName);
+                redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE, "Categoria atualizada com sucesso!");
+                return REDIRECT_DASHBOARD;
+            } catch (Exception e) {
+                redirectAttributes.addFlashAttribute(ERROR_MESSAGE, "Erro ao atualizar categoria: " + e.getMessage());
+                return "redirect:/category/" + id + "/edit";
+            } finally {
+                fileStorageService.release(savedFileName);
             }
-
-            request.setIsRoot(request.getParentId() == null);
-            service.updateCategory(id, request);
-            redirectAttributes.addFlashAttribute(SUCCESS_MESSAGE, "Categoria atualizada com sucesso!");
-            return REDIRECT_DASHBOARD;
-        } catch (Exception e) {
-            redirectAttributes.addFlashAttribute(ERROR_MESSAGE, "Erro ao atualizar categoria: " + e.getMessage());
-            return "redirect:/category/" + id + "/edit";
-        }
+        });
     }
 
     // ============== VIEW CATEGORY ==============
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @GetMapping("/category/{id}")
     public String viewCategory(@PathVariable Long id,
                                Model model,
-                               RedirectAttributes redirectAttributes,
-                               Authentication authentication) {
-
-        if(!checkUserAuthorization(authentication, List.of(ADMIN, EDITOR)))
-            return REDIRECT_AUTHORIZATION_ERROR;
+                               RedirectAttributes redirectAttributes) {
 
         try {
             CategoryResponse category = service.findById(id);
@@ -301,13 +300,10 @@ public class ThymeleafController {
 
     // ============== DELETE CATEGORY ==============
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @PostMapping("/category/{id}/delete")
     public String deleteCategory(@PathVariable Long id,
-                                 RedirectAttributes redirectAttributes,
-                                 Authentication authentication) {
-
-        if(!checkUserAuthorization(authentication, List.of(ADMIN, EDITOR)))
-            return REDIRECT_AUTHORIZATION_ERROR;
+                                 RedirectAttributes redirectAttributes) {
 
         try {
             service.deleteById(id);
@@ -321,11 +317,9 @@ public class ThymeleafController {
 
     // ============== RESET CATEGORIES ==============
 
+    @RequiresRole(Role.ADMINISTRATOR)
     @PostMapping("/category/reset")
-    public String resetCategories(RedirectAttributes redirectAttributes, Authentication authentication) {
-
-        if(!checkUserAuthorization(authentication, List.of(ADMIN)))
-            return REDIRECT_AUTHORIZATION_ERROR;
+    public String resetCategories(RedirectAttributes redirectAttributes) {
 
         try {
             service.deleteAllAndResetInitial();
@@ -339,25 +333,35 @@ public class ThymeleafController {
 
     // ============== EXPORT CSV ==============
 
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
     @GetMapping("/category/export/csv")
-    public org.springframework.http.ResponseEntity<byte[]> exportCategoriesCSV(Authentication authentication) {
+    public ResponseEntity<StreamingResponseBody> exportCategoriesCSV(
+            @RequestParam(name = "gzip", defaultValue = "false") Boolean gzip
+    ) {
 
-        if(!checkUserAuthorization(authentication, List.of(ADMIN, EDITOR)))
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        return csvAttachment(exportService.generateCSVFileName("categories", gzip), gzip,
+                out -> exportService.exportCategories(out, gzip));
+    }
 
-        try {
-            String csvContent = service.exportToCSV();
-            String fileName = service.generateCSVFileName();
+    @RequiresRole({Role.ADMINISTRATOR, Role.EDITOR})
+    @GetMapping("/product/export/csv")
+    public ResponseEntity<StreamingResponseBody> exportProductsCSV(
+            @RequestParam(name = "gzip", defaultValue = "false") Boolean gzip
+    ) {
 
-            byte[] csvBytes = csvContent.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+        return csvAttachment(exportService.generateCSVFileName("products", gzip), gzip,
+                out -> exportService.exportProducts(out, gzip));
+    }
 
-            return org.springframework.http.ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
-                    .header("Content-Type", "text/csv; charset=UTF-8")
-                    .body(csvBytes);
-        } catch (Exception e) {
-            return org.springframework.http.ResponseEntity.status(org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    /**
+     * O corpo é escrito depois que o controller retorna, direto no stream da resposta
+     */
+    private static ResponseEntity<StreamingResponseBody> csvAttachment(String fileName, boolean gzip,
+                                                                       StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .header("Content-Disposition", "attachment; filename=\"" + fileName + "\"")
+                .header("Content-Type", gzip ? "application/gzip" : "text/csv; charset=UTF-8")
+                .body(body);
     }
 
     // ============== AUTHORIZATION ERROR =================
@@ -382,9 +386,4 @@ public class ThymeleafController {
             model.addAttribute("role", role.replace("ROLE_", ""));
         }
     }
-
-    private Boolean checkUserAuthorization(Authentication authentication, List<String> allowedRoles){
-        return authentication != null && authentication.getAuthorities().stream()
-                .anyMatch(a -> allowedRoles.contains(a.getAuthority()));
-    }
 }
@@ -0,0 +1,44 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.api.response.TokenResponse;
+import com.musicstore.bluevelvet.domain.service.CustomUserDetails;
+import com.musicstore.bluevelvet.domain.service.TokenService;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Log4j2 @RestController @RequiredArgsConstructor
+@RequestMapping("/api/auth")
+public class TokenController {
+
+    private final TokenService tokenService;
+
+    /**
+     * Emite um token para quem se autenticou por senha (Basic) ou sessão; um token não renova a si mesmo
+     */
+    @PostMapping("/token")
+    @Operation(summary = "Issue an access token", description = "Issue a short-lived bearer token for the authenticated user (HTTP Basic or session)")
+    public ResponseEntity<TokenResponse> issueToken(Authentication authentication) {
+        if (authentication instanceof PreAuthenticatedAuthenticationToken
+                || !(authentication.getPrincipal() instanceof CustomUserDetails userDetails))
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+
+        log.info("Issuing access token for {}", userDetails.getUsername());
+        TokenService.IssuedToken token = tokenService.issue(userDetails);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(TokenResponse.builder()
+                        .accessToken(token.value())
+                        .tokenType(TokenService.TOKEN_TYPE)
+                        .expiresIn(token.expiresIn().toSeconds())
+                        .build());
+    }
+}
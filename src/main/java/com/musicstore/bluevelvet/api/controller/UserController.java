@@ -1,5 +1,6 @@
 package com.musicstore.bluevelvet.api.controller;
 
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
 import com.musicstore.bluevelvet.domain.service.UserService;
 import com.musicstore.bluevelvet.infrastructure.entity.User;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
+@RequiresRole(User.Role.ADMINISTRATOR)
 @RequestMapping("/users")
 @RequiredArgsConstructor
 public class UserController {
@@ -0,0 +1,68 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.domain.service.TokenService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Autentica requisições com "Authorization: Bearer <token>" emitido pelo TokenService.
+ * O contexto de segurança vale só para a requisição: nada é gravado na sessão.
+ * Token inválido recebe 401 sem passar para os demais mecanismos de autenticação.
+ * Roda também nos dispatches assíncronos (uploads com WebAsyncTask) e de erro, que não têm sessão de onde
+ * recuperar o contexto.
+ */
+@RequiredArgsConstructor
+public class BearerTokenFilter extends OncePerRequestFilter {
+
+    private static final String PREFIX = TokenService.TOKEN_TYPE + " ";
+
+    private final TokenService tokenService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return authorization == null || !authorization.regionMatches(true, 0, PREFIX, 0, PREFIX.length());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilterErrorDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String token = request.getHeader(HttpHeaders.AUTHORIZATION).substring(PREFIX.length()).trim();
+        Optional<PreAuthenticatedAuthenticationToken> authentication = tokenService.authenticate(token);
+        if (authentication.isEmpty()) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, TokenService.TOKEN_TYPE + " error=\"invalid_token\"");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(authentication.get());
+        SecurityContextHolder.setContext(context);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.domain.exception.PasswordVerificationRejectedException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Responde 429 quando a verificação de senha foi recusada pelo PasswordVerificationService.
+ * Fica antes dos filtros de autenticação (formulário, httpBasic, remember-me), que não tratam essa exceção.
+ */
+public class PasswordVerificationRejectedFilter extends OncePerRequestFilter {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            chain.doFilter(request, response);
+        } catch (PasswordVerificationRejectedException e) {
+            reject(response, e);
+        } catch (ServletException e) {
+            if (!(e.getCause() instanceof PasswordVerificationRejectedException rejected))
+                throw e;
+            reject(response, rejected);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, PasswordVerificationRejectedException exception) throws IOException {
+        if (response.isCommitted())
+            throw exception;
+        response.reset();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(exception.getMessage());
+    }
+}
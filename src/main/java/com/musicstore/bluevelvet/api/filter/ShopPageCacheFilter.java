@@ -0,0 +1,92 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.domain.cache.ShopPageCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Serve as páginas públicas /shop/** a partir do ShopPageCache.
+ * Um GET com If-None-Match igual à ETag em cache recebe 304 sem chegar ao controller;
+ * um acerto sem ETag recebe os bytes já renderizados, em gzip quando o cliente aceita.
+ */
+@RequiredArgsConstructor
+public class ShopPageCacheFilter extends OncePerRequestFilter {
+
+    private final ShopPageCache pageCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String url = request.getQueryString() == null
+                ? request.getRequestURI()
+                : request.getRequestURI() + "?" + request.getQueryString();
+
+        long catalogVersion = pageCache.catalogVersion();
+        ShopPageCache.Page page = pageCache.find(ShopPageCache.key(catalogVersion, url));
+        if (page != null) {
+            write(page, request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        if (!isCacheable(request, wrapper)) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        page = pageCache.store(catalogVersion, url, wrapper.getContentType(), wrapper.getContentAsByteArray());
+        wrapper.resetBuffer();
+        write(page, request, response);
+    }
+
+    private static boolean isCacheable(HttpServletRequest request, ContentCachingResponseWrapper response) {
+        return response.getStatus() == HttpServletResponse.SC_OK
+                && !request.isAsyncStarted()
+                && response.getContentType() != null
+                && MediaType.TEXT_HTML.isCompatibleWith(MediaType.parseMediaType(response.getContentType()))
+                && !response.containsHeader(HttpHeaders.SET_COOKIE);
+    }
+
+    private static void write(ShopPageCache.Page page, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = page.gzippedBody() != null && acceptsGzip(request);
+
+        response.setHeader(HttpHeaders.ETAG, gzip ? page.gzippedEtag() : page.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (page.matches(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = gzip ? page.gzippedBody() : page.body();
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(page.contentType());
+        if (gzip)
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+}
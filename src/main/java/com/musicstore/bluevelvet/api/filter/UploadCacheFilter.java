@@ -0,0 +1,116 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.domain.service.FileStorageService;
+import com.musicstore.bluevelvet.domain.service.UploadUrlService;
+import com.musicstore.bluevelvet.domain.upload.ImageType;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Cache-Control dos arquivos em /uploads/**: imutável por um ano quando a URL tem impressão digital
+ * (nome por SHA-256 ou ?v= igual à versão atual); caso contrário o navegador revalida pela ETag.
+ * Só respostas 200, 206 e 304 levam esse cabeçalho: um 404 ou 500 na mesma URL não pode ficar guardado
+ * como imutável, então erros e redirecionamentos saem com no-store.
+ * SVG pode conter scripts: aberto direto no navegador, é baixado como anexo e sem poder executar nada
+ * (CSP sandbox); em &lt;img&gt; continua sendo exibido normalmente.
+ */
+@RequiredArgsConstructor
+public class UploadCacheFilter extends OncePerRequestFilter {
+
+    static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    static final String REVALIDATE = CacheControl.noCache().cachePublic().getHeaderValue();
+    static final String NO_STORE = CacheControl.noStore().getHeaderValue();
+    static final Set<Integer> CACHEABLE_STATUSES = Set.of(HttpServletResponse.SC_OK,
+            HttpServletResponse.SC_PARTIAL_CONTENT, HttpServletResponse.SC_NOT_MODIFIED);
+    static final String SVG_CONTENT_SECURITY_POLICY = "sandbox";
+    static final String SVG_CONTENT_DISPOSITION = "attachment";
+
+    private final UploadUrlService uploadUrlService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String filename = path.startsWith(UploadUrlService.PATH_PREFIX)
+                ? path.substring(UploadUrlService.PATH_PREFIX.length())
+                : path;
+
+        boolean immutable = uploadUrlService.isImmutable(filename, request.getParameter(UploadUrlService.VERSION_PARAMETER));
+        CacheControlResponse wrapper = new CacheControlResponse(response, immutable ? IMMUTABLE : REVALIDATE);
+        // Tipos compressíveis podem ter uma cópia .gz: a resposta sem compressão também varia com Accept-Encoding
+        if (FileStorageService.COMPRESSIBLE_EXTENSIONS.contains(FileStorageService.extensionOf(filename)))
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (ImageType.SVG.extension().equals(FileStorageService.extensionOf(filename))) {
+            response.setHeader("Content-Security-Policy", SVG_CONTENT_SECURITY_POLICY);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, SVG_CONTENT_DISPOSITION);
+        }
+
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            if (!response.isCommitted())
+                response.setHeader(HttpHeaders.CACHE_CONTROL, NO_STORE);
+            throw e;
+        }
+        if (!response.isCommitted())
+            wrapper.applyCacheControl(response.getStatus());
+    }
+
+    /**
+     * Troca o Cache-Control conforme o status definido pelo handler, antes que a resposta seja enviada
+     */
+    private static final class CacheControlResponse extends HttpServletResponseWrapper {
+
+        private final String cacheControl;
+
+        CacheControlResponse(HttpServletResponse response, String cacheControl) {
+            super(response);
+            this.cacheControl = cacheControl;
+            applyCacheControl(response.getStatus());
+        }
+
+        void applyCacheControl(int status) {
+            setHeader(HttpHeaders.CACHE_CONTROL, CACHEABLE_STATUSES.contains(status) ? cacheControl : NO_STORE);
+        }
+
+        @Override
+        public void setStatus(int status) {
+            applyCacheControl(status);
+            super.setStatus(status);
+        }
+
+        @Override
+        public void sendError(int status) throws IOException {
+            applyCacheControl(status);
+            super.sendError(status);
+        }
+
+        @Override
+        public void sendError(int status, String message) throws IOException {
+            applyCacheControl(status);
+            super.sendError(status, message);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            applyCacheControl(HttpServletResponse.SC_FOUND);
+            super.sendRedirect(location);
+        }
+    }
+}
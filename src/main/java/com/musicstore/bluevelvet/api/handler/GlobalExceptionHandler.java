@@ -2,6 +2,8 @@ package com.musicstore.bluevelvet.api.handler;
 
 import com.musicstore.bluevelvet.domain.dto.ProblemDetails;
 import com.musicstore.bluevelvet.domain.exception.CategoryNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.ImportJobNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.ImportRejectedException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,7 +17,7 @@ import java.time.LocalDateTime;
 @RestControllerAdvice
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
-    @ExceptionHandler(value = {CategoryNotFoundException.class})
+    @ExceptionHandler(value = {CategoryNotFoundException.class, ImportJobNotFoundException.class})
     private ResponseEntity<?> handleNotFound(RuntimeException exception, WebRequest request){
         ProblemDetails problemDetails = ProblemDetails.builder()
                 .timestamp(LocalDateTime.now())
@@ -27,4 +29,17 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
         return handleExceptionInternal(exception, problemDetails, new HttpHeaders(), HttpStatus.NOT_FOUND, request);
     }
+
+    @ExceptionHandler(value = {ImportRejectedException.class})
+    private ResponseEntity<?> handleTooManyRequests(RuntimeException exception, WebRequest request){
+        ProblemDetails problemDetails = ProblemDetails.builder()
+                .timestamp(LocalDateTime.now())
+                .path(request.getContextPath())
+                .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .userMessage(exception.getMessage())
+                .build();
+
+        return handleExceptionInternal(exception, problemDetails, new HttpHeaders(), HttpStatus.TOO_MANY_REQUESTS, request);
+    }
 }
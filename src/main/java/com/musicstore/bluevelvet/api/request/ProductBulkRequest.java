@@ -0,0 +1,37 @@
+package com.musicstore.bluevelvet.api.request;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Operações em massa executadas na ordem recebida, todas na mesma transação.
+ * SET_ENABLED usa ids e enabled; ADJUST_PRICE usa categoryId (inclui a subárvore) e percent;
+ * SET_STOCK usa stock.
+ */
+@Getter @Setter @Builder @ToString
+@NoArgsConstructor @AllArgsConstructor
+public class ProductBulkRequest {
+    private List<Operation> operations;
+
+    public enum Type { SET_ENABLED, ADJUST_PRICE, SET_STOCK }
+
+    @Getter @Setter @Builder @ToString
+    @NoArgsConstructor @AllArgsConstructor
+    public static class Operation {
+        private Type type;
+        private List<Long> ids;
+        private Boolean enabled;
+        private Long categoryId;
+        private BigDecimal percent;
+        private List<StockItem> stock;
+    }
+
+    @Getter @Setter @Builder @ToString
+    @NoArgsConstructor @AllArgsConstructor
+    public static class StockItem {
+        private Long id;
+        private Integer stockQuantity;
+    }
+}
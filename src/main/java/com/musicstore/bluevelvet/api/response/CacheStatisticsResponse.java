@@ -0,0 +1,31 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @Builder @ToString
+@NoArgsConstructor @AllArgsConstructor
+public class CacheStatisticsResponse {
+    private Long hitCount;
+    private Long missCount;
+    private Long putCount;
+    private Double hitRatio;
+    private Long queryHitCount;
+    private Long queryMissCount;
+    private Long statementCount;
+    private List<Region> regions;
+
+    @Getter @Setter @Builder @ToString
+    @NoArgsConstructor @AllArgsConstructor
+    public static class Region {
+        private String name;
+        private Long maximumSize;
+        private Long timeToLiveSeconds;
+        private Long elementCount;
+        private Long hitCount;
+        private Long missCount;
+        private Long putCount;
+        private Double hitRatio;
+    }
+}
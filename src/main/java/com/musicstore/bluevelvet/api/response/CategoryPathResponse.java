@@ -0,0 +1,10 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.*;
+
+@Getter @Setter @Builder @ToString
+@NoArgsConstructor @AllArgsConstructor
+public class CategoryPathResponse {
+    private Long id;
+    private String name;
+}
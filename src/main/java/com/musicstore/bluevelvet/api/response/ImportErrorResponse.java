@@ -0,0 +1,10 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.*;
+
+@Getter @Setter @Builder @ToString
+@NoArgsConstructor @AllArgsConstructor
+public class ImportErrorResponse {
+    private Long line;
+    private String message;
+}
@@ -0,0 +1,26 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportJobResponse {
+    private String id;
+    private String fileName;
+    private String format;
+    private String status;
+    private String message;
+    private Long processed;
+    private Long imported;
+    private Long failed;
+    private Long rowsPerSecond;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<ImportErrorResponse> errors;
+}
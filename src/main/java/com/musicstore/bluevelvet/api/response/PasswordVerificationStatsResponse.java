@@ -0,0 +1,18 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.*;
+
+@Getter @Setter @Builder @ToString
+@NoArgsConstructor @AllArgsConstructor
+public class PasswordVerificationStatsResponse {
+    private Integer threads;
+    private Integer queueCapacity;
+    private Integer queueDepth;
+    private Integer active;
+    private Long completedCount;
+    private Long rejectedCount;
+    private Double averageWaitMillis;
+    private Double maxWaitMillis;
+    private Double averageVerificationMillis;
+    private Double maxVerificationMillis;
+}
@@ -0,0 +1,19 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter @Setter @Builder @ToString
+@NoArgsConstructor @AllArgsConstructor
+public class ProductBulkResponse {
+    private List<Result> results;
+    private Integer totalAffected;
+
+    @Getter @Setter @Builder @ToString
+    @NoArgsConstructor @AllArgsConstructor
+    public static class Result {
+        private String type;
+        private Integer affected;
+    }
+}
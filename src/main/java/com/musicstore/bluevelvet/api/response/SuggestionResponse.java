@@ -0,0 +1,11 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.*;
+
+@Getter @Setter @Builder @ToString
+@NoArgsConstructor @AllArgsConstructor
+public class SuggestionResponse {
+    private String type;
+    private Long id;
+    private String name;
+}
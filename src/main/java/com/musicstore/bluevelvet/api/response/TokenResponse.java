@@ -0,0 +1,14 @@
+package com.musicstore.bluevelvet.api.response;
+
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenResponse {
+    private String accessToken;
+    private String tokenType;
+    private Long expiresIn;
+}
@@ -0,0 +1,87 @@
+package com.musicstore.bluevelvet.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Cache de segundo nível do Hibernate (JCache sobre Caffeine).
+ * Cada região é criada aqui com tamanho e TTL explícitos; regiões não declaradas fazem a inicialização falhar.
+ */
+@Configuration
+public class CacheConfig {
+
+    public static final String CATEGORY_REGION = "category";
+    public static final String CATEGORY_CHILDREN_REGION = "category.children";
+    public static final String CATEGORY_ROOTS_REGION = "category.roots";
+    public static final String PRODUCT_REGION = "product";
+    public static final String DEFAULT_QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    /**
+     * Limites de uma região: número máximo de entradas e tempo de vida após a escrita (null = sem expiração)
+     */
+    public record Region(String name, long maximumSize, Duration timeToLive) {
+    }
+
+    /**
+     * Categorias mudam poucas vezes ao dia e são poucas; produtos mudam mais e são muitos.
+     * Os timestamps de atualização não podem expirar antes dos resultados de consulta que validam.
+     */
+    public static final List<Region> REGIONS = List.of(
+            new Region(CATEGORY_REGION, 10_000, Duration.ofHours(6)),
+            new Region(CATEGORY_CHILDREN_REGION, 10_000, Duration.ofHours(6)),
+            new Region(CATEGORY_ROOTS_REGION, 256, Duration.ofHours(6)),
+            new Region(PRODUCT_REGION, 50_000, Duration.ofHours(1)),
+            new Region(DEFAULT_QUERY_RESULTS_REGION, 1_000, Duration.ofMinutes(10)),
+            new Region(UPDATE_TIMESTAMPS_REGION, 1_000, null)
+    );
+
+    /**
+     * Um gerenciador próprio por contexto, para que contextos distintos (ex.: testes) não compartilhem regiões
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("bluevelvet-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (Region region : REGIONS) {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setMaximumSize(OptionalLong.of(region.maximumSize()));
+            if (region.timeToLive() != null)
+                configuration.setExpireAfterWrite(OptionalLong.of(region.timeToLive().toNanos()));
+            configuration.setStoreByValue(false);
+            configuration.setStatisticsEnabled(true);
+            cacheManager.createCache(region.name(), configuration);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            // Alterar Category.parent também invalida a coleção children do pai em cache
+            properties.put(AvailableSettings.AUTO_EVICT_COLLECTION_CACHE, true);
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.domain.cache.AuthenticationCache;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Consulta o AuthenticationCache antes de delegar a verificação da senha (BCrypt) ao provider real.
+ * O resultado em cache é copiado a cada requisição, com os detalhes (IP, sessão) da requisição atual.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final AuthenticationCache cache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, AuthenticationCache cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (authentication.getName() == null || !(authentication.getCredentials() instanceof String password))
+            return delegate.authenticate(authentication);
+
+        Authentication cached = cache.getAuthentication(authentication.getName(), password,
+                () -> delegate.authenticate(authentication));
+        if (cached == null)
+            return null;
+
+        UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                cached.getPrincipal(), null, cached.getAuthorities());
+        result.setDetails(authentication.getDetails());
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
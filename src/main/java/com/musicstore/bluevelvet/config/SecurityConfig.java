@@ -1,10 +1,26 @@
 package com.musicstore.bluevelvet.config;
 
+import com.musicstore.bluevelvet.api.filter.BearerTokenFilter;
+import com.musicstore.bluevelvet.api.filter.PasswordVerificationRejectedFilter;
+import com.musicstore.bluevelvet.domain.cache.AuthenticationCache;
+import com.musicstore.bluevelvet.domain.security.RequiresRole;
+import com.musicstore.bluevelvet.domain.security.RoleMaskAuthorizationManager;
 import com.musicstore.bluevelvet.domain.service.CustomUserDetailsService;
+import com.musicstore.bluevelvet.domain.service.PasswordVerificationService;
+import com.musicstore.bluevelvet.domain.service.TokenService;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
-import org.springframework.security.config.Customizer;
+import org.springframework.security.config.ObjectPostProcessor;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
@@ -12,15 +28,34 @@ import org.springframework.security.config.annotation.web.configurers.AbstractHt
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.NullRememberMeServices;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import org.springframework.security.web.access.AccessDeniedHandler;
+import org.springframework.security.web.access.AccessDeniedHandlerImpl;
+import org.springframework.security.web.access.RequestMatcherDelegatingAccessDeniedHandler;
+import org.springframework.security.web.util.matcher.MediaTypeRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import java.util.LinkedHashMap;
+import java.util.Set;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
+    private final AuthenticationCache authenticationCache;
+    private final TokenService tokenService;
+    private final PasswordVerificationService passwordVerificationService;
 
-    public SecurityConfig(CustomUserDetailsService userDetailsService) {
+    public SecurityConfig(CustomUserDetailsService userDetailsService, AuthenticationCache authenticationCache,
+                          TokenService tokenService, PasswordVerificationService passwordVerificationService) {
         this.userDetailsService = userDetailsService;
+        this.authenticationCache = authenticationCache;
+        this.tokenService = tokenService;
+        this.passwordVerificationService = passwordVerificationService;
     }
 
     @Bean
@@ -59,13 +94,48 @@ public class SecurityConfig {
                         .logoutUrl("/logout")
                         .logoutSuccessUrl("/login?logout=true")
                         .invalidateHttpSession(true)
-                        .deleteCookies("JSESSIONID", "bluevelvet-remember-me")  // Remove também o cookie remember-me
+                        .deleteCookies("bluevelvet-remember-me")  // Remove também o cookie remember-me (o SESSION sai com a sessão)
                 )
-                .httpBasic(Customizer.withDefaults());
+                // Basic envia as credenciais a cada requisição: sem remember-me, que leria o parâmetro (e o corpo
+                // multipart inteiro, ver MultipartForms) ainda na thread do Tomcat
+                .httpBasic(basic -> basic.addObjectPostProcessor(new ObjectPostProcessor<BasicAuthenticationFilter>() {
+                    @Override
+                    public <O extends BasicAuthenticationFilter> O postProcess(O filter) {
+                        filter.setRememberMeServices(new NullRememberMeServices());
+                        return filter;
+                    }
+                }))
+                // Tokens da API (POST /api/auth/token): validados só com CPU, sem sessão nem consulta ao banco
+                .addFilterBefore(new BearerTokenFilter(tokenService), BasicAuthenticationFilter.class)
+                // Fila de verificação de senhas cheia -> 429 (ver PasswordVerificationService)
+                .addFilterBefore(new PasswordVerificationRejectedFilter(), UsernamePasswordAuthenticationFilter.class)
+                // @RequiresRole negado: páginas vão para /authorization-error, a API recebe 403
+                .exceptionHandling(exceptions -> exceptions.accessDeniedHandler(accessDeniedHandler()));
 
         return http.build();
     }
 
+    /**
+     * Autorização declarativa dos controllers: @RequiresRole decidido por máscara de bits (RoleMaskAuthorizationManager)
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor requiresRoleAuthorization() {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(RequiresRole.class, true))
+                .union(new AnnotationMatchingPointcut(null, RequiresRole.class, true));
+        return new AuthorizationManagerBeforeMethodInterceptor(pointcut, new RoleMaskAuthorizationManager());
+    }
+
+    private static AccessDeniedHandler accessDeniedHandler() {
+        MediaTypeRequestMatcher htmlRequests = new MediaTypeRequestMatcher(MediaType.TEXT_HTML);
+        htmlRequests.setIgnoredMediaTypes(Set.of(MediaType.ALL));
+
+        LinkedHashMap<RequestMatcher, AccessDeniedHandler> handlers = new LinkedHashMap<>();
+        handlers.put(htmlRequests, (request, response, exception) ->
+                response.sendRedirect(request.getContextPath() + "/authorization-error"));
+        return new RequestMatcherDelegatingAccessDeniedHandler(handlers, new AccessDeniedHandlerImpl());
+    }
+
     @Bean
     public WebSecurityCustomizer webSecurityCustomizer() {
         return web -> web.ignoring().requestMatchers(
@@ -73,12 +143,16 @@ public class SecurityConfig {
         );
     }
 
+    /**
+     * httpBasic envia as credenciais a cada requisição: a verificação BCrypt é feita uma vez e reaproveitada
+     * pelo AuthenticationCache enquanto as mesmas credenciais continuarem válidas.
+     * As verificações que sobram passam pelo pool limitado do PasswordVerificationService.
+     */
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
+        authProvider.setPasswordEncoder(passwordVerificationService.bounded(passwordEncoder()));
+        return new CachingAuthenticationProvider(authProvider, authenticationCache);
     }
 
     @Bean
@@ -0,0 +1,24 @@
+package com.musicstore.bluevelvet.config;
+
+import com.musicstore.bluevelvet.domain.session.CompactSessionSerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+
+/**
+ * Sessões HTTP no banco (Spring Session JDBC, configurado pelo Spring Boot sobre o datasource da aplicação):
+ * qualquer instância atende qualquer usuário logado, sem balanceamento com afinidade.
+ * O repositório só grava os atributos alterados e só desserializa um atributo quando ele é lido;
+ * a limpeza das expiradas fica com ExpiredSessionCleaner.
+ */
+@Configuration
+public class SessionConfig {
+
+    /**
+     * Nome exigido pelo Spring Session para trocar a serialização dos atributos
+     */
+    @Bean
+    public ConversionService springSessionConversionService() {
+        return CompactSessionSerializer.conversionService(getClass().getClassLoader());
+    }
+}
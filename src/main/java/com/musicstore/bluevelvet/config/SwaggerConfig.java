@@ -20,6 +20,8 @@ public class SwaggerConfig {
                         .addSecuritySchemes(schemeName, new SecurityScheme()
                                 .name(schemeName)
                                 .type(SecurityScheme.Type.HTTP)
+                                .scheme("bearer")
+                                .bearerFormat("JWT")
                                 .in(SecurityScheme.In.HEADER)
                         ));
     }
@@ -1,10 +1,22 @@
 package com.musicstore.bluevelvet.config;
 
+import com.musicstore.bluevelvet.api.filter.ShopPageCacheFilter;
+import com.musicstore.bluevelvet.api.filter.UploadCacheFilter;
+import com.musicstore.bluevelvet.domain.cache.ShopPageCache;
+import com.musicstore.bluevelvet.domain.service.UploadUrlService;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.HttpResource;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -19,9 +31,51 @@ public class WebMvcConfig implements WebMvcConfigurer {
         Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
         String uploadPathUri = uploadPath.toUri().toString();
 
-        // Mapeia /uploads/** para o diretório de upload
+        // Mapeia /uploads/** para o diretório de upload. Range e If-None-Match são tratados pelo próprio handler;
+        // o Cache-Control vem do UploadCacheFilter e as versões .gz pré-comprimidas são servidas quando aceitas
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations(uploadPathUri);
+                .addResourceLocations(uploadPathUri)
+                .setEtagGenerator(WebMvcConfig::uploadEtag)
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver());
+    }
+
+    /**
+     * ETag forte: o próprio nome para arquivos endereçados por conteúdo, tamanho e data para os de nome antigo;
+     * a representação comprimida tem ETag própria
+     */
+    static String uploadEtag(Resource resource) {
+        try {
+            String filename = resource.getFilename();
+            String tag = UploadUrlService.isContentAddressed(filename)
+                    ? filename
+                    : Long.toHexString(resource.contentLength()) + "-" + Long.toHexString(resource.lastModified());
+            if (resource instanceof HttpResource httpResource
+                    && httpResource.getResponseHeaders().containsKey(HttpHeaders.CONTENT_ENCODING))
+                tag += "-" + httpResource.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            return tag;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Cache de páginas da loja, depois da cadeia do Spring Security (spring.security.filter.order = 5)
+     */
+    @Bean
+    public FilterRegistrationBean<ShopPageCacheFilter> shopPageCacheFilter(ShopPageCache pageCache) {
+        FilterRegistrationBean<ShopPageCacheFilter> registration = new FilterRegistrationBean<>(new ShopPageCacheFilter(pageCache));
+        registration.addUrlPatterns("/shop/*");
+        registration.setOrder(10);
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<UploadCacheFilter> uploadCacheFilter(UploadUrlService uploadUrlService) {
+        FilterRegistrationBean<UploadCacheFilter> registration = new FilterRegistrationBean<>(new UploadCacheFilter(uploadUrlService));
+        registration.addUrlPatterns("/uploads/*");
+        registration.setOrder(10);
+        return registration;
     }
 }
 
@@ -0,0 +1,135 @@
+package com.musicstore.bluevelvet.domain.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.musicstore.bluevelvet.domain.event.UserChangedEvent;
+import com.musicstore.bluevelvet.domain.service.CustomUserDetails;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches da autenticação por credenciais (httpBasic e formulário de login):
+ * - users: e-mail -> CustomUserDetails, evita o SELECT por e-mail a cada requisição;
+ * - authentications: HMAC(e-mail, senha) -> autenticação já verificada, evita o BCrypt.
+ * A chave do HMAC é aleatória e só existe em memória: o cache não guarda senhas nem hashes reversíveis.
+ * Só autenticações bem-sucedidas são guardadas, por pouco tempo; qualquer alteração do usuário as descarta.
+ */
+@Component @Log4j2
+public class AuthenticationCache {
+
+    public static final long MAXIMUM_USERS = 1_000;
+    public static final Duration USER_TTL = Duration.ofMinutes(5);
+    public static final long MAXIMUM_AUTHENTICATIONS = 10_000;
+    public static final Duration AUTHENTICATION_TTL = Duration.ofSeconds(60);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, CustomUserDetails> users = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_USERS)
+            .expireAfterWrite(USER_TTL)
+            .recordStats()
+            .build();
+
+    private final Cache<String, Authentication> authentications = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_AUTHENTICATIONS)
+            .expireAfterWrite(AUTHENTICATION_TTL)
+            .recordStats()
+            .build();
+
+    private final SecretKeySpec key;
+
+    /**
+     * Incrementado a cada invalidação; uma carga que atravessou uma invalidação não fica em cache
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public AuthenticationCache() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    public CustomUserDetails getUser(String email, Supplier<CustomUserDetails> loader) {
+        long loadedAt = generation.get();
+        CustomUserDetails user = users.get(email, ignored -> loader.get());
+        if (generation.get() != loadedAt)
+            users.invalidate(email);
+        return user;
+    }
+
+    /**
+     * Autenticação em cache para as credenciais apresentadas, ou o resultado do loader (que lança em caso de falha)
+     */
+    public Authentication getAuthentication(String username, String password, Supplier<Authentication> loader) {
+        String credentialsKey = hmac(username, password);
+
+        long loadedAt = generation.get();
+        Authentication authentication = authentications.get(credentialsKey, ignored -> loader.get());
+        if (generation.get() != loadedAt)
+            authentications.invalidate(credentialsKey);
+        return authentication;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        generation.incrementAndGet();
+        users.asMap().entrySet().removeIf(entry ->
+                entry.getKey().equalsIgnoreCase(event.email()) || isUser(entry.getValue(), event));
+        authentications.asMap().values().removeIf(authentication ->
+                authentication.getPrincipal() instanceof CustomUserDetails user && isUser(user, event));
+        log.debug("Caches de autenticação invalidados para o usuário {}", event.userId());
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        users.invalidateAll();
+        authentications.invalidateAll();
+    }
+
+    public CacheStats userStats() {
+        return users.stats();
+    }
+
+    public long userCount() {
+        return users.estimatedSize();
+    }
+
+    public CacheStats authenticationStats() {
+        return authentications.stats();
+    }
+
+    public long authenticationCount() {
+        return authentications.estimatedSize();
+    }
+
+    private static boolean isUser(CustomUserDetails user, UserChangedEvent event) {
+        return (event.userId() != null && event.userId().equals(user.user().getId()))
+                || user.getUsername().equalsIgnoreCase(event.email());
+    }
+
+    private String hmac(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            // O separador nulo impede que ("ab", "c") e ("a", "bc") gerem a mesma chave
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(password.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
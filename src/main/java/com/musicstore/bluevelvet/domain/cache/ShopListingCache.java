@@ -0,0 +1,117 @@
+package com.musicstore.bluevelvet.domain.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.musicstore.bluevelvet.domain.event.CategoryChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ProductBulkChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Cache read-through das listagens da loja (categorias raiz e produtos da subárvore de uma categoria).
+ * Limitado em número de entradas com a política W-TinyLFU do Caffeine.
+ * As entradas são invalidadas após o commit, apenas para as categorias afetadas pela escrita.
+ * Os eventos são locais: com várias instâncias, uma escrita feita em outra só aparece aqui quando a entrada
+ * expira (TIME_TO_LIVE após a carga).
+ */
+@Component @Log4j2
+public class ShopListingCache {
+
+    public static final long MAXIMUM_SIZE = 10_000;
+    public static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    public enum Listing {
+        ROOTS_PAGE, ROOTS_SLICE, PRODUCTS_PAGE, PRODUCTS_SLICE;
+
+        boolean isRoots() {
+            return this == ROOTS_PAGE || this == ROOTS_SLICE;
+        }
+    }
+
+    /**
+     * categoryId é nulo nas listagens de raízes
+     */
+    public record Key(Listing listing, Long categoryId, int page, int size, String sort) {
+    }
+
+    private final Cache<Key, Object> cache;
+
+    /**
+     * Incrementado a cada invalidação; uma carga que atravessou uma invalidação não fica em cache
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public ShopListingCache() {
+        this(Ticker.systemTicker());
+    }
+
+    ShopListingCache(Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(TIME_TO_LIVE)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Listing listing, Long categoryId, Pageable pageable, Supplier<T> loader) {
+        Key key = new Key(listing, categoryId, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+
+        long loadedAt = generation.get();
+        T value = (T) cache.get(key, ignored -> loader.get());
+        if (generation.get() != loadedAt)
+            cache.invalidate(key);
+        return value;
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        // Nome, imagem e estado das raízes vêm do índice de categorias: toda alteração de categoria as invalida
+        invalidate(key -> key.listing().isRoots() || affects(event.affectedCategoryIds(), key));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(key -> !key.listing().isRoots() && affects(event.affectedCategoryIds(), key));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductBulkChanged(ProductBulkChangedEvent event) {
+        invalidate(key -> !key.listing().isRoots() && affects(event.affectedCategoryIds(), key));
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static boolean affects(Set<Long> affectedCategoryIds, Key key) {
+        return affectedCategoryIds == null || affectedCategoryIds.contains(key.categoryId());
+    }
+
+    private void invalidate(Predicate<Key> predicate) {
+        generation.incrementAndGet();
+        int before = cache.asMap().size();
+        cache.asMap().keySet().removeIf(predicate);
+        log.debug("Shop listing cache invalidated {} of {} entries", before - cache.asMap().size(), before);
+    }
+}
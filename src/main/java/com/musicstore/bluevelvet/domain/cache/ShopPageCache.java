@@ -0,0 +1,203 @@
+package com.musicstore.bluevelvet.domain.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.musicstore.bluevelvet.domain.event.CategoryChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ImageVariantsReadyEvent;
+import com.musicstore.bluevelvet.domain.event.ProductBulkChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache das páginas públicas da loja já renderizadas, por URL e versão do catálogo.
+ * Guarda os bytes prontos (e a versão gzip, para páginas maiores) e a ETag de cada página.
+ * Qualquer alteração confirmada no catálogo avança a versão e esvazia o cache; variantes de imagem prontas
+ * removem só as páginas que ainda mostram aquela imagem sem elas.
+ * A versão é local: com várias instâncias, uma alteração feita em outra só aparece aqui quando a página
+ * expira (TIME_TO_LIVE após a renderização).
+ */
+@Component @Log4j2
+public class ShopPageCache {
+
+    public static final long MAXIMUM_WEIGHT = 32L * 1024 * 1024;
+    public static final int GZIP_MIN_SIZE = 1024;
+    public static final Duration TIME_TO_LIVE = Duration.ofMinutes(5);
+
+    public record Page(String contentType, byte[] body, byte[] gzippedBody, String etag, String gzippedEtag) {
+
+        /**
+         * If-None-Match bate com alguma das representações (identidade ou gzip) desta página
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null)
+                return false;
+
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/"))
+                    candidate = candidate.substring(2);
+                if (candidate.equals("*") || candidate.equals(etag) || candidate.equals(gzippedEtag))
+                    return true;
+            }
+            return false;
+        }
+
+        int weight() {
+            return body.length + (gzippedBody == null ? 0 : gzippedBody.length);
+        }
+    }
+
+    /** Quanto tempo uma imagem recém-processada ainda é conferida nas páginas guardadas por store */
+    static final Duration RECENT_IMAGE_WINDOW = Duration.ofMinutes(1);
+
+    private final Cache<String, Page> cache;
+    private final Cache<String, Boolean> recentImages;
+
+    private volatile long catalogVersion;
+
+    public ShopPageCache() {
+        this(Ticker.systemTicker());
+    }
+
+    ShopPageCache(Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(MAXIMUM_WEIGHT)
+                .weigher((String key, Page page) -> key.length() + page.weight())
+                .expireAfterWrite(TIME_TO_LIVE)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        this.recentImages = Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterWrite(RECENT_IMAGE_WINDOW)
+                .ticker(ticker)
+                .build();
+    }
+
+    public long catalogVersion() {
+        return catalogVersion;
+    }
+
+    public static String key(long catalogVersion, String url) {
+        return catalogVersion + " " + url;
+    }
+
+    public Page find(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Guarda a página renderizada na versão informada; se o catálogo mudou durante a renderização,
+     * a página é devolvida mas não fica em cache
+     */
+    public Page store(long renderedVersion, String url, String contentType, byte[] body) {
+        String tag = renderedVersion + "-" + checksum(body);
+        byte[] gzippedBody = body.length >= GZIP_MIN_SIZE ? gzip(body) : null;
+        Page page = new Page(contentType, body, gzippedBody, "\"" + tag + "\"", "\"" + tag + "-gzip\"");
+
+        if (renderedVersion == catalogVersion && !showsOriginalOnly(body, recentImages.asMap().keySet()))
+            cache.put(key(renderedVersion, url), page);
+        return page;
+    }
+
+    /**
+     * Roda depois dos ouvintes que atualizam índices e caches usados na renderização,
+     * para que nenhuma página da versão nova seja montada com dados antigos
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        purge();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        purge();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductBulkChanged(ProductBulkChangedEvent event) {
+        purge();
+    }
+
+    /**
+     * Páginas renderizadas antes das variantes ficarem prontas apontam só para a imagem original:
+     * apenas elas saem do cache, sem avançar a versão do catálogo. A imagem fica registrada por
+     * RECENT_IMAGE_WINDOW para que uma renderização já em andamento também não seja guardada.
+     */
+    @EventListener
+    public void onImageVariantsReady(ImageVariantsReadyEvent event) {
+        String image = event.filename();
+        recentImages.put(image, Boolean.TRUE);
+        int before = cache.asMap().size();
+        cache.asMap().values().removeIf(page -> showsOriginalOnly(page.body(), List.of(image)));
+        log.debug("Variants of {} ready, {} shop pages evicted", image, before - cache.asMap().size());
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private synchronized void purge() {
+        catalogVersion++;
+        cache.invalidateAll();
+        log.debug("Shop page cache purged, catalog version is now {}", catalogVersion);
+    }
+
+    /**
+     * A página cita alguma das imagens, mas nenhuma variante dela (foto.png sem foto-...w.jpg)
+     */
+    private static boolean showsOriginalOnly(byte[] body, Collection<String> images) {
+        if (images.isEmpty())
+            return false;
+
+        // Latin-1 mapeia cada byte num caractere: basta para procurar nomes de arquivo ASCII no HTML em UTF-8
+        String html = new String(body, StandardCharsets.ISO_8859_1);
+        for (String image : images) {
+            int dot = image.lastIndexOf('.');
+            String variantPrefix = (dot > 0 ? image.substring(0, dot) : image) + "-";
+            if (html.contains(image) && !html.contains(variantPrefix))
+                return true;
+        }
+        return false;
+    }
+
+    private static String checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return Long.toHexString(crc.getValue());
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
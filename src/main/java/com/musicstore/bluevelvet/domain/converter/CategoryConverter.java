@@ -2,6 +2,7 @@ package com.musicstore.bluevelvet.domain.converter;
 
 import com.musicstore.bluevelvet.api.request.CategoryRequest;
 import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndex;
 import com.musicstore.bluevelvet.infrastructure.entity.Category;
 
 import java.util.List;
@@ -22,6 +23,45 @@ public class CategoryConverter {
                 .build();
     }
 
+    /**
+     * Converte usando uma lista de filhos já carregada, sem tocar na coleção lazy da entidade
+     */
+    public static CategoryResponse convertToCategoryResponse(Category category, List<CategoryResponse> children){
+        return  category == null
+                ? null
+                : CategoryResponse.builder()
+                .id(category.getId())
+                .name(category.getName())
+                .image(category.getImage())
+                .parentId(getParentId(category))
+                .isRoot(category.getIsRoot())
+                .enabled(category.getEnabled())
+                .children(children)
+                .build();
+    }
+
+    public static CategoryResponse convertToCategoryResponse(CategoryTreeIndex.Node node, CategoryTreeIndex index){
+        return convertToCategoryResponse(node, index, null);
+    }
+
+    /**
+     * Converte a partir do índice em memória incluindo no máximo depth níveis de filhos
+     * (0 = sem filhos, null = árvore completa)
+     */
+    public static CategoryResponse convertToCategoryResponse(CategoryTreeIndex.Node node, CategoryTreeIndex index, Integer depth){
+        return  node == null
+                ? null
+                : CategoryResponse.builder()
+                .id(node.id())
+                .name(node.name())
+                .image(node.image())
+                .parentId(node.parentId())
+                .isRoot(node.isRoot())
+                .enabled(node.enabled())
+                .children(getChildrenList(node, index, depth))
+                .build();
+    }
+
     public static Category convertToCategory(CategoryRequest request){
         return  Category.builder()
                 .name(request.getName())
@@ -35,6 +75,17 @@ public class CategoryConverter {
         return  category.getParent() == null ? null : category.getParent().getId();
     }
 
+    private static List<CategoryResponse> getChildrenList(CategoryTreeIndex.Node node, CategoryTreeIndex index, Integer depth){
+        if (depth != null && depth <= 0)
+            return List.of();
+
+        Integer childDepth = depth == null ? null : depth - 1;
+        return  index.childrenOf(node.id())
+                .stream()
+                .map(child -> convertToCategoryResponse(child, index, childDepth))
+                .toList();
+    }
+
     private static List<CategoryResponse> getChildrenList(Category category){
         return  category.getChildren() == null
                 ? List.of()
@@ -0,0 +1,34 @@
+package com.musicstore.bluevelvet.domain.converter;
+
+import com.musicstore.bluevelvet.api.response.ImportErrorResponse;
+import com.musicstore.bluevelvet.api.response.ImportJobResponse;
+import com.musicstore.bluevelvet.domain.importer.ImportJob;
+
+public class ImportJobConverter {
+
+    public static ImportJobResponse convertToImportJobResponse(ImportJob job) {
+        if (job == null) {
+            return null;
+        }
+
+        return ImportJobResponse.builder()
+                .id(job.getId())
+                .fileName(job.getFileName())
+                .format(job.getFormat().name())
+                .status(job.getStatus().name())
+                .message(job.getMessage())
+                .processed(job.getProcessed())
+                .imported(job.getImported())
+                .failed(job.getFailed())
+                .rowsPerSecond(job.getRowsPerSecond())
+                .startedAt(job.getStartedAt())
+                .finishedAt(job.getFinishedAt())
+                .errors(job.getErrors().stream()
+                        .map(error -> ImportErrorResponse.builder()
+                                .line(error.line())
+                                .message(error.message())
+                                .build())
+                        .toList())
+                .build();
+    }
+}
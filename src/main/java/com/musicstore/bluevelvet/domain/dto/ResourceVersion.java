@@ -0,0 +1,17 @@
+package com.musicstore.bluevelvet.domain.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Validadores HTTP de um recurso: ETag forte (já entre aspas) e instante da última alteração (pode ser nulo)
+ */
+public record ResourceVersion(String etag, LocalDateTime lastModified) {
+
+    /**
+     * Em milissegundos, ou -1 quando desconhecido (convenção do WebRequest.checkNotModified)
+     */
+    public long lastModifiedMillis() {
+        return lastModified == null ? -1 : lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
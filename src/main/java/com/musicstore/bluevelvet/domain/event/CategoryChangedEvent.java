@@ -0,0 +1,15 @@
+package com.musicstore.bluevelvet.domain.event;
+
+import java.util.Set;
+
+/**
+ * Publicado pelo CategoryService sempre que uma categoria é criada, alterada ou removida.
+ * O categoryId é nulo quando a alteração afeta o catálogo inteiro (ex.: reset).
+ * affectedCategoryIds são as categorias cujas listagens de subárvore mudaram (nulo = desconhecidas, todas).
+ */
+public record CategoryChangedEvent(Long categoryId, Set<Long> affectedCategoryIds) {
+
+    public CategoryChangedEvent(Long categoryId) {
+        this(categoryId, null);
+    }
+}
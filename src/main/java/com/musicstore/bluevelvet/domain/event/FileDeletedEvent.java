@@ -0,0 +1,7 @@
+package com.musicstore.bluevelvet.domain.event;
+
+/**
+ * Publicado quando um arquivo sem referências é removido do diretório de uploads
+ */
+public record FileDeletedEvent(String filename) {
+}
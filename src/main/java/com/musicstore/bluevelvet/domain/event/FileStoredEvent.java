@@ -0,0 +1,7 @@
+package com.musicstore.bluevelvet.domain.event;
+
+/**
+ * Publicado quando um arquivo enviado é gravado no diretório de uploads
+ */
+public record FileStoredEvent(String filename) {
+}
@@ -0,0 +1,7 @@
+package com.musicstore.bluevelvet.domain.event;
+
+/**
+ * Publicado quando as versões redimensionadas de uma imagem enviada ficam prontas
+ */
+public record ImageVariantsReadyEvent(String filename) {
+}
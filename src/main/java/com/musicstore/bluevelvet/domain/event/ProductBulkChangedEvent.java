@@ -0,0 +1,11 @@
+package com.musicstore.bluevelvet.domain.event;
+
+import java.util.Set;
+
+/**
+ * Publicado pelas operações em massa (ativação, preço, estoque), que nunca mudam nome nem descrição.
+ * enabledChangedIds são os produtos cujo enabled realmente mudou (os únicos a reindexar na busca);
+ * affectedCategoryIds são as categorias cujas listagens de subárvore mudaram.
+ */
+public record ProductBulkChangedEvent(Set<Long> enabledChangedIds, Set<Long> affectedCategoryIds) {
+}
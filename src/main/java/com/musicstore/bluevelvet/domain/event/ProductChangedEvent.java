@@ -0,0 +1,15 @@
+package com.musicstore.bluevelvet.domain.event;
+
+import java.util.Set;
+
+/**
+ * Publicado sempre que um produto é criado, alterado ou removido.
+ * O productId é nulo quando a alteração afeta muitos produtos de uma vez (ex.: importação em massa).
+ * affectedCategoryIds são as categorias cujas listagens de subárvore mudaram (nulo = desconhecidas, todas).
+ */
+public record ProductChangedEvent(Long productId, Set<Long> affectedCategoryIds) {
+
+    public ProductChangedEvent(Long productId) {
+        this(productId, null);
+    }
+}
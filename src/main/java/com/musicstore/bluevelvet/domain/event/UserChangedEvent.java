@@ -0,0 +1,7 @@
+package com.musicstore.bluevelvet.domain.event;
+
+/**
+ * Publicado quando um usuário é criado, alterado ou removido (senha, papel ou e-mail podem ter mudado)
+ */
+public record UserChangedEvent(Long userId, String email) {
+}
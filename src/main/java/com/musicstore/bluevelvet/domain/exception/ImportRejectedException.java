@@ -0,0 +1,11 @@
+package com.musicstore.bluevelvet.domain.exception;
+
+/**
+ * Já há importações demais em andamento; a nova é recusada (429) antes de copiar o arquivo
+ */
+public class ImportRejectedException extends RuntimeException {
+
+    public ImportRejectedException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.musicstore.bluevelvet.domain.exception;
+
+/**
+ * A fila de verificação de senhas está cheia; a requisição é recusada (429) sem rodar o BCrypt
+ */
+public class PasswordVerificationRejectedException extends RuntimeException {
+
+    public PasswordVerificationRejectedException(String message){
+        super(message);
+    }
+}
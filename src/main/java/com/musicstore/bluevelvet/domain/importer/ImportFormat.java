@@ -0,0 +1,33 @@
+package com.musicstore.bluevelvet.domain.importer;
+
+import java.util.Locale;
+
+/**
+ * Formatos aceitos pela importação em massa de produtos
+ */
+public enum ImportFormat {
+    CSV(".csv"),
+    NDJSON(".ndjson");
+
+    private final String extension;
+
+    ImportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    /**
+     * NDJSON quando a extensão (.ndjson, .jsonl) ou o content type indicarem; caso contrário CSV
+     */
+    public static ImportFormat of(String fileName, String contentType) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || type.contains("ndjson") || type.contains("jsonl"))
+            return NDJSON;
+        return CSV;
+    }
+}
@@ -0,0 +1,121 @@
+package com.musicstore.bluevelvet.domain.importer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progresso de uma importação em massa; atualizado pela thread da importação e lido pela API de status
+ */
+public class ImportJob {
+
+    /** Apenas os primeiros erros são guardados; o total fica em failed */
+    public static final int MAX_ERRORS = 100;
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    public record RowError(long line, String message) {
+    }
+
+    private final String id;
+    private final String fileName;
+    private final ImportFormat format;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<RowError> errors = new ArrayList<>();
+
+    private volatile Status status = Status.RUNNING;
+    private volatile String message;
+    private volatile LocalDateTime finishedAt;
+
+    public ImportJob(String id, String fileName, ImportFormat format) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+    }
+
+    public void rowRead() {
+        processed.incrementAndGet();
+    }
+
+    public void rowsImported(int count) {
+        imported.addAndGet(count);
+    }
+
+    public synchronized void rowFailed(long line, String error) {
+        failed.incrementAndGet();
+        if (errors.size() < MAX_ERRORS)
+            errors.add(new RowError(line, error));
+    }
+
+    public void complete() {
+        finish(Status.COMPLETED, null);
+    }
+
+    public void fail(String error) {
+        finish(Status.FAILED, error);
+    }
+
+    private void finish(Status finalStatus, String error) {
+        this.message = error;
+        this.finishedAt = LocalDateTime.now();
+        this.status = finalStatus;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public ImportFormat getFormat() {
+        return format;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getImported() {
+        return imported.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public synchronized List<RowError> getErrors() {
+        return List.copyOf(errors);
+    }
+
+    /**
+     * Linhas lidas por segundo desde o início (ou até o fim, se já terminou)
+     */
+    public long getRowsPerSecond() {
+        LocalDateTime end = finishedAt != null ? finishedAt : LocalDateTime.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return processed.get() * 1000 / millis;
+    }
+}
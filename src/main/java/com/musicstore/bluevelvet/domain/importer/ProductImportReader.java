@@ -0,0 +1,205 @@
+package com.musicstore.bluevelvet.domain.importer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lê o arquivo de importação uma linha por vez, sem carregá-lo inteiro em memória.
+ * Colunas (CSV) e campos (NDJSON) aceitam snake_case ou camelCase: name, description, price,
+ * stock_quantity, category_id, category_name, enabled, image.
+ */
+public abstract class ProductImportReader implements AutoCloseable {
+
+    protected final BufferedReader reader;
+    protected long lineNumber;
+
+    protected ProductImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    public static ProductImportReader open(Path file, ImportFormat format, ObjectMapper mapper) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        return format == ImportFormat.NDJSON ? new Ndjson(reader, mapper) : new Csv(reader);
+    }
+
+    /**
+     * Próxima linha do arquivo, ou null no fim
+     */
+    public abstract ProductImportRow next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * "stock_quantity", "stockQuantity" e "Stock Quantity" viram "stockquantity"
+     */
+    static String normalizeKey(String key) {
+        StringBuilder normalized = new StringBuilder(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '_' && c != '-' && c != ' ' && c != '\uFEFF')
+                normalized.append(Character.toLowerCase(c));
+        }
+        return normalized.toString();
+    }
+
+    static ProductImportRow toRow(long line, Map<String, String> fields) {
+        return new ProductImportRow(
+                line,
+                fields.get("name"),
+                fields.get("description"),
+                fields.get("price"),
+                fields.getOrDefault("stockquantity", fields.get("stock")),
+                fields.get("categoryid"),
+                fields.getOrDefault("categoryname", fields.get("category")),
+                fields.get("enabled"),
+                fields.get("image"),
+                null
+        );
+    }
+
+    /**
+     * CSV (RFC 4180) com cabeçalho; campos entre aspas podem conter vírgulas, aspas duplicadas e quebras de linha
+     */
+    static final class Csv extends ProductImportReader {
+
+        private String[] columns;
+
+        Csv(BufferedReader reader) {
+            super(reader);
+        }
+
+        @Override
+        public ProductImportRow next() throws IOException {
+            if (columns == null) {
+                List<String> header = readRecord();
+                if (header == null)
+                    return null;
+
+                columns = header.stream().map(ProductImportReader::normalizeKey).toArray(String[]::new);
+                if (!List.of(columns).contains("name"))
+                    throw new IllegalArgumentException("Cabeçalho CSV sem a coluna name");
+            }
+
+            long line = lineNumber + 1;
+            List<String> values = readRecord();
+            if (values == null)
+                return null;
+
+            if (values.size() > columns.length)
+                return ProductImportRow.invalid(line, "Linha com " + values.size() + " colunas; o cabeçalho tem " + columns.length);
+
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < values.size(); i++)
+                fields.put(columns[i], values.get(i).isEmpty() ? null : values.get(i));
+            return toRow(line, fields);
+        }
+
+        /**
+         * Próximo registro não vazio, ou null no fim do arquivo
+         */
+        private List<String> readRecord() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null)
+                    return null;
+                lineNumber++;
+            } while (line.isBlank());
+
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int i = 0;
+
+            while (true) {
+                if (i == line.length()) {
+                    String continuation = quoted ? reader.readLine() : null;
+                    if (continuation == null) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    line = continuation;
+                    i = 0;
+                    continue;
+                }
+
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+        }
+    }
+
+    /**
+     * Um objeto JSON por linha; linhas em branco são ignoradas
+     */
+    static final class Ndjson extends ProductImportReader {
+
+        private final ObjectMapper mapper;
+
+        Ndjson(BufferedReader reader, ObjectMapper mapper) {
+            super(reader);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public ProductImportRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null)
+                    return null;
+                lineNumber++;
+            } while (line.isBlank());
+
+            JsonNode node;
+            try {
+                node = mapper.readTree(line);
+            } catch (IOException e) {
+                return ProductImportRow.invalid(lineNumber, "JSON inválido");
+            }
+            if (node == null || !node.isObject())
+                return ProductImportRow.invalid(lineNumber, "A linha deve conter um objeto JSON");
+
+            Map<String, String> fields = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> field = iterator.next();
+                JsonNode value = field.getValue();
+                fields.put(normalizeKey(field.getKey()), value.isNull() ? null : value.asText());
+            }
+            return toRow(lineNumber, fields);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.musicstore.bluevelvet.domain.importer;
+
+/**
+ * Linha lida do arquivo de importação, ainda sem validação.
+ * error é preenchido quando a própria linha não pôde ser interpretada (ex.: JSON inválido).
+ */
+public record ProductImportRow(long line,
+                               String name,
+                               String description,
+                               String price,
+                               String stockQuantity,
+                               String categoryId,
+                               String categoryName,
+                               String enabled,
+                               String image,
+                               String error) {
+
+    public static ProductImportRow invalid(long line, String error) {
+        return new ProductImportRow(line, null, null, null, null, null, null, null, null, error);
+    }
+}
@@ -0,0 +1,35 @@
+package com.musicstore.bluevelvet.domain.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Posição de paginação por chave (seek): o valor da chave de ordenação e o id da última linha vista.
+ * Trafega como um token opaco em Base64 URL-safe.
+ */
+public record KeysetCursor(String sortKey, Long id) {
+
+    private static final char SEPARATOR = ':';
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica um token gerado por encode()
+     * @throws IllegalArgumentException se o token for inválido
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0)
+                throw new IllegalArgumentException("Cursor de paginação inválido.");
+
+            return new KeysetCursor(raw.substring(separator + 1), Long.valueOf(raw.substring(0, separator)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginação inválido.", e);
+        }
+    }
+}
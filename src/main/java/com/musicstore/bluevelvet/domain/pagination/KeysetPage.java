@@ -0,0 +1,29 @@
+package com.musicstore.bluevelvet.domain.pagination;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página obtida por paginação por chave. nextCursor é nulo quando não há próxima página.
+ */
+public record KeysetPage<T>(List<T> content, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+
+    /**
+     * Monta a página a partir de até size + 1 linhas: a linha extra só indica que existe uma próxima página
+     */
+    public static <E, T> KeysetPage<T> of(List<E> rows, int size, Function<E, KeysetCursor> cursorOf, Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = hasNext ? cursorOf.apply(pageRows.get(pageRows.size() - 1)).encode() : null;
+        return new KeysetPage<>(pageRows.stream().map(mapper).toList(), nextCursor);
+    }
+}
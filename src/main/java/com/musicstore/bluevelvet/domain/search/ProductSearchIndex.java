@@ -0,0 +1,242 @@
+package com.musicstore.bluevelvet.domain.search;
+
+import com.musicstore.bluevelvet.domain.event.ProductBulkChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
+import com.musicstore.bluevelvet.infrastructure.projection.ProductSearchView;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Índice invertido em memória sobre nome e descrição dos produtos.
+ * Termos sem acento e em minúsculas; ranking BM25 com peso maior para o nome.
+ * Reconstruído na inicialização e atualizado por id a cada ProductChangedEvent ou ProductBulkChangedEvent confirmado.
+ */
+@Component @Log4j2 @RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final double PREFIX_FACTOR = 0.5;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ProductRepository repository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state = new State();
+
+    /**
+     * Ids dos produtos que contêm todos os termos da consulta, do mais para o menos relevante.
+     * Termos com 2 ou mais caracteres também casam como prefixo ("viol" encontra "violão").
+     */
+    public List<Long> search(String query, boolean enabledOnly) {
+        List<String> terms = List.copyOf(new LinkedHashSet<>(TextNormalizer.tokenize(query)));
+        if (terms.isEmpty())
+            return List.of();
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> termScores = state.score(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty())
+                    return List.of();
+            }
+
+            return scores.entrySet().stream()
+                    .filter(entry -> !enabledOnly || state.documents.get(entry.getKey()).enabled())
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(ProductSearchView view) {
+        lock.writeLock().lock();
+        try {
+            state.remove(view.getId());
+            state.add(view);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            state.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return state.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Varre a tabela de produtos em streaming e troca o índice inteiro de uma vez
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        State rebuilt = new State();
+        readOnlyTransaction().executeWithoutResult(status -> {
+            try (Stream<ProductSearchView> views = repository.streamSearchViews()) {
+                views.forEach(rebuilt::add);
+            }
+        });
+
+        lock.writeLock().lock();
+        try {
+            state = rebuilt;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product search index rebuilt with {} products and {} terms",
+                rebuilt.documents.size(), rebuilt.postings.size());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null) {
+            rebuild();
+            return;
+        }
+
+        repository.findSearchViewById(event.productId())
+                .ifPresentOrElse(this::index, () -> remove(event.productId()));
+    }
+
+    /**
+     * Operações em massa só mexem no enabled: reindexa apenas esses produtos, com uma consulta
+     */
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductBulkChanged(ProductBulkChangedEvent event) {
+        if (event.enabledChangedIds().isEmpty())
+            return;
+
+        Set<Long> missing = new HashSet<>(event.enabledChangedIds());
+        for (ProductSearchView view : repository.findSearchViewsByIds(event.enabledChangedIds())) {
+            index(view);
+            missing.remove(view.getId());
+        }
+        missing.forEach(this::remove);
+    }
+
+    /**
+     * Transação própria: o rebuild também roda em listeners after-commit
+     */
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private record Document(boolean enabled, Map<String, Integer> frequencies, int length) {
+    }
+
+    /**
+     * Estrutura mutável do índice; protegida pelo lock do componente
+     */
+    private static final class State {
+
+        private final Map<Long, Document> documents = new HashMap<>();
+        private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        private long totalLength;
+
+        void add(ProductSearchView view) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : TextNormalizer.tokenize(view.getName()))
+                frequencies.merge(token, NAME_WEIGHT, Integer::sum);
+            for (String token : TextNormalizer.tokenize(view.getDescription()))
+                frequencies.merge(token, 1, Integer::sum);
+
+            int length = frequencies.values().stream().mapToInt(Integer::intValue).sum();
+            documents.put(view.getId(), new Document(!Boolean.FALSE.equals(view.getEnabled()), frequencies, length));
+            frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(view.getId(), tf));
+            totalLength += length;
+        }
+
+        void remove(Long id) {
+            Document document = documents.remove(id);
+            if (document == null)
+                return;
+
+            for (String term : document.frequencies().keySet()) {
+                Map<Long, Integer> posting = postings.get(term);
+                posting.remove(id);
+                if (posting.isEmpty())
+                    postings.remove(term);
+            }
+            totalLength -= document.length();
+        }
+
+        /**
+         * Pontuação BM25 de um termo da consulta; casamentos por prefixo valem PREFIX_FACTOR
+         */
+        Map<Long, Double> score(String term) {
+            Map<Long, Double> scores = new HashMap<>();
+            accumulate(postings.get(term), 1.0, scores);
+
+            if (term.length() >= MIN_PREFIX_LENGTH) {
+                postings.subMap(term, false, term + Character.MAX_VALUE, false)
+                        .forEach((expansion, posting) -> accumulate(posting, PREFIX_FACTOR, scores));
+            }
+            return scores;
+        }
+
+        private void accumulate(Map<Long, Integer> posting, double factor, Map<Long, Double> scores) {
+            if (posting == null)
+                return;
+
+            double n = documents.size();
+            double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+            double avgLength = n == 0 ? 1 : Math.max(1.0, totalLength / n);
+
+            posting.forEach((id, tf) -> {
+                double norm = K1 * (1 - B + B * documents.get(id).length() / avgLength);
+                double score = factor * idf * tf * (K1 + 1) / (tf + norm);
+                scores.merge(id, score, Math::max);
+            });
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.musicstore.bluevelvet.domain.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Snapshot imutável para autocompletar nomes de categorias e produtos.
+ * Cada palavra do nome gera uma chave normalizada ("Guitarra Fender" responde a "gui" e a "fen");
+ * as chaves ficam em um array ordenado e a consulta é uma busca binária seguida de varredura curta.
+ */
+public final class SuggestionIndex {
+
+    private static final SuggestionIndex EMPTY = new SuggestionIndex(new Entry[0]);
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key)
+            .thenComparing(entry -> entry.suggestion().type())
+            .thenComparing(entry -> entry.suggestion().id());
+
+    private final Entry[] entries;
+
+    private SuggestionIndex(Entry[] entries) {
+        this.entries = entries;
+    }
+
+    public static SuggestionIndex empty() {
+        return EMPTY;
+    }
+
+    public static SuggestionIndex of(Collection<Suggestion> suggestions) {
+        List<Entry> entries = new ArrayList<>();
+        for (Suggestion suggestion : suggestions)
+            addEntries(suggestion, entries);
+
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted, ORDER);
+        return new SuggestionIndex(sorted);
+    }
+
+    /**
+     * Até limit sugestões cujo nome tem alguma palavra começando pelo prefixo; type nulo aceita ambos os tipos
+     */
+    public List<Suggestion> suggest(String prefix, Type type, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0)
+            return List.of();
+
+        Set<Suggestion> found = new LinkedHashSet<>();
+        for (int i = lowerBound(key); i < entries.length && found.size() < limit; i++) {
+            Entry entry = entries[i];
+            if (!entry.key().startsWith(key))
+                break;
+            if (type == null || entry.suggestion().type() == type)
+                found.add(entry.suggestion());
+        }
+        return List.copyOf(found);
+    }
+
+    /**
+     * Novo snapshot com a sugestão do item trocada (ou removida, quando suggestion é nula)
+     */
+    public SuggestionIndex replacing(Type type, Long id, Suggestion suggestion) {
+        return replacing(entry -> entry.type() == type && entry.id().equals(id),
+                suggestion == null ? List.of() : List.of(suggestion));
+    }
+
+    /**
+     * Novo snapshot com todas as sugestões de um tipo substituídas
+     */
+    public SuggestionIndex replacingAll(Type type, Collection<Suggestion> suggestions) {
+        return replacing(entry -> entry.type() == type, suggestions);
+    }
+
+    public int size() {
+        return entries.length;
+    }
+
+    private SuggestionIndex replacing(Predicate<Suggestion> removed, Collection<Suggestion> added) {
+        List<Entry> addedEntries = new ArrayList<>();
+        for (Suggestion suggestion : added)
+            addEntries(suggestion, addedEntries);
+        addedEntries.sort(ORDER);
+
+        // Intercala as entradas mantidas com as novas, ambas já ordenadas
+        Entry[] merged = new Entry[entries.length + addedEntries.size()];
+        int size = 0;
+        int j = 0;
+        for (Entry entry : entries) {
+            if (removed.test(entry.suggestion()))
+                continue;
+            while (j < addedEntries.size() && ORDER.compare(addedEntries.get(j), entry) < 0)
+                merged[size++] = addedEntries.get(j++);
+            merged[size++] = entry;
+        }
+        while (j < addedEntries.size())
+            merged[size++] = addedEntries.get(j++);
+
+        return new SuggestionIndex(Arrays.copyOf(merged, size));
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries[mid].key().compareTo(key) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    private static void addEntries(Suggestion suggestion, List<Entry> entries) {
+        String name = normalize(suggestion.name());
+        for (int i = 0; i < name.length(); i++) {
+            boolean wordStart = i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1));
+            if (wordStart && Character.isLetterOrDigit(name.charAt(i)))
+                entries.add(new Entry(name.substring(i), suggestion));
+        }
+    }
+
+    private static String normalize(String text) {
+        return TextNormalizer.fold(text).trim().replaceAll("\\s+", " ");
+    }
+
+    public enum Type {
+        CATEGORY, PRODUCT
+    }
+
+    public record Suggestion(Type type, Long id, String name) {
+    }
+
+    private record Entry(String key, Suggestion suggestion) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.musicstore.bluevelvet.domain.search;
+
+import com.musicstore.bluevelvet.domain.event.CategoryChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
+import com.musicstore.bluevelvet.domain.search.SuggestionIndex.Suggestion;
+import com.musicstore.bluevelvet.domain.search.SuggestionIndex.Type;
+import com.musicstore.bluevelvet.infrastructure.projection.ProductSearchView;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Mantém o SuggestionIndex atual.
+ * Montado na inicialização; depois cada escrita confirmada gera um novo snapshot trocado atomicamente.
+ */
+@Component @Log4j2 @RequiredArgsConstructor
+public class SuggestionIndexHolder {
+
+    private final CategoryRepository categoryRepository;
+    private final ProductRepository productRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<SuggestionIndex> current = new AtomicReference<>(SuggestionIndex.empty());
+
+    public SuggestionIndex get() {
+        return current.get();
+    }
+
+    /**
+     * Carrega todas as categorias e faz uma varredura em streaming dos produtos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        List<Suggestion> suggestions = new ArrayList<>(findCategorySuggestions());
+        readOnlyTransaction().executeWithoutResult(status -> {
+            try (Stream<ProductSearchView> views = productRepository.streamSearchViews()) {
+                views.forEach(view -> suggestions.add(new Suggestion(Type.PRODUCT, view.getId(), view.getName())));
+            }
+        });
+
+        SuggestionIndex index = SuggestionIndex.of(suggestions);
+        current.set(index);
+        log.info("Suggestion index rebuilt with {} names and {} keys", suggestions.size(), index.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onCategoryChanged(CategoryChangedEvent event) {
+        current.set(current.get().replacingAll(Type.CATEGORY, findCategorySuggestions()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (event.productId() == null) {
+            rebuild();
+            return;
+        }
+
+        Suggestion suggestion = productRepository.findSearchViewById(event.productId())
+                .map(view -> new Suggestion(Type.PRODUCT, view.getId(), view.getName()))
+                .orElse(null);
+        current.set(current.get().replacing(Type.PRODUCT, event.productId(), suggestion));
+    }
+
+    /**
+     * Transação própria: o rebuild também roda em listeners after-commit
+     */
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private List<Suggestion> findCategorySuggestions() {
+        return categoryRepository.findAllNodes().stream()
+                .map(node -> new Suggestion(Type.CATEGORY, node.getId(), node.getName()))
+                .toList();
+    }
+}
@@ -0,0 +1,40 @@
+package com.musicstore.bluevelvet.domain.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de texto para busca: remove acentos, converte para minúsculas e quebra em termos.
+ * "Violão Eletrônico" vira [violao, eletronico].
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Remove acentos e converte para minúsculas, preservando separadores
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty())
+            return "";
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(fold(text))) {
+            if (!token.isEmpty())
+                tokens.add(token);
+        }
+        return tokens;
+    }
+}
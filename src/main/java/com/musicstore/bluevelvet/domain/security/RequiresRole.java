@@ -0,0 +1,21 @@
+package com.musicstore.bluevelvet.domain.security;
+
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Papéis que podem executar o endpoint (basta um deles). Na classe vale para todos os métodos;
+ * no método substitui o da classe. Verificado por RoleMaskAuthorizationManager antes da chamada.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RequiresRole {
+
+    User.Role[] value();
+}
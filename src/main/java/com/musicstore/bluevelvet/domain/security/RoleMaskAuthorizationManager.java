@@ -0,0 +1,75 @@
+package com.musicstore.bluevelvet.domain.security;
+
+import com.musicstore.bluevelvet.domain.service.CustomUserDetails;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decide @RequiresRole com um AND entre a máscara exigida pelo método (calculada uma vez por método)
+ * e a máscara de papéis do usuário (calculada no login, em CustomUserDetails)
+ */
+public class RoleMaskAuthorizationManager implements AuthorizationManager<MethodInvocation> {
+
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Map<Method, Integer> requiredMasks = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return check(authentication, invocation);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        int required = requiredMasks.computeIfAbsent(invocation.getMethod(), RoleMaskAuthorizationManager::requiredMask);
+        return (roleMask(authentication.get()) & required) != 0 ? GRANTED : DENIED;
+    }
+
+    /**
+     * Máscara de papéis do usuário autenticado; 0 para anônimos
+     */
+    public static int roleMask(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated())
+            return 0;
+        if (authentication.getPrincipal() instanceof CustomUserDetails user)
+            return user.roleMask();
+
+        // Principal de outra origem (ex.: @WithMockUser nos testes): calcula pelas authorities
+        int mask = 0;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name != null && name.startsWith(ROLE_PREFIX)) {
+                try {
+                    mask |= User.Role.valueOf(name.substring(ROLE_PREFIX.length())).mask();
+                } catch (IllegalArgumentException e) {
+                    // Authority que não é um User.Role: não concede nada
+                }
+            }
+        }
+        return mask;
+    }
+
+    static int requiredMask(Method method) {
+        RequiresRole annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequiresRole.class);
+        if (annotation == null)
+            annotation = AnnotatedElementUtils.findMergedAnnotation(method.getDeclaringClass(), RequiresRole.class);
+        if (annotation == null)
+            throw new IllegalStateException("Método sem @RequiresRole: " + method);
+        return User.Role.maskOf(Arrays.asList(annotation.value()));
+    }
+}
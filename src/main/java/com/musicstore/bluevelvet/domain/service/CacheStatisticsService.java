@@ -0,0 +1,103 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.response.CacheStatisticsResponse;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.musicstore.bluevelvet.config.CacheConfig;
+import com.musicstore.bluevelvet.domain.cache.AuthenticationCache;
+import com.musicstore.bluevelvet.domain.cache.ShopListingCache;
+import com.musicstore.bluevelvet.domain.cache.ShopPageCache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Estatísticas do cache de segundo nível, por região, a partir das estatísticas do Hibernate,
+ * mais os caches da loja (shop.listings e shop.pages) e da autenticação (security.users e security.authentications)
+ */
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager hibernateCacheManager;
+    private final ShopListingCache listingCache;
+    private final ShopPageCache pageCache;
+    private final AuthenticationCache authenticationCache;
+
+    public CacheStatisticsResponse getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<CacheStatisticsResponse.Region> regions = new ArrayList<>(CacheConfig.REGIONS.stream()
+                .map(region -> toRegion(region, statistics.getCacheRegionStatistics(region.name())))
+                .filter(Objects::nonNull)
+                .toList());
+        regions.add(toRegion("shop.listings", ShopListingCache.MAXIMUM_SIZE, listingCache.size(), listingCache.stats()));
+        regions.add(toRegion("shop.pages", null, pageCache.size(), pageCache.stats()));
+        regions.add(toRegion("security.users", AuthenticationCache.MAXIMUM_USERS,
+                authenticationCache.userCount(), authenticationCache.userStats()));
+        regions.add(toRegion("security.authentications", AuthenticationCache.MAXIMUM_AUTHENTICATIONS,
+                authenticationCache.authenticationCount(), authenticationCache.authenticationStats()));
+
+        long hits = statistics.getSecondLevelCacheHitCount();
+        long misses = statistics.getSecondLevelCacheMissCount();
+        return CacheStatisticsResponse.builder()
+                .hitCount(hits)
+                .missCount(misses)
+                .putCount(statistics.getSecondLevelCachePutCount())
+                .hitRatio(ratio(hits, misses))
+                .queryHitCount(statistics.getQueryCacheHitCount())
+                .queryMissCount(statistics.getQueryCacheMissCount())
+                .statementCount(statistics.getPrepareStatementCount())
+                .regions(regions)
+                .build();
+    }
+
+    private CacheStatisticsResponse.Region toRegion(CacheConfig.Region region, CacheRegionStatistics statistics) {
+        if (statistics == null)
+            return null;
+        return CacheStatisticsResponse.Region.builder()
+                .name(region.name())
+                .maximumSize(region.maximumSize())
+                .timeToLiveSeconds(region.timeToLive() == null ? null : region.timeToLive().toSeconds())
+                .elementCount(estimatedSize(region.name()))
+                .hitCount(statistics.getHitCount())
+                .missCount(statistics.getMissCount())
+                .putCount(statistics.getPutCount())
+                .hitRatio(ratio(statistics.getHitCount(), statistics.getMissCount()))
+                .build();
+    }
+
+    private static CacheStatisticsResponse.Region toRegion(String name, Long maximumSize, long size, CacheStats stats) {
+        return CacheStatisticsResponse.Region.builder()
+                .name(name)
+                .maximumSize(maximumSize)
+                .elementCount(size)
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .putCount(stats.loadSuccessCount())
+                .hitRatio(ratio(stats.hitCount(), stats.missCount()))
+                .build();
+    }
+
+    /**
+     * O JCache não expõe o tamanho das regiões; a estimativa vem do cache Caffeine por trás delas
+     */
+    private Long estimatedSize(String regionName) {
+        Cache<Object, Object> cache = hibernateCacheManager.getCache(regionName);
+        return cache == null ? null : cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize();
+    }
+
+    private static Double ratio(long hits, long misses) {
+        return hits + misses == 0 ? null : (double) hits / (hits + misses);
+    }
+}
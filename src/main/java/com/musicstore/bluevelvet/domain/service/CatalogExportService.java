@@ -0,0 +1,135 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndex;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndexHolder;
+import com.musicstore.bluevelvet.infrastructure.projection.ProductExportView;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exportação CSV do catálogo escrita direto na resposta, linha a linha, sem montar o arquivo em memória
+ */
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class CatalogExportService {
+
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
+
+    private final CategoryTreeIndexHolder treeIndexHolder;
+    private final ProductRepository productRepository;
+
+    /**
+     * Categorias em pré-ordem a partir das raízes; o nome é indentado com dois espaços por nível
+     */
+    public void exportCategories(OutputStream out, boolean gzip) throws IOException {
+        CategoryTreeIndex index = treeIndexHolder.get();
+
+        try (CsvOutput csv = CsvOutput.open(out, gzip)) {
+            csv.header("id,name");
+            for (CategoryTreeIndex.Node root : index.findAllRoots())
+                writeCategory(csv, index, root, "");
+        }
+    }
+
+    /**
+     * Produtos em ordem de id, lidos por cursor com a categoria já juntada na mesma consulta
+     */
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream out, boolean gzip) throws IOException {
+        long rows = 0;
+
+        try (CsvOutput csv = CsvOutput.open(out, gzip);
+             Stream<ProductExportView> products = productRepository.streamExportViews()) {
+            csv.header("id,name,price,stock_quantity,enabled,category_id,category_name");
+
+            Iterator<ProductExportView> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                ProductExportView product = iterator.next();
+                csv.row(product.getId(), product.getName(), product.getPrice(), product.getStockQuantity(),
+                        product.getEnabled(), product.getCategoryId(), product.getCategoryName());
+                rows++;
+            }
+        }
+        log.info("Exported {} products to CSV", rows);
+    }
+
+    public String generateCSVFileName(String prefix, boolean gzip) {
+        return prefix + "_" + LocalDateTime.now().format(FILE_NAME_FORMAT) + (gzip ? ".csv.gz" : ".csv");
+    }
+
+    private void writeCategory(CsvOutput csv, CategoryTreeIndex index, CategoryTreeIndex.Node node, String indent)
+            throws IOException {
+        csv.row(node.id(), indent + node.name());
+        for (CategoryTreeIndex.Node child : index.childrenOf(node.id()))
+            writeCategory(csv, index, child, indent + "  ");
+    }
+
+    /**
+     * Writer UTF-8 com gzip opcional; o cabeçalho é enviado imediatamente e o fechamento
+     * finaliza o gzip sem fechar o stream da resposta
+     */
+    private static final class CsvOutput implements AutoCloseable {
+
+        private final GZIPOutputStream gzip;
+        private final Writer writer;
+
+        private CsvOutput(GZIPOutputStream gzip, Writer writer) {
+            this.gzip = gzip;
+            this.writer = writer;
+        }
+
+        static CsvOutput open(OutputStream out, boolean gzip) throws IOException {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, true) : null;
+            OutputStream target = compressed != null ? compressed : out;
+            return new CsvOutput(compressed, new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8)));
+        }
+
+        void header(String header) throws IOException {
+            writer.write(header);
+            writer.write('\n');
+            writer.flush();
+        }
+
+        void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0)
+                    writer.write(',');
+                writer.write(escape(values[i]));
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+            if (gzip != null)
+                gzip.finish();
+        }
+
+        private static String escape(Object value) {
+            if (value == null)
+                return "";
+
+            String text = value.toString();
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+                return text;
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -1,73 +1,173 @@
 package com.musicstore.bluevelvet.domain.service;
 
 import com.musicstore.bluevelvet.api.request.CategoryRequest;
+import com.musicstore.bluevelvet.api.response.CategoryPathResponse;
 import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.domain.cache.ShopListingCache;
 import com.musicstore.bluevelvet.domain.converter.CategoryConverter;
+import com.musicstore.bluevelvet.domain.dto.ResourceVersion;
+import com.musicstore.bluevelvet.domain.event.CategoryChangedEvent;
 import com.musicstore.bluevelvet.domain.exception.CategoryNotFoundException;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndex;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndexHolder;
 import com.musicstore.bluevelvet.infrastructure.entity.Category;
 import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryClosureRepository;
 import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
 import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service @Log4j2 @RequiredArgsConstructor
 public class CategoryService {
 
     public static final String UNABLE_TO_FIND_A_CATEGORY_WITH_ID_D = "Unable to find a category with id %d";
     private final CategoryRepository repository;
+    private final CategoryClosureRepository closureRepository;
     private final ProductRepository productRepository;
 
     private final FileStorageService fileStorageService;
+    private final CategoryTreeIndexHolder treeIndexHolder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShopListingCache listingCache;
 
     public CategoryResponse findById(Long id) {
+        return findById(id, null);
+    }
 
-        Category category = repository.findById(id).orElseThrow(() ->
-                new CategoryNotFoundException(UNABLE_TO_FIND_A_CATEGORY_WITH_ID_D.formatted(id))
-        );
+    /**
+     * Busca a categoria incluindo no máximo depth níveis de filhos (null = árvore completa)
+     */
+    public CategoryResponse findById(Long id, Integer depth) {
+        CategoryTreeIndex index = treeIndexHolder.get();
+
+        return index.findById(id)
+                .map(node -> CategoryConverter.convertToCategoryResponse(node, index, depth))
+                .orElseThrow(() ->
+                        new CategoryNotFoundException(UNABLE_TO_FIND_A_CATEGORY_WITH_ID_D.formatted(id))
+                );
+    }
+
+    /**
+     * ETag e Last-Modified da resposta de findById(id, depth), calculados só com ids, versões e datas do índice.
+     * A ETag cobre a categoria e todos os descendentes incluídos na resposta, na ordem em que aparecem.
+     */
+    public ResourceVersion findVersion(Long id, Integer depth) {
+        List<CategoryTreeIndex.Node> nodes = treeIndexHolder.get().subtreeOf(id, depth);
+        if (nodes.isEmpty())
+            throw new CategoryNotFoundException(UNABLE_TO_FIND_A_CATEGORY_WITH_ID_D.formatted(id));
+
+        long hash = 17;
+        LocalDateTime lastModified = null;
+        for (CategoryTreeIndex.Node node : nodes) {
+            hash = 31 * hash + node.id();
+            hash = 31 * hash + Objects.requireNonNullElse(node.version(), 0L);
+            if (node.updatedAt() != null && (lastModified == null || node.updatedAt().isAfter(lastModified)))
+                lastModified = node.updatedAt();
+        }
 
-        return CategoryConverter.convertToCategoryResponse(category);
+        String etag = "\"c%d-%s-%s\"".formatted(id, depth == null ? "all" : depth, Long.toHexString(hash));
+        return new ResourceVersion(etag, lastModified);
+    }
+
+    /**
+     * Caminho da raiz até a categoria (inclusive), resolvido pelo índice em memória
+     */
+    public List<CategoryPathResponse> findPath(Long id) {
+        CategoryTreeIndex index = treeIndexHolder.get();
+        CategoryTreeIndex.Node node = index.findById(id).orElseThrow(() ->
+                new CategoryNotFoundException(UNABLE_TO_FIND_A_CATEGORY_WITH_ID_D.formatted(id)));
+
+        return Stream.concat(index.ancestorsOf(id).stream(), Stream.of(node))
+                .map(step -> CategoryPathResponse.builder()
+                        .id(step.id())
+                        .name(step.name())
+                        .build())
+                .toList();
     }
 
     public List<CategoryResponse> findAll(){
-        return repository
+        CategoryTreeIndex index = treeIndexHolder.get();
+
+        return index
                 .findAll()
                 .stream()
-                .map(CategoryConverter::convertToCategoryResponse)
+                .map(node -> CategoryConverter.convertToCategoryResponse(node, index))
                 .toList();
     }
 
     public Page<CategoryResponse> findAll(Pageable pageable){
-        return repository
-                .findAll(pageable)
-                .map(CategoryConverter::convertToCategoryResponse);
+        return findAll(pageable, null);
+    }
+
+    /**
+     * Página de categorias com no máximo depth níveis de filhos (null = árvore completa).
+     * Apenas os ids da página vêm do banco; o restante sai do índice em memória.
+     */
+    public Page<CategoryResponse> findAll(Pageable pageable, Integer depth){
+        Page<Long> ids = repository.findAllIds(pageable);
+
+        return new PageImpl<>(toResponses(ids.getContent(), depth), pageable, ids.getTotalElements());
     }
 
+    /**
+     * Raízes paginadas com os filhos ordenados pelo mesmo critério da página.
+     * Os filhos de todas as raízes da página vêm de uma única consulta IN e são agrupados em memória.
+     */
+    @Transactional(readOnly = true)
     public Page<CategoryResponse> findAllRootsWithOrderedChildren(Pageable pageable){
         Page<Category> parentCategories = repository.findByIsRootIsTrue(pageable);
 
-        for(var parentCategory : parentCategories)
-            parentCategory.setChildren(
-                    repository.findByParent(parentCategory, pageable.getSort())
-            );
-
-        return parentCategories.map(CategoryConverter::convertToCategoryResponse);
+        List<Long> parentIds = parentCategories.map(Category::getId).getContent();
+        Map<Long, List<Category>> childrenByParentId = parentIds.isEmpty()
+                ? Map.of()
+                : repository.findByParentIdIn(parentIds, pageable.getSort())
+                        .stream()
+                        .collect(Collectors.groupingBy(child -> child.getParent().getId()));
+
+        CategoryTreeIndex index = treeIndexHolder.get();
+
+        return parentCategories.map(parentCategory -> CategoryConverter.convertToCategoryResponse(
+                parentCategory,
+                childrenByParentId.getOrDefault(parentCategory.getId(), List.of())
+                        .stream()
+                        .map(child -> toResponse(child, index))
+                        .toList()
+        ));
     }
 
     public List<CategoryResponse> findAllRoots() {
-        return repository
-                .findByIsRootIsTrue()
+        CategoryTreeIndex index = treeIndexHolder.get();
+
+        return index
+                .findAllRoots()
                 .stream()
-                .map(CategoryConverter::convertToCategoryResponse)
+                .map(node -> CategoryConverter.convertToCategoryResponse(node, index))
                 .toList();
     }
 
+    @Transactional
     public void deleteById(Long id){
 
         Category category = repository.findById(id).orElseThrow(() ->
@@ -90,31 +190,54 @@ public class CategoryService {
             fileStorageService.deleteFile(category.getImage());
         }
 
+        Set<Long> affectedIds = treeIndexHolder.get().pathIdsOf(id);
+        touch(category.getParent());
+        closureRepository.deleteByDescendantId(id);
         repository.deleteById(id);
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, affectedIds));
     }
 
+    @Transactional
     public CategoryResponse createCategory(CategoryRequest request){
 
         Category category = CategoryConverter.convertToCategory(request);
 
         fillJoinedAttributes(request, category);
 
-        return CategoryConverter.convertToCategoryResponse(repository.save(category));
+        Category savedCategory = repository.save(category);
+        closureRepository.insertSelf(savedCategory.getId());
+        if (savedCategory.getParent() != null)
+            closureRepository.attachSubtree(savedCategory.getId(), savedCategory.getParent().getId());
+
+        // Uma categoria nova ainda não tem produtos: nenhuma listagem de subárvore muda
+        eventPublisher.publishEvent(new CategoryChangedEvent(savedCategory.getId(), Set.of()));
+
+        return CategoryConverter.convertToCategoryResponse(savedCategory);
     }
 
+    @Transactional
     public CategoryResponse updateCategory(Long id, CategoryRequest request){
 
         Category oldCategory = repository.findById(id).orElseThrow(() ->
                 new CategoryNotFoundException(UNABLE_TO_FIND_A_CATEGORY_WITH_ID_D.formatted(id))
         );
 
+        Long oldParentId = getParentId(oldCategory);
+        validateNewParent(id, request.getParentId());
+
         Category updatedCategory = CategoryConverter.convertToCategory(request);
         updatedCategory.setId(oldCategory.getId());
+        updatedCategory.setVersion(oldCategory.getVersion());
         fillJoinedAttributes(request,updatedCategory);
 
-        return CategoryConverter.convertToCategoryResponse(repository.save(updatedCategory));
+        Category savedCategory = repository.save(updatedCategory);
+        moveInClosure(id, oldParentId, getParentId(savedCategory));
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, affectedByChange(id, getParentId(savedCategory))));
+
+        return CategoryConverter.convertToCategoryResponse(savedCategory);
     }
 
+    @Transactional
     public CategoryResponse partiallyUpdateCategory(Long id, CategoryRequest request){
         Category category = repository.findById(id).orElseThrow(() ->
                 new CategoryNotFoundException(UNABLE_TO_FIND_A_CATEGORY_WITH_ID_D.formatted(id))
@@ -129,9 +252,15 @@ public class CategoryService {
         if(request.getEnabled() != null)
             category.setEnabled(request.getEnabled());
 
+        Long oldParentId = getParentId(category);
+        validateNewParent(id, request.getParentId());
         fillJoinedAttributes(request, category);
 
-        return CategoryConverter.convertToCategoryResponse(repository.save(category));
+        Category savedCategory = repository.save(category);
+        moveInClosure(id, oldParentId, getParentId(savedCategory));
+        eventPublisher.publishEvent(new CategoryChangedEvent(id, affectedByChange(id, getParentId(savedCategory))));
+
+        return CategoryConverter.convertToCategoryResponse(savedCategory);
     }
 
     private void fillJoinedAttributes(CategoryRequest request, Category category) {
@@ -142,32 +271,134 @@ public class CategoryService {
         }
     }
 
+    /**
+     * Impede mover uma categoria para dentro da sua própria subárvore
+     */
+    private void validateNewParent(Long id, Long newParentId) {
+        if (newParentId != null && closureRepository.existsByAncestorIdAndDescendantId(id, newParentId)) {
+            throw new IllegalArgumentException("Não é possível mover uma categoria para dentro de sua própria subárvore.");
+        }
+    }
+
+    /**
+     * Atualiza a tabela de fechamento quando o pai de uma categoria muda:
+     * desliga a subárvore dos ancestrais antigos e religa aos novos
+     */
+    private void moveInClosure(Long id, Long oldParentId, Long newParentId) {
+        if (Objects.equals(oldParentId, newParentId))
+            return;
+
+        if (oldParentId != null)
+            touch(repository.findById(oldParentId).orElse(null));
+
+        List<Long> oldAncestorIds = closureRepository.findAncestorIds(id);
+        if (!oldAncestorIds.isEmpty())
+            closureRepository.detach(closureRepository.findDescendantIds(id), oldAncestorIds);
+
+        if (newParentId != null)
+            closureRepository.attachSubtree(id, newParentId);
+    }
+
+    /**
+     * Categorias cujas listagens de subárvore mudam ao alterar ou mover id: o caminho atual e o do novo pai.
+     * O índice ainda reflete a árvore anterior à transação.
+     */
+    private Set<Long> affectedByChange(Long id, Long newParentId) {
+        CategoryTreeIndex index = treeIndexHolder.get();
+        Set<Long> affectedIds = index.pathIdsOf(id);
+        affectedIds.addAll(index.pathIdsOf(newParentId));
+        return affectedIds;
+    }
+
+    /**
+     * Marca como alterada a categoria que perdeu um filho, para que o Last-Modified dela e dos ancestrais avance
+     */
+    private static void touch(Category category) {
+        if (category != null)
+            category.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private static Long getParentId(Category category) {
+        return category.getParent() == null ? null : category.getParent().getId();
+    }
+
+    /**
+     * Preenche a tabela de fechamento para bases criadas antes dela existir
+     */
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeClosure() {
+        if (closureRepository.count() > 0 || repository.count() == 0)
+            return;
+
+        log.info("Populating category closure table from existing categories");
+        rebuildClosure();
+    }
+
+    /**
+     * Recria a tabela de fechamento inteira a partir das relações pai/filho
+     */
+    @Transactional
+    public void rebuildClosure() {
+        closureRepository.deleteAllInBatch();
+
+        CategoryTreeIndex index = CategoryTreeIndex.of(repository.findAllNodes());
+        index.findAll()
+                .stream()
+                .sorted(Comparator.comparingInt(node -> index.ancestorsOf(node.id()).size()))
+                .forEach(node -> {
+                    closureRepository.insertSelf(node.id());
+                    if (node.parentId() != null && index.contains(node.parentId()))
+                        closureRepository.attachSubtree(node.id(), node.parentId());
+                });
+    }
+
     // ============== NOVOS MÉTODOS A ADICIONAR ==============
 
     /**
      * Encontra todas as categorias raiz com paginação
      */
     public Page<CategoryResponse> findAllRootsPaginated(Pageable pageable) {
-        return repository
-                .findByIsRootIsTrue(pageable)
-                .map(CategoryConverter::convertToCategoryResponse);
+        return listingCache.get(ShopListingCache.Listing.ROOTS_PAGE, null, pageable, () -> {
+            CategoryTreeIndex index = treeIndexHolder.get();
+
+            return repository
+                    .findByIsRootIsTrue(pageable)
+                    .map(category -> toResponse(category, index));
+        });
+    }
+
+    /**
+     * Categorias raiz em fatias (próxima/anterior), sem consulta de contagem
+     */
+    public Slice<CategoryResponse> findAllRootsSlice(Pageable pageable) {
+        return listingCache.get(ShopListingCache.Listing.ROOTS_SLICE, null, pageable, () -> {
+            Slice<Long> ids = repository.findRootIdsSlice(pageable);
+
+            return new SliceImpl<>(toResponses(ids.getContent(), null), pageable, ids.hasNext());
+        });
     }
 
     /**
      * Busca categorias por nome (LIKE)
      */
     public Page<CategoryResponse> searchCategories(String name, Pageable pageable) {
+        CategoryTreeIndex index = treeIndexHolder.get();
+
         return repository
                 .findByNameContainingIgnoreCase(name, pageable)
-                .map(CategoryConverter::convertToCategoryResponse);
+                .map(category -> toResponse(category, index));
     }
 
     /**
      * Deleta todas as categorias e recria as 10 iniciais
      */
+    @Transactional
     public void deleteAllAndResetInitial() {
+        closureRepository.deleteAllInBatch();
         repository.deleteAll();
         createInitialCategories();
+        eventPublisher.publishEvent(new CategoryChangedEvent(null));
     }
 
     /**
@@ -185,47 +416,35 @@ public class CategoryService {
                     .isRoot(true)
                     .enabled(true)
                     .build();
-            repository.save(category);
+            closureRepository.insertSelf(repository.save(category).getId());
         }
     }
 
     /**
-     * Exporta categorias em formato CSV
+     * Converte a partir do índice em memória; cai para a entidade se ela ainda não estiver no snapshot
      */
-    public String exportToCSV() {
-        StringBuilder csv = new StringBuilder();
-        csv.append("id,name\n");
-
-        List<Category> categories = repository.findByIsRootIsTrue();
-        for (Category category : categories) {
-            csv.append(category.getId()).append(",").append(category.getName()).append("\n");
-
-            // Adiciona subcategorias com indentação
-            if (category.getChildren() != null && !category.getChildren().isEmpty()) {
-                addChildrenToCSV(csv, category.getChildren(), "  ");
-            }
-        }
-
-        return csv.toString();
+    private CategoryResponse toResponse(Category category, CategoryTreeIndex index) {
+        return index.findById(category.getId())
+                .map(node -> CategoryConverter.convertToCategoryResponse(node, index))
+                .orElseGet(() -> CategoryConverter.convertToCategoryResponse(category));
     }
 
     /**
-     * Auxilia na indentação de subcategorias no CSV
+     * Converte os ids de uma página a partir do índice em memória, com no máximo depth níveis de filhos.
+     * Se algum id ainda não estiver no snapshot (escrita confirmada antes do evento chegar), o índice é
+     * recarregado uma vez; ids que continuam ausentes foram apagados nesse meio tempo e ficam de fora.
      */
-    private void addChildrenToCSV(StringBuilder csv, List<Category> children, String indent) {
-        for (Category child : children) {
-            csv.append(child.getId()).append(",").append(indent).append(child.getName()).append("\n");
-
-            if (child.getChildren() != null && !child.getChildren().isEmpty()) {
-                addChildrenToCSV(csv, child.getChildren(), indent + "  ");
-            }
-        }
-    }
-
-    public String generateCSVFileName() {
-        java.time.LocalDateTime now = java.time.LocalDateTime.now();
-        java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss");
-        return "categories_" + now.format(formatter) + ".csv";
+    private List<CategoryResponse> toResponses(List<Long> ids, Integer depth) {
+        CategoryTreeIndex snapshot = treeIndexHolder.get();
+        CategoryTreeIndex index = ids.stream().allMatch(id -> snapshot.findById(id).isPresent())
+                ? snapshot
+                : treeIndexHolder.rebuild();
+
+        return ids.stream()
+                .map(index::findById)
+                .flatMap(Optional::stream)
+                .map(node -> CategoryConverter.convertToCategoryResponse(node, index, depth))
+                .toList();
     }
 
 }
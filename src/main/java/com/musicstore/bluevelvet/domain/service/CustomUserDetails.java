@@ -5,10 +5,19 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.io.Serial;
 import java.util.Collection;
 import java.util.Collections;
 
-public record CustomUserDetails(User user) implements UserDetails {
+/**
+ * roleMask tem um bit por User.Role (User.Role.mask()), calculado uma vez no login;
+ * as verificações de @RequiresRole são um único AND sobre ele
+ */
+public record CustomUserDetails(User user, int roleMask) implements UserDetails {
+
+    public CustomUserDetails(User user) {
+        this(user, user.getRole() == null ? 0 : user.getRole().mask());
+    }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -50,4 +59,15 @@ public record CustomUserDetails(User user) implements UserDetails {
     public String getName() {
         return user.getName();
     }
+
+    /**
+     * Serializado (sessão gravada no banco) sem o hash da senha, que só serve na verificação do login
+     */
+    @Serial
+    private Object writeReplace() {
+        if (user.getPassword() == null)
+            return this;
+        return new CustomUserDetails(User.builder().id(user.getId()).email(user.getEmail())
+                .name(user.getName()).role(user.getRole()).build(), roleMask);
+    }
 }
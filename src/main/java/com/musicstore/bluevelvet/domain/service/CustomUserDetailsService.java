@@ -1,5 +1,6 @@
 package com.musicstore.bluevelvet.domain.service;
 
+import com.musicstore.bluevelvet.domain.cache.AuthenticationCache;
 import com.musicstore.bluevelvet.infrastructure.entity.User;
 import com.musicstore.bluevelvet.infrastructure.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,15 +12,22 @@ import org.springframework.stereotype.Service;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final AuthenticationCache authenticationCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, AuthenticationCache authenticationCache) {
         this.userRepository = userRepository;
+        this.authenticationCache = authenticationCache;
     }
 
+    /**
+     * Usuários encontrados ficam em cache (AuthenticationCache); e-mails inexistentes não
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UsernameNotFoundException("E-mail não encontrado: " + email));
-        return new CustomUserDetails(user);
+        return authenticationCache.getUser(email, () -> {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UsernameNotFoundException("E-mail não encontrado: " + email));
+            return new CustomUserDetails(user);
+        });
     }
 }
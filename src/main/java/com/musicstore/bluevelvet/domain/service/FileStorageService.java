@@ -1,31 +1,113 @@
 package com.musicstore.bluevelvet.domain.service;
 
+import com.musicstore.bluevelvet.domain.event.FileDeletedEvent;
+import com.musicstore.bluevelvet.domain.event.FileStoredEvent;
+import com.musicstore.bluevelvet.domain.upload.ImageType;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
-import java.util.UUID;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
 
+/**
+ * Armazenamento dos uploads endereçado por conteúdo: cada arquivo é gravado como SHA-256 + extensão,
+ * de modo que envios idênticos compartilham o mesmo arquivo. O arquivo só é apagado quando nenhum
+ * Product.image ou Category.image o referencia mais e nenhum envio em andamento acabou de recebê-lo
+ * (referência pendente entre saveFile e release).
+ * Os controllers fazem a cópia em uploadExecutor() (threads virtuais), fora das threads do Tomcat.
+ */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class FileStorageService {
 
+    /**
+     * Extensões que compensam uma cópia .gz pré-comprimida (imagens rasterizadas já são comprimidas)
+     */
+    public static final Set<String> COMPRESSIBLE_EXTENSIONS = Set.of(".svg", ".txt", ".csv", ".json", ".xml", ".html", ".css", ".js");
+    static final String GZIP_SUFFIX = ".gz";
+
+    /** Cópias simultâneas: threads virtuais são baratas, o disco não */
+    static final int MAX_CONCURRENT_UPLOADS = 16;
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     @Value("${app.upload.dir}")
     private String uploadDir;
 
+    @Value("${spring.servlet.multipart.max-file-size:10MB}")
+    private DataSize maxFileSize;
+
+    private final ReentrantLock storeLock = new ReentrantLock();
+    /** Referências pendentes: arquivos entregues por saveFile cujo registro ainda não terminou (protegido por storeLock) */
+    private final Map<String, Integer> pendingReferences = new HashMap<>();
+    private final Semaphore uploadPermits = new Semaphore(MAX_CONCURRENT_UPLOADS);
+    private final ExecutorService virtualThreads = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("upload-", 0).factory());
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+
     /**
-     * Salva o arquivo enviado e retorna o nome do arquivo salvo
+     * Executor das requisições com upload: uma thread virtual por cópia, no máximo MAX_CONCURRENT_UPLOADS ao mesmo tempo
+     */
+    public AsyncTaskExecutor uploadExecutor() {
+        return new TaskExecutorAdapter(task -> virtualThreads.execute(() -> {
+            uploadPermits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                uploadPermits.release();
+            }
+        }));
+    }
+
+    /**
+     * Salva o arquivo enviado e retorna o nome do arquivo salvo.
+     * O tipo é reconhecido pelos primeiros bytes e o tamanho é limitado durante a própria cópia;
+     * o hash é calculado na cópia para um temporário no diretório de uploads, que depois é movido
+     * atomicamente para o nome definitivo ou descartado se o mesmo conteúdo já estiver armazenado.
+     * O arquivo fica com uma referência pendente até release(...): dentro de uma transação ela é liberada
+     * no afterCompletion; fora de uma, quem chamou deve chamar release depois de gravar (ou não) a entidade.
      */
     public String saveFile(MultipartFile file) throws IOException {
         if (file == null || file.isEmpty()) {
             return null;
         }
+        if (file.getSize() > maxFileSize.toBytes()) {
+            throw tooLarge();
+        }
 
         // Cria o diretório se não existir
         Path uploadPath = Paths.get(uploadDir);
@@ -33,43 +115,192 @@ public class FileStorageService {
             Files.createDirectories(uploadPath);
         }
 
-        // Gera nome único para o arquivo
-        String originalFilename = file.getOriginalFilename();
-        String fileExtension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            fileExtension = originalFilename.substring(originalFilename.lastIndexOf("."));
-        }
-        String newFilename = UUID.randomUUID() + fileExtension;
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(uploadPath, ".upload-", ".tmp");
+        try {
+            ImageType type;
+            try (InputStream in = new BufferedInputStream(file.getInputStream(), COPY_BUFFER_SIZE)) {
+                in.mark(ImageType.HEADER_SIZE);
+                type = ImageType.detect(in.readNBytes(ImageType.HEADER_SIZE)).orElseThrow(() ->
+                        new IllegalArgumentException("Formato de imagem não suportado: " + file.getOriginalFilename()));
+                in.reset();
+                copy(in, temp, digest);
+            }
+
+            String newFilename = HexFormat.of().formatHex(digest.digest()) + type.extension();
+            Path filePath = uploadPath.resolve(newFilename);
+
+            storeLock.lock();
+            try {
+                if (Files.exists(filePath)) {
+                    log.debug("Upload {} já armazenado como {}", file.getOriginalFilename(), newFilename);
+                } else {
+                    Files.move(temp, filePath, StandardCopyOption.ATOMIC_MOVE);
+                    precompress(filePath);
+                }
+                pendingReferences.merge(newFilename, 1, Integer::sum);
+            } finally {
+                storeLock.unlock();
+            }
 
-        // Salva o arquivo
-        Path filePath = uploadPath.resolve(newFilename);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        release(newFilename);
+                    }
+                });
+            }
 
-        return newFilename;
+            // Versões redimensionadas são geradas em segundo plano
+            eventPublisher.publishEvent(new FileStoredEvent(newFilename));
+
+            return newFilename;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
     }
 
     /**
-     * Deleta um arquivo pelo nome
+     * Libera uma referência ao arquivo. Deve ser chamado depois que a entidade deixou de apontar para ele;
+     * dentro de uma transação, a verificação fica para depois do commit.
      */
     public void deleteFile(String filename) {
         if (filename == null || filename.isEmpty()) {
             return;
         }
 
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deleteIfUnreferenced(filename);
+                }
+            });
+        } else {
+            deleteIfUnreferenced(filename);
+        }
+    }
+
+    /**
+     * Libera a referência pendente criada por saveFile, depois que a entidade foi gravada ou a gravação falhou.
+     * Sem outras referências (ex.: rollback), o arquivo é apagado.
+     */
+    public void release(String filename) {
+        if (filename == null || filename.isEmpty()) {
+            return;
+        }
+
+        storeLock.lock();
         try {
-            Path filePath = Paths.get(uploadDir).resolve(filename);
-            Files.deleteIfExists(filePath);
-        } catch (IOException e) {
-            // Log error but don't throw exception
-            log.error("Erro ao deletar arquivo: {}", filename);
+            pendingReferences.computeIfPresent(filename, (name, count) -> count > 1 ? count - 1 : null);
+            deleteIfUnreferenced(filename);
+        } finally {
+            storeLock.unlock();
         }
     }
 
+    /**
+     * Número de produtos e categorias que usam o arquivo
+     */
+    public long countReferences(String filename) {
+        return productRepository.countByImage(filename) + categoryRepository.countByImage(filename);
+    }
+
     /**
      * Obtém o caminho completo do arquivo
      */
     public Path getFilePath(String filename) {
         return Paths.get(uploadDir).resolve(filename);
     }
-}
 
+    @PreDestroy
+    public void shutdown() {
+        virtualThreads.shutdown();
+    }
+
+    private void deleteIfUnreferenced(String filename) {
+        storeLock.lock();
+        try {
+            if (pendingReferences.containsKey(filename)) {
+                log.debug("Arquivo {} mantido, envio em andamento", filename);
+                return;
+            }
+            long references = countReferences(filename);
+            if (references > 0) {
+                log.debug("Arquivo {} mantido, ainda tem {} referência(s)", filename, references);
+                return;
+            }
+
+            Files.deleteIfExists(Paths.get(uploadDir).resolve(filename));
+            Files.deleteIfExists(Paths.get(uploadDir).resolve(filename + GZIP_SUFFIX));
+            for (String variant : ImageVariantService.variantFilenames(filename)) {
+                Files.deleteIfExists(Paths.get(uploadDir).resolve(variant));
+            }
+            eventPublisher.publishEvent(new FileDeletedEvent(filename));
+        } catch (IOException e) {
+            // Log error but don't throw exception
+            log.error("Erro ao deletar arquivo: {}", filename);
+        } finally {
+            storeLock.unlock();
+        }
+    }
+
+    /**
+     * Copia calculando o hash e interrompe assim que o limite de tamanho é ultrapassado
+     */
+    private void copy(InputStream in, Path target, MessageDigest digest) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxFileSize.toBytes())
+                    throw tooLarge();
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+
+    /**
+     * Grava ao lado do arquivo a versão .gz servida a clientes que aceitam gzip, se ela for menor
+     */
+    private static void precompress(Path filePath) throws IOException {
+        if (!COMPRESSIBLE_EXTENSIONS.contains(extensionOf(filePath.getFileName().toString())))
+            return;
+
+        Path gzipPath = filePath.resolveSibling(filePath.getFileName() + GZIP_SUFFIX);
+        Path temp = Files.createTempFile(filePath.getParent(), ".gzip-", ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                Files.copy(filePath, out);
+            }
+            if (Files.size(temp) < Files.size(filePath))
+                Files.move(temp, gzipPath, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private IllegalArgumentException tooLarge() {
+        return new IllegalArgumentException("Arquivo maior que o limite de " + maxFileSize.toMegabytes() + "MB");
+    }
+
+    public static String extensionOf(String originalFilename) {
+        if (originalFilename == null || !originalFilename.contains(".")) {
+            return "";
+        }
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase(Locale.ROOT);
+        return extension.matches("\\.[a-z0-9]{1,10}") ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.musicstore.bluevelvet.domain.event.FileDeletedEvent;
+import com.musicstore.bluevelvet.domain.event.FileStoredEvent;
+import com.musicstore.bluevelvet.domain.event.ImageVariantsReadyEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Versões redimensionadas das imagens enviadas (larguras de VARIANT_WIDTHS, JPEG e WebP quando houver
+ * um writer WebP registrado no ImageIO), geradas em segundo plano num pool de tamanho e fila limitados.
+ * As páginas da loja usam srcset(...) e caem para o original enquanto as versões não ficam prontas.
+ */
+@Service
+@Log4j2
+public class ImageVariantService {
+
+    public static final List<Integer> VARIANT_WIDTHS = List.of(200, 400, 800);
+    public static final String JPEG = "jpg";
+    public static final String WEBP = "webp";
+
+    private static final int WORKERS = 2;
+    private static final int QUEUE_CAPACITY = 256;
+    private static final float JPEG_QUALITY = 0.82f;
+    private static final long MAX_READY = 10_000;
+
+    /**
+     * Maior imagem decodificada (largura x altura); acima disso ficam só com o original, para que um
+     * arquivo pequeno com dimensões enormes não aloque gigabytes de pixels no worker
+     */
+    static final long MAX_PIXELS = 40_000_000L;
+
+    /**
+     * Larguras geradas para uma imagem; vazio quando ela não é decodificável ou já é menor que a menor variante
+     */
+    record Variants(List<Integer> widths, boolean webp) {
+        static final Variants NONE = new Variants(List.of(), false);
+    }
+
+    /**
+     * Resultado de generate: written indica se algum arquivo foi gravado agora (e não já existia em disco)
+     */
+    record Generated(Variants variants, boolean written) {
+    }
+
+    private final Path uploadPath;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UploadUrlService uploadUrlService;
+    private final boolean webpSupported = ImageIO.getImageWritersByFormatName(WEBP).hasNext();
+    /** Variantes conhecidas por imagem; reconstruído do disco sob demanda, então pode ser limitado */
+    private final Cache<String, Variants> ready = Caffeine.newBuilder().maximumSize(MAX_READY).build();
+    private final Map<String, Boolean> pending = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ImageVariantService(@Value("${app.upload.dir}") String uploadDir, ApplicationEventPublisher eventPublisher,
+                               UploadUrlService uploadUrlService) {
+        this.uploadPath = Paths.get(uploadDir);
+        this.eventPublisher = eventPublisher;
+        this.uploadUrlService = uploadUrlService;
+
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(WORKERS, WORKERS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                });
+    }
+
+    /**
+     * Nome do arquivo de uma variante: foto.png -> foto-400w.jpg
+     */
+    public static String variantFilename(String filename, int width, String format) {
+        int dot = filename.lastIndexOf('.');
+        String base = dot > 0 ? filename.substring(0, dot) : filename;
+        return base + "-" + width + "w." + format;
+    }
+
+    /**
+     * Todos os nomes de variante possíveis de uma imagem, para remoção junto com o original
+     */
+    public static List<String> variantFilenames(String filename) {
+        List<String> names = new ArrayList<>();
+        for (int width : VARIANT_WIDTHS) {
+            names.add(variantFilename(filename, width, JPEG));
+            names.add(variantFilename(filename, width, WEBP));
+        }
+        return names;
+    }
+
+    /**
+     * Valor do atributo srcset no formato pedido, ou null se as variantes ainda não existem
+     * (na primeira renderização depois de um reinício elas são conferidas em disco; imagens enviadas
+     * antes desta funcionalidade são enfileiradas aqui)
+     */
+    public String srcset(String filename, String format) {
+        if (filename == null || filename.isBlank())
+            return null;
+
+        Variants variants = ready.getIfPresent(filename);
+        if (variants == null) {
+            submit(filename);
+            variants = ready.getIfPresent(filename);
+            if (variants == null)
+                return null;
+        }
+        if (variants.widths().isEmpty() || (WEBP.equals(format) && !variants.webp()))
+            return null;
+
+        return variants.widths().stream()
+                .map(width -> uploadUrlService.url(variantFilename(filename, width, format)) + " " + width + "w")
+                .collect(Collectors.joining(", "));
+    }
+
+    @EventListener
+    public void onFileStored(FileStoredEvent event) {
+        submit(event.filename());
+    }
+
+    /**
+     * O mesmo conteúdo pode voltar a ser enviado depois; as variantes terão de ser geradas de novo
+     */
+    @EventListener
+    public void onFileDeleted(FileDeletedEvent event) {
+        ready.invalidate(event.filename());
+    }
+
+    /**
+     * Confere primeiro as variantes já em disco (só o cabeçalho do original é lido); se falta alguma, enfileira
+     * a geração. Com a fila cheia a imagem é descartada e volta a ser tentada na próxima renderização.
+     * O evento só é publicado quando a geração grava arquivos novos.
+     */
+    public void submit(String filename) {
+        if (ready.getIfPresent(filename) != null || pending.putIfAbsent(filename, Boolean.TRUE) != null)
+            return;
+
+        Variants onDisk = fromDisk(filename);
+        if (onDisk != null) {
+            ready.put(filename, onDisk);
+            pending.remove(filename);
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    Generated generated = generate(filename);
+                    ready.put(filename, generated.variants());
+                    if (generated.written())
+                        eventPublisher.publishEvent(new ImageVariantsReadyEvent(filename));
+                } catch (RuntimeException e) {
+                    log.error("Erro ao gerar variantes da imagem {}", filename, e);
+                } finally {
+                    pending.remove(filename);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(filename);
+            log.warn("Fila de variantes cheia, imagem {} adiada", filename);
+        }
+    }
+
+    /**
+     * Variantes que a imagem deve ter, se todas já estiverem em disco (por exemplo, geradas antes de um reinício);
+     * NONE se ela não terá variantes e null se falta algum arquivo e é preciso decodificar o original
+     */
+    Variants fromDisk(String filename) {
+        Path original = uploadPath.resolve(filename);
+        Integer sourceWidth;
+        try {
+            sourceWidth = Files.exists(original) ? withReader(original, reader -> withinBudget(reader, filename)
+                    ? reader.getWidth(0) : null) : null;
+        } catch (IOException e) {
+            log.warn("Imagem {} não pôde ser lida: {}", filename, e.getMessage());
+            sourceWidth = null;
+        }
+        if (sourceWidth == null)
+            return Variants.NONE;
+
+        List<Integer> widths = new ArrayList<>();
+        for (int width : VARIANT_WIDTHS) {
+            if (width >= sourceWidth)
+                continue;
+            if (!Files.exists(uploadPath.resolve(variantFilename(filename, width, JPEG)))
+                    || (webpSupported && !Files.exists(uploadPath.resolve(variantFilename(filename, width, WEBP)))))
+                return null;
+            widths.add(width);
+        }
+        return widths.isEmpty() ? Variants.NONE : new Variants(List.copyOf(widths), webpSupported);
+    }
+
+    /**
+     * Gera as variantes que ainda não existem em disco; cada arquivo é escrito num temporário e movido
+     * atomicamente, para que nunca seja servido pela metade
+     */
+    Generated generate(String filename) {
+        Path original = uploadPath.resolve(filename);
+        BufferedImage source;
+        try {
+            source = Files.exists(original) ? withReader(original, reader -> withinBudget(reader, filename)
+                    ? reader.read(0) : null) : null;
+        } catch (IOException e) {
+            log.warn("Imagem {} não pôde ser lida: {}", filename, e.getMessage());
+            source = null;
+        }
+        if (source == null)
+            return new Generated(Variants.NONE, false);
+
+        boolean written = false;
+        List<Integer> widths = new ArrayList<>();
+        BufferedImage current = toRgb(source);
+        for (int width : VARIANT_WIDTHS.reversed()) {
+            if (width >= source.getWidth())
+                continue;
+
+            current = resize(current, width);
+            try {
+                written |= write(current, filename, width, JPEG);
+                if (webpSupported)
+                    written |= write(current, filename, width, WEBP);
+                widths.add(0, width);
+            } catch (IOException e) {
+                log.error("Erro ao gravar variante {}px da imagem {}", width, filename, e);
+            }
+        }
+
+        log.debug("Variantes {} geradas para {}", widths, filename);
+        return new Generated(widths.isEmpty() ? Variants.NONE : new Variants(List.copyOf(widths), webpSupported), written);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private interface ReaderAction<T> {
+        T apply(ImageReader reader) throws IOException;
+    }
+
+    /**
+     * Abre um ImageReader posicionado no cabeçalho do arquivo; null se o formato não for reconhecido
+     */
+    private static <T> T withReader(Path original, ReaderAction<T> action) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(original.toFile())) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext())
+                return null;
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                return action.apply(reader);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Confere no cabeçalho, antes de decodificar, que as dimensões cabem em MAX_PIXELS
+     */
+    private static boolean withinBudget(ImageReader reader, String filename) throws IOException {
+        long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+        if (pixels <= MAX_PIXELS)
+            return true;
+
+        log.warn("Imagem {} com {}x{} pixels excede o limite, variantes não geradas",
+                filename, reader.getWidth(0), reader.getHeight(0));
+        return false;
+    }
+
+    /**
+     * Grava a variante; false se o arquivo já existia
+     */
+    private boolean write(BufferedImage image, String filename, int width, String format) throws IOException {
+        Path target = uploadPath.resolve(variantFilename(filename, width, format));
+        if (Files.exists(target))
+            return false;
+
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext())
+            throw new IOException("Sem writer ImageIO para " + format);
+        ImageWriter writer = writers.next();
+
+        Path temp = Files.createTempFile(uploadPath, ".variant-", "." + format);
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (JPEG.equals(format)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(JPEG_QUALITY);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    /**
+     * Reduz pela metade enquanto possível e faz o último passo bilinear: qualidade próxima da bicúbica
+     * com custo muito menor para originais grandes
+     */
+    private static BufferedImage resize(BufferedImage image, int width) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width)
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+
+        if (current.getWidth() == width)
+            return current;
+
+        int height = Math.max(1, Math.round((float) current.getHeight() * width / current.getWidth()));
+        return draw(current, width, height);
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB)
+            return image;
+        return draw(image, image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Copia para RGB sem alfa (o JPEG não tem transparência), com fundo branco
+     */
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = result.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return result;
+    }
+}
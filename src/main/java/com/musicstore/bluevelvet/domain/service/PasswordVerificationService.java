@@ -0,0 +1,144 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.response.PasswordVerificationStatsResponse;
+import com.musicstore.bluevelvet.domain.exception.PasswordVerificationRejectedException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Controle de admissão da verificação de senhas (BCrypt) do login por formulário, httpBasic e emissão de tokens.
+ * As verificações rodam num pool próprio de tamanho e fila limitados, de modo que uma rajada de logins
+ * ocupa no máximo app.security.password-verification.threads núcleos; com a fila cheia a tentativa é
+ * recusada na hora (PasswordVerificationRejectedException -> 429) em vez de esperar.
+ */
+@Service
+@Log4j2
+public class PasswordVerificationService {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder verificationNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxVerificationNanos = new LongAccumulator(Math::max, 0);
+
+    public PasswordVerificationService(@Value("${app.security.password-verification.threads:0}") int threads,
+                                       @Value("${app.security.password-verification.queue-capacity:64}") int queueCapacity) {
+        // Padrão: metade dos núcleos, o resto fica para a loja e a API
+        int workers = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.queueCapacity = queueCapacity;
+
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-verification-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        log.info("Verificação de senhas com {} thread(s) e fila de {}", workers, queueCapacity);
+    }
+
+    /**
+     * Visão do encoder em que matches(...) passa pelo pool limitado; encode(...) (cadastro de usuários) não
+     */
+    public PasswordEncoder bounded(PasswordEncoder delegate) {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return delegate.encode(rawPassword);
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return verify(() -> delegate.matches(rawPassword, encodedPassword));
+            }
+
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                return delegate.upgradeEncoding(encodedPassword);
+            }
+        };
+    }
+
+    public PasswordVerificationStatsResponse stats() {
+        long done = completed.sum();
+        return PasswordVerificationStatsResponse.builder()
+                .threads(executor.getMaximumPoolSize())
+                .queueCapacity(queueCapacity)
+                .queueDepth(executor.getQueue().size())
+                .active(executor.getActiveCount())
+                .completedCount(done)
+                .rejectedCount(rejected.sum())
+                .averageWaitMillis(done == 0 ? null : waitNanos.sum() / done / 1e6)
+                .maxWaitMillis(maxWaitNanos.get() / 1e6)
+                .averageVerificationMillis(done == 0 ? null : verificationNanos.sum() / done / 1e6)
+                .maxVerificationMillis(maxVerificationNanos.get() / 1e6)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private boolean verify(Verification verification) {
+        long submittedAt = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return verification.matches();
+                } finally {
+                    long finishedAt = System.nanoTime();
+                    record(startedAt - submittedAt, finishedAt - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Fila de verificação de senhas cheia ({}), tentativa recusada", queueCapacity);
+            throw new PasswordVerificationRejectedException("Muitas tentativas de login simultâneas, tente novamente em instantes");
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordVerificationRejectedException("Verificação de senha interrompida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void record(long wait, long verification) {
+        completed.increment();
+        waitNanos.add(wait);
+        verificationNanos.add(verification);
+        maxWaitNanos.accumulate(wait);
+        maxVerificationNanos.accumulate(verification);
+    }
+
+    @FunctionalInterface
+    private interface Verification {
+        boolean matches();
+    }
+}
@@ -0,0 +1,346 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
+import com.musicstore.bluevelvet.domain.exception.ImportJobNotFoundException;
+import com.musicstore.bluevelvet.domain.exception.ImportRejectedException;
+import com.musicstore.bluevelvet.domain.importer.ImportFormat;
+import com.musicstore.bluevelvet.domain.importer.ImportJob;
+import com.musicstore.bluevelvet.domain.importer.ProductImportReader;
+import com.musicstore.bluevelvet.domain.importer.ProductImportRow;
+import com.musicstore.bluevelvet.domain.search.TextNormalizer;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndex;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndexHolder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Importação em massa de produtos (CSV ou NDJSON).
+ * O arquivo é lido em streaming, as categorias são resolvidas por um mapa montado uma única vez
+ * e as linhas válidas são gravadas via JDBC (o id IDENTITY impede o batch do Hibernate), em INSERTs de
+ * ROWS_PER_STATEMENT linhas enviados em lote, BATCH_SIZE linhas por transação.
+ */
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final int BATCH_SIZE = 5000;
+    private static final int ROWS_PER_STATEMENT = 250;
+    private static final int MAX_JOBS = 20;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+    private static final String INSERT_SQL = insertSql(ROWS_PER_STATEMENT);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final CategoryTreeIndexHolder treeIndexHolder;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor taskExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Últimas importações, para consulta de progresso, em ordem de envio.
+     * Só as já terminadas saem do mapa; com MAX_JOBS em andamento novas importações são recusadas.
+     */
+    private final Map<String, ImportJob> jobs = new LinkedHashMap<>();
+
+    /**
+     * Copia o upload para um arquivo temporário e processa em segundo plano
+     */
+    public ImportJob submit(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty())
+            throw new IllegalArgumentException("Arquivo de importação vazio");
+
+        ImportFormat format = ImportFormat.of(file.getOriginalFilename(), file.getContentType());
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), file.getOriginalFilename(), format);
+        register(job);
+
+        Path temp;
+        try {
+            temp = Files.createTempFile("product-import-", format.extension());
+            file.transferTo(temp);
+        } catch (IOException | RuntimeException e) {
+            job.fail(e.getMessage());
+            throw e;
+        }
+
+        taskExecutor.execute(() -> {
+            try {
+                run(job, temp);
+            } finally {
+                deleteQuietly(temp);
+            }
+        });
+        return job;
+    }
+
+    /**
+     * Guarda a importação, descartando as terminadas mais antigas além de MAX_JOBS
+     */
+    private void register(ImportJob job) {
+        synchronized (jobs) {
+            long running = jobs.values().stream().filter(j -> j.getStatus() == ImportJob.Status.RUNNING).count();
+            if (running >= MAX_JOBS)
+                throw new ImportRejectedException("Há " + running + " importações em andamento; tente novamente mais tarde");
+
+            jobs.put(job.getId(), job);
+            Iterator<ImportJob> eldest = jobs.values().iterator();
+            while (jobs.size() > MAX_JOBS && eldest.hasNext()) {
+                if (eldest.next().getStatus() != ImportJob.Status.RUNNING)
+                    eldest.remove();
+            }
+        }
+    }
+
+    public ImportJob findJob(String id) {
+        ImportJob job;
+        synchronized (jobs) {
+            job = jobs.get(id);
+        }
+        if (job == null)
+            throw new ImportJobNotFoundException("Importação não encontrada com id: " + id);
+        return job;
+    }
+
+    /**
+     * Lê o arquivo, valida cada linha e grava em lotes de BATCH_SIZE, cada lote em sua própria transação
+     */
+    public void run(ImportJob job, Path file) {
+        CategoryLookup categories = new CategoryLookup(treeIndexHolder.get());
+        List<ValidRow> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (ProductImportReader reader = ProductImportReader.open(file, job.getFormat(), objectMapper)) {
+            ProductImportRow row;
+            while ((row = reader.next()) != null) {
+                job.rowRead();
+                try {
+                    batch.add(validate(row, categories));
+                } catch (IllegalArgumentException e) {
+                    job.rowFailed(row.line(), e.getMessage());
+                }
+
+                if (batch.size() == BATCH_SIZE)
+                    flush(job, batch);
+            }
+            flush(job, batch);
+            job.complete();
+        } catch (IOException | RuntimeException e) {
+            log.error("Product import {} failed after {} rows", job.getId(), job.getProcessed(), e);
+            job.fail(e.getMessage());
+        } finally {
+            if (job.getImported() > 0)
+                eventPublisher.publishEvent(new ProductChangedEvent(null));
+        }
+
+        log.info("Product import {} finished: {} imported, {} failed, {} rows/s",
+                job.getId(), job.getImported(), job.getFailed(), job.getRowsPerSecond());
+    }
+
+    private void flush(ImportJob job, List<ValidRow> batch) {
+        if (batch.isEmpty())
+            return;
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int full = batch.size() - batch.size() % ROWS_PER_STATEMENT;
+        List<List<ValidRow>> statements = new ArrayList<>(full / ROWS_PER_STATEMENT);
+        for (int from = 0; from < full; from += ROWS_PER_STATEMENT)
+            statements.add(batch.subList(from, from + ROWS_PER_STATEMENT));
+        List<ValidRow> rest = batch.subList(full, batch.size());
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (!statements.isEmpty())
+                    jdbcTemplate.batchUpdate(INSERT_SQL, statements, statements.size(),
+                            (statement, rows) -> bind(statement, rows, now));
+                if (!rest.isEmpty())
+                    jdbcTemplate.update(insertSql(rest.size()), statement -> bind(statement, rest, now));
+            });
+            job.rowsImported(batch.size());
+        } catch (DataAccessException e) {
+            log.warn("Product import {}: batch of {} rows rejected", job.getId(), batch.size(), e);
+            for (ValidRow row : batch)
+                job.rowFailed(row.line(), "Falha ao gravar o lote: " + e.getMostSpecificCause().getMessage());
+        }
+        batch.clear();
+    }
+
+    /**
+     * INSERT de várias linhas por instrução: no H2 cada instrução tem custo fixo por índice da tabela
+     */
+    private static String insertSql(int rows) {
+        return """
+            INSERT INTO bluevelvet.product
+                (name, description, price, stock_quantity, image, category_id, enabled, created_at, updated_at, version)
+            VALUES\s""" + String.join(", ", Collections.nCopies(rows, "(?, ?, ?, ?, ?, ?, ?, ?, ?, 0)"));
+    }
+
+    private static void bind(PreparedStatement statement, List<ValidRow> rows, Timestamp now) throws SQLException {
+        int index = 0;
+        for (ValidRow row : rows) {
+            statement.setString(++index, row.name());
+            statement.setString(++index, row.description());
+            statement.setBigDecimal(++index, row.price());
+            statement.setInt(++index, row.stockQuantity());
+            if (row.image() != null)
+                statement.setString(++index, row.image());
+            else
+                statement.setNull(++index, Types.VARCHAR);
+            statement.setLong(++index, row.categoryId());
+            statement.setBoolean(++index, row.enabled());
+            statement.setTimestamp(++index, now);
+            statement.setTimestamp(++index, now);
+        }
+    }
+
+    private ValidRow validate(ProductImportRow row, CategoryLookup categories) {
+        if (row.error() != null)
+            throw new IllegalArgumentException(row.error());
+
+        String name = trimToNull(row.name());
+        if (name == null)
+            throw new IllegalArgumentException("Nome é obrigatório");
+        if (name.length() > MAX_NAME_LENGTH)
+            throw new IllegalArgumentException("Nome com mais de " + MAX_NAME_LENGTH + " caracteres");
+
+        return new ValidRow(
+                row.line(),
+                name,
+                trimToNull(row.description()),
+                parsePrice(row.price()),
+                parseStock(row.stockQuantity()),
+                trimToNull(row.image()),
+                categories.resolve(row.categoryId(), row.categoryName()),
+                parseEnabled(row.enabled())
+        );
+    }
+
+    private static BigDecimal parsePrice(String value) {
+        String price = trimToNull(value);
+        if (price == null)
+            throw new IllegalArgumentException("Preço é obrigatório");
+
+        try {
+            BigDecimal parsed = new BigDecimal(price).setScale(2, RoundingMode.HALF_UP);
+            if (parsed.signum() < 0 || parsed.compareTo(MAX_PRICE) > 0)
+                throw new IllegalArgumentException("Preço fora do intervalo permitido: " + price);
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Preço inválido: " + price);
+        }
+    }
+
+    private static int parseStock(String value) {
+        String stock = trimToNull(value);
+        if (stock == null)
+            return 0;
+
+        try {
+            int parsed = Integer.parseInt(stock);
+            if (parsed < 0)
+                throw new IllegalArgumentException("Estoque não pode ser negativo: " + stock);
+            return parsed;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Estoque inválido: " + stock);
+        }
+    }
+
+    private static boolean parseEnabled(String value) {
+        String enabled = trimToNull(value);
+        if (enabled == null)
+            return true;
+
+        return switch (enabled.toLowerCase()) {
+            case "true", "1", "sim", "yes" -> true;
+            case "false", "0", "nao", "não", "no" -> false;
+            default -> throw new IllegalArgumentException("Valor inválido para enabled: " + enabled);
+        };
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null)
+            return null;
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary import file {}", file, e);
+        }
+    }
+
+    private record ValidRow(long line, String name, String description, BigDecimal price, int stockQuantity,
+                            String image, long categoryId, boolean enabled) {
+    }
+
+    /**
+     * Resolve a categoria por id ou por nome (sem acentos/maiúsculas) a partir do índice em memória
+     */
+    private static final class CategoryLookup {
+
+        private static final long AMBIGUOUS = -1L;
+
+        private final CategoryTreeIndex index;
+        private final Map<String, Long> idsByName = new HashMap<>();
+
+        CategoryLookup(CategoryTreeIndex index) {
+            this.index = index;
+            for (CategoryTreeIndex.Node node : index.findAll())
+                idsByName.merge(TextNormalizer.fold(node.name()).trim(), node.id(), (a, b) -> AMBIGUOUS);
+        }
+
+        long resolve(String categoryId, String categoryName) {
+            String id = trimToNull(categoryId);
+            if (id != null) {
+                try {
+                    long parsed = Long.parseLong(id);
+                    if (!index.contains(parsed))
+                        throw new IllegalArgumentException("Categoria não encontrada com id: " + id);
+                    return parsed;
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Id de categoria inválido: " + id);
+                }
+            }
+
+            String name = trimToNull(categoryName);
+            if (name == null)
+                throw new IllegalArgumentException("Categoria é obrigatória (category_id ou category_name)");
+
+            Long resolved = idsByName.get(TextNormalizer.fold(name));
+            if (resolved == null)
+                throw new IllegalArgumentException("Categoria não encontrada: " + name);
+            if (resolved == AMBIGUOUS)
+                throw new IllegalArgumentException("Mais de uma categoria com o nome: " + name);
+            return resolved;
+        }
+    }
+}
@@ -1,26 +1,73 @@
 package com.musicstore.bluevelvet.domain.service;
 
+import com.musicstore.bluevelvet.api.request.ProductBulkRequest;
 import com.musicstore.bluevelvet.api.request.ProductRequest;
+import com.musicstore.bluevelvet.api.response.ProductBulkResponse;
 import com.musicstore.bluevelvet.api.response.ProductResponse;
+import com.musicstore.bluevelvet.domain.cache.ShopListingCache;
 import com.musicstore.bluevelvet.domain.converter.ProductConverter;
+import com.musicstore.bluevelvet.domain.dto.ResourceVersion;
+import com.musicstore.bluevelvet.domain.event.ProductBulkChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
 import com.musicstore.bluevelvet.domain.exception.CategoryNotFoundException;
+import com.musicstore.bluevelvet.domain.pagination.KeysetCursor;
+import com.musicstore.bluevelvet.domain.pagination.KeysetPage;
+import com.musicstore.bluevelvet.domain.search.ProductSearchIndex;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndex;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndexHolder;
 import com.musicstore.bluevelvet.infrastructure.entity.Category;
 import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.projection.ProductVersionView;
 import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
 import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Log4j2
 @RequiredArgsConstructor
 public class ProductService {
 
+    /** Maior valor de price (DECIMAL(10, 2)) */
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final CategoryTreeIndexHolder treeIndexHolder;
+    private final ShopListingCache listingCache;
+    private final FileStorageService fileStorageService;
 
     public ProductResponse findById(Long id) {
         Product product = productRepository.findById(id)
@@ -28,6 +75,26 @@ public class ProductService {
         return ProductConverter.convertToProductResponse(product);
     }
 
+    /**
+     * ETag e Last-Modified de findById(id) a partir da versão do produto e da versão da categoria no índice,
+     * já que a resposta inclui o nome da categoria
+     */
+    public ResourceVersion findVersion(Long id) {
+        ProductVersionView product = productRepository.findVersionById(id)
+                .orElseThrow(() -> new CategoryNotFoundException("Produto não encontrado com id: " + id));
+        CategoryTreeIndex.Node category = treeIndexHolder.get().findById(product.getCategoryId()).orElse(null);
+
+        Long categoryVersion = category == null ? null : category.version();
+        LocalDateTime lastModified = product.getUpdatedAt();
+        if (category != null && category.updatedAt() != null
+                && (lastModified == null || category.updatedAt().isAfter(lastModified)))
+            lastModified = category.updatedAt();
+
+        String etag = "\"p%d-%d-c%d-%d\"".formatted(id, Objects.requireNonNullElse(product.getVersion(), 0L),
+                product.getCategoryId(), Objects.requireNonNullElse(categoryVersion, 0L));
+        return new ResourceVersion(etag, lastModified);
+    }
+
     public Page<ProductResponse> findAll(Pageable pageable) {
         return productRepository.findAll(pageable)
                 .map(ProductConverter::convertToProductResponse);
@@ -48,17 +115,109 @@ public class ProductService {
     }
 
     public Page<ProductResponse> findByCategoryAndSubcategories(Long categoryId, Pageable pageable) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new CategoryNotFoundException("Categoria não encontrada com id: " + categoryId));
-        return productRepository.findByCategoryAndSubcategories(category.getId(), pageable)
+        return listingCache.get(ShopListingCache.Listing.PRODUCTS_PAGE, categoryId, pageable, () -> {
+            Category category = categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new CategoryNotFoundException("Categoria não encontrada com id: " + categoryId));
+            return productRepository.findByCategoryAndSubcategories(category.getId(), pageable)
+                    .map(ProductConverter::convertToProductResponse);
+        });
+    }
+
+    // ============== FATIAS (próxima/anterior, sem COUNT) ==============
+
+    public Slice<ProductResponse> findAllSlice(Pageable pageable) {
+        return productRepository.findSliceBy(pageable)
                 .map(ProductConverter::convertToProductResponse);
     }
 
+    public Slice<ProductResponse> searchByNameSlice(String name, Pageable pageable) {
+        List<Long> ids = searchIndex.search(name, false);
+        boolean hasNext = pageable.getOffset() + pageable.getPageSize() < ids.size();
+        return new SliceImpl<>(loadPage(ids, pageable), pageable, hasNext);
+    }
+
+    public Slice<ProductResponse> findByCategoryAndSubcategoriesSlice(Long categoryId, Pageable pageable) {
+        return listingCache.get(ShopListingCache.Listing.PRODUCTS_SLICE, categoryId, pageable, () ->
+                productRepository.findSliceByCategoryAndSubcategories(categoryId, pageable)
+                        .map(ProductConverter::convertToProductResponse));
+    }
+
+    /**
+     * Paginação por chave (nome, id): after é o cursor devolvido pela página anterior, ou nulo para a primeira
+     */
+    public KeysetPage<ProductResponse> findAllAfter(String after, int size) {
+        Limit limit = Limit.of(size + 1);
+
+        List<Product> rows;
+        if (after == null || after.isBlank()) {
+            rows = productRepository.findByNameKeyset(limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = productRepository.findByNameKeysetAfter(cursor.sortKey(), cursor.id(), limit);
+        }
+
+        return KeysetPage.of(rows, size, ProductService::cursorOf, ProductConverter::convertToProductResponse);
+    }
+
+    /**
+     * Paginação por chave (nome, id) sobre a categoria e todos os seus descendentes.
+     * Sem OFFSET, mas em subárvores com várias categorias cada página ainda ordena os produtos restantes
+     * (ver ProductRepository.findByCategoryAndSubcategoriesKeysetAfter).
+     */
+    public KeysetPage<ProductResponse> findByCategoryAndSubcategoriesAfter(Long categoryId, String after, int size) {
+        Limit limit = Limit.of(size + 1);
+
+        List<Product> rows;
+        if (after == null || after.isBlank()) {
+            rows = productRepository.findByCategoryAndSubcategoriesKeyset(categoryId, limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            rows = productRepository.findByCategoryAndSubcategoriesKeysetAfter(categoryId, cursor.sortKey(), cursor.id(), limit);
+        }
+
+        return KeysetPage.of(rows, size, ProductService::cursorOf, ProductConverter::convertToProductResponse);
+    }
+
+    private static KeysetCursor cursorOf(Product product) {
+        return new KeysetCursor(product.getName(), product.getId());
+    }
+
+    // ============== BUSCA TEXTUAL (índice em memória, ordenada por relevância) ==============
+
     public Page<ProductResponse> searchByName(String name, Pageable pageable) {
-        return productRepository.findByNameContainingIgnoreCase(name, pageable)
-                .map(ProductConverter::convertToProductResponse);
+        List<Long> ids = searchIndex.search(name, false);
+        return new PageImpl<>(loadPage(ids, pageable), pageable, ids.size());
+    }
+
+    /**
+     * Busca da loja: apenas produtos habilitados
+     */
+    public Page<ProductResponse> searchEnabled(String query, Pageable pageable) {
+        List<Long> ids = searchIndex.search(query, true);
+        return new PageImpl<>(loadPage(ids, pageable), pageable, ids.size());
+    }
+
+    /**
+     * Carrega em uma consulta os produtos da página, preservando a ordem do ranking
+     */
+    private List<ProductResponse> loadPage(List<Long> rankedIds, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+        if (pageIds.isEmpty())
+            return List.of();
+
+        Map<Long, Product> byId = productRepository.findByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        return pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(ProductConverter::convertToProductResponse)
+                .toList();
     }
 
+    @Transactional
     public ProductResponse createProduct(ProductRequest request) {
         Category category = categoryRepository.findById(request.getCategoryId())
                 .orElseThrow(() -> new CategoryNotFoundException("Categoria não encontrada com id: " + request.getCategoryId()));
@@ -67,12 +226,16 @@ public class ProductService {
         product.setCategory(category);
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(),
+                treeIndexHolder.get().pathIdsOf(category.getId())));
         return ProductConverter.convertToProductResponse(savedProduct);
     }
 
+    @Transactional
     public ProductResponse updateProduct(Long id, ProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new CategoryNotFoundException("Produto não encontrado com id: " + id));
+        Long oldCategoryId = product.getCategory().getId();
 
         product.setName(request.getName());
         product.setDescription(request.getDescription());
@@ -91,12 +254,181 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id,
+                affectedCategoryIds(oldCategoryId, updatedProduct.getCategory().getId())));
         return ProductConverter.convertToProductResponse(updatedProduct);
     }
 
+    @Transactional
     public void deleteProduct(Long id) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new CategoryNotFoundException("Produto não encontrado com id: " + id));
         productRepository.deleteById(id);
+        fileStorageService.deleteFile(product.getImage());
+        eventPublisher.publishEvent(new ProductChangedEvent(id,
+                treeIndexHolder.get().pathIdsOf(product.getCategory().getId())));
+    }
+
+    /**
+     * Categorias cujas listagens de subárvore contêm o produto antes ou depois da alteração
+     */
+    private Set<Long> affectedCategoryIds(Long oldCategoryId, Long newCategoryId) {
+        CategoryTreeIndex index = treeIndexHolder.get();
+        Set<Long> affectedIds = index.pathIdsOf(oldCategoryId);
+        affectedIds.addAll(index.pathIdsOf(newCategoryId));
+        return affectedIds;
+    }
+
+    // ============== OPERAÇÕES EM MASSA ==============
+
+    /**
+     * Executa as operações na ordem recebida, como UPDATEs por conjunto ou lotes JDBC, em uma única transação.
+     * Qualquer operação inválida desfaz todas as anteriores. Ao fim publica um único ProductBulkChangedEvent
+     * com as categorias tocadas e os produtos cujo enabled mudou.
+     */
+    @Transactional
+    public ProductBulkResponse bulkUpdate(ProductBulkRequest request) {
+        if (request == null || request.getOperations() == null || request.getOperations().isEmpty())
+            throw new IllegalArgumentException("Nenhuma operação informada");
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductBulkResponse.Result> results = new ArrayList<>();
+        BulkChanges changes = new BulkChanges(treeIndexHolder.get());
+        int total = 0;
+
+        for (ProductBulkRequest.Operation operation : request.getOperations()) {
+            if (operation == null || operation.getType() == null)
+                throw new IllegalArgumentException("Tipo da operação é obrigatório");
+
+            int affected = switch (operation.getType()) {
+                case SET_ENABLED -> setEnabled(operation, now, changes);
+                case ADJUST_PRICE -> adjustPrice(operation, now, changes);
+                case SET_STOCK -> setStock(operation, now, changes);
+            };
+
+            results.add(ProductBulkResponse.Result.builder()
+                    .type(operation.getType().name())
+                    .affected(affected)
+                    .build());
+            total += affected;
+        }
+
+        log.info("Bulk product update: {} operations, {} rows affected", results.size(), total);
+        if (total > 0)
+            eventPublisher.publishEvent(new ProductBulkChangedEvent(changes.enabledChangedIds, changes.affectedCategoryIds));
+
+        return ProductBulkResponse.builder()
+                .results(results)
+                .totalAffected(total)
+                .build();
+    }
+
+    /**
+     * Só grava (e conta) os produtos cujo enabled é diferente do pedido
+     */
+    private int setEnabled(ProductBulkRequest.Operation operation, LocalDateTime now, BulkChanges changes) {
+        if (operation.getIds() == null || operation.getIds().isEmpty())
+            throw new IllegalArgumentException("SET_ENABLED exige a lista de ids");
+        if (operation.getEnabled() == null)
+            throw new IllegalArgumentException("SET_ENABLED exige o valor de enabled");
+
+        List<Long> changedIds = productRepository.findIdsWithEnabledOtherThan(operation.getIds(), operation.getEnabled());
+        if (changedIds.isEmpty())
+            return 0;
+
+        changes.enabledChangedIds.addAll(changedIds);
+        changes.addProducts(productRepository.findCategoryIdsByIds(changedIds));
+        return productRepository.updateEnabled(changedIds, operation.getEnabled(), now);
+    }
+
+    private int adjustPrice(ProductBulkRequest.Operation operation, LocalDateTime now, BulkChanges changes) {
+        if (operation.getCategoryId() == null)
+            throw new IllegalArgumentException("ADJUST_PRICE exige categoryId");
+        if (operation.getPercent() == null || operation.getPercent().compareTo(BigDecimal.valueOf(-100)) <= 0)
+            throw new IllegalArgumentException("ADJUST_PRICE exige percent maior que -100");
+        if (!categoryRepository.existsById(operation.getCategoryId()))
+            throw new CategoryNotFoundException("Categoria não encontrada com id: " + operation.getCategoryId());
+
+        BigDecimal factor = BigDecimal.ONE.add(operation.getPercent().divide(BigDecimal.valueOf(100), MathContext.DECIMAL64));
+        BigDecimal maxPrice = productRepository.findMaxPriceInSubtree(operation.getCategoryId());
+        if (maxPrice != null && maxPrice.multiply(factor).compareTo(MAX_PRICE) > 0)
+            throw new IllegalArgumentException("ADJUST_PRICE levaria o preço " + maxPrice + " acima do máximo de " + MAX_PRICE);
+
+        int affected = productRepository.multiplyPriceInSubtree(operation.getCategoryId(), factor, now);
+        if (affected > 0)
+            changes.addSubtree(operation.getCategoryId());
+        return affected;
+    }
+
+    /**
+     * Um lote JDBC com um UPDATE por item dos produtos que existem. A contagem vem desses ids, resolvidos antes:
+     * com o lote reescrito pelo driver (ex.: rewriteBatchedStatements) cada item volta como SUCCESS_NO_INFO
+     */
+    private int setStock(ProductBulkRequest.Operation operation, LocalDateTime now, BulkChanges changes) {
+        List<ProductBulkRequest.StockItem> items = operation.getStock();
+        if (items == null || items.isEmpty())
+            throw new IllegalArgumentException("SET_STOCK exige a lista stock");
+        for (ProductBulkRequest.StockItem item : items) {
+            if (item.getId() == null || item.getStockQuantity() == null || item.getStockQuantity() < 0)
+                throw new IllegalArgumentException("SET_STOCK exige id e stockQuantity não negativo em cada item");
+        }
+
+        Set<Long> existingIds = new HashSet<>(productRepository.findExistingIds(
+                items.stream().map(ProductBulkRequest.StockItem::getId).toList()));
+        List<ProductBulkRequest.StockItem> existing = items.stream().filter(item -> existingIds.contains(item.getId())).toList();
+        if (existing.isEmpty())
+            return 0;
+
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(
+                "UPDATE bluevelvet.product SET stock_quantity = ?, updated_at = ?, version = version + 1 WHERE id = ?",
+                existing, existing.size(), (statement, item) -> {
+                    statement.setInt(1, item.getStockQuantity());
+                    statement.setTimestamp(2, updatedAt);
+                    statement.setLong(3, item.getId());
+                });
+
+        // O lote JDBC não passa pelo Hibernate: remove esses produtos do cache de segundo nível agora e ao fim da transação
+        Cache cache = entityManagerFactory.getCache();
+        List<Long> ids = List.copyOf(existingIds);
+        ids.forEach(id -> cache.evict(Product.class, id));
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                ids.forEach(id -> cache.evict(Product.class, id));
+            }
+        });
+
+        changes.addProducts(productRepository.findCategoryIdsByIds(ids));
+        return existing.size();
+    }
+
+    /**
+     * O que as operações de um bulkUpdate alteraram, para um único evento preciso ao final
+     */
+    private static final class BulkChanges {
+
+        private final CategoryTreeIndex index;
+        private final Set<Long> enabledChangedIds = new HashSet<>();
+        private final Set<Long> affectedCategoryIds = new HashSet<>();
+
+        BulkChanges(CategoryTreeIndex index) {
+            this.index = index;
+        }
+
+        /**
+         * Produtos das categorias informadas: mudam as listagens delas e de seus ancestrais
+         */
+        void addProducts(Collection<Long> categoryIds) {
+            categoryIds.forEach(categoryId -> affectedCategoryIds.addAll(index.pathIdsOf(categoryId)));
+        }
+
+        /**
+         * Produtos de toda a subárvore: mudam também as listagens de cada descendente
+         */
+        void addSubtree(Long categoryId) {
+            affectedCategoryIds.addAll(index.pathIdsOf(categoryId));
+            index.subtreeOf(categoryId).forEach(node -> affectedCategoryIds.add(node.id()));
+        }
     }
 }
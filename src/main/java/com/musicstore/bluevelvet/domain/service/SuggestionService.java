@@ -0,0 +1,36 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.response.SuggestionResponse;
+import com.musicstore.bluevelvet.domain.search.SuggestionIndex;
+import com.musicstore.bluevelvet.domain.search.SuggestionIndexHolder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@Log4j2
+@RequiredArgsConstructor
+public class SuggestionService {
+
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private final SuggestionIndexHolder indexHolder;
+
+    /**
+     * Autocompletar por prefixo sobre nomes de categorias e produtos, sem acessar o banco
+     */
+    public List<SuggestionResponse> suggest(String query, SuggestionIndex.Type type, Integer limit) {
+        int size = limit == null ? DEFAULT_LIMIT : Math.clamp(limit, 1, MAX_LIMIT);
+
+        return indexHolder.get().suggest(query, type, size).stream()
+                .map(suggestion -> SuggestionResponse.builder()
+                        .type(suggestion.type().name())
+                        .id(suggestion.id())
+                        .name(suggestion.name())
+                        .build())
+                .toList();
+    }
+}
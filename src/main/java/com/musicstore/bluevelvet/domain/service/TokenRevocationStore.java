@@ -0,0 +1,105 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.event.UserChangedEvent;
+import com.musicstore.bluevelvet.infrastructure.entity.TokenRevocation;
+import com.musicstore.bluevelvet.infrastructure.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Revogação dos tokens da API entre instâncias: cada alteração de usuário grava uma linha em token_revocation
+ * e, a cada intervalo, as revogações ainda relevantes (das últimas token-ttl) são carregadas no TokenService.
+ * A validação do token continua sem banco; uma revogação feita em outra instância vale aqui em até um intervalo.
+ * Também é a carga inicial: uma instância que acabou de subir já recusa os tokens revogados antes dela.
+ */
+@Log4j2
+@Component
+public class TokenRevocationStore {
+
+    private final TokenRevocationRepository repository;
+    private final TokenService tokenService;
+    private final Duration timeToLive;
+    private final Duration interval;
+    private final Clock clock;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "token-revocation-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public TokenRevocationStore(TokenRevocationRepository repository, TokenService tokenService,
+                                @Value("${app.security.token-ttl:15m}") Duration timeToLive,
+                                @Value("${app.security.token-revocation-sync:10s}") Duration interval) {
+        this(repository, tokenService, timeToLive, interval, Clock.systemUTC());
+    }
+
+    TokenRevocationStore(TokenRevocationRepository repository, TokenService tokenService, Duration timeToLive,
+                         Duration interval, Clock clock) {
+        if (!interval.isPositive())
+            throw new IllegalArgumentException("app.security.token-revocation-sync deve ser positivo");
+        this.repository = repository;
+        this.tokenService = tokenService;
+        this.timeToLive = timeToLive;
+        this.interval = interval;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::run, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Grava a revogação para as outras instâncias (a desta já foi feita pelo próprio TokenService)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.userId() != null)
+            repository.save(new TokenRevocation(event.userId(), clock.instant().getEpochSecond()));
+    }
+
+    /**
+     * Carrega as revogações que ainda podem recusar algum token e apaga as demais; retorna quantas foram carregadas
+     */
+    public int synchronize() {
+        long cutoff = clock.instant().getEpochSecond() - timeToLive.toSeconds();
+        List<TokenRevocation> revocations = repository.findByRevokedBeforeGreaterThan(cutoff);
+        for (TokenRevocation revocation : revocations)
+            tokenService.revoke(revocation.getUserId(), revocation.getRevokedBefore());
+
+        // Tokens emitidos antes de uma revogação mais velha que o TTL já expiraram
+        repository.deleteExpired(cutoff);
+        return revocations.size();
+    }
+
+    private void run() {
+        try {
+            synchronize();
+        } catch (DataAccessException e) {
+            log.warn("Falha ao sincronizar revogações de tokens: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.musicstore.bluevelvet.domain.event.UserChangedEvent;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tokens de acesso da API REST: JWT HS256 assinados com app.security.token-secret, com e-mail, id, nome e papéis.
+ * A validação é só CPU (HMAC + JSON), sem banco e sem sessão. Tokens emitidos antes de uma alteração
+ * do usuário (senha, papel, remoção) são recusados até expirarem, pelo registro em memória de revokedBefore:
+ * na hora na instância que fez a alteração, nas demais quando TokenRevocationStore sincroniza com o banco.
+ * O segredo é obrigatório: todas as instâncias precisam da mesma chave para validar os tokens umas das outras.
+ */
+@Service
+@Log4j2
+public class TokenService {
+
+    public static final String TOKEN_TYPE = "Bearer";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MINIMUM_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /** Único cabeçalho aceito: impede a troca do algoritmo (alg=none, RS256...) por quem apresenta o token */
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    /**
+     * Conteúdo do token; iat e exp em segundos desde a época, como no JWT
+     */
+    record Claims(String sub, Long uid, String name, List<String> roles, long iat, long exp) {
+    }
+
+    public record IssuedToken(String value, Duration expiresIn) {
+    }
+
+    private final SecretKeySpec key;
+    private final Duration timeToLive;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    /** Id do usuário -> segundo da última alteração; as entradas só precisam viver enquanto um token antigo viveria */
+    private final Cache<Long, Long> revokedBefore;
+
+    @Autowired
+    public TokenService(@Value("${app.security.token-secret:}") String secret,
+                        @Value("${app.security.token-ttl:15m}") Duration timeToLive,
+                        ObjectMapper objectMapper) {
+        this(secret, timeToLive, objectMapper, Clock.systemUTC());
+    }
+
+    TokenService(String secret, Duration timeToLive, ObjectMapper objectMapper, Clock clock) {
+        this.key = new SecretKeySpec(secretBytes(secret), HMAC_ALGORITHM);
+        this.timeToLive = timeToLive;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.revokedBefore = Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive.isNegative() ? Duration.ZERO : timeToLive)
+                .build();
+    }
+
+    public IssuedToken issue(CustomUserDetails userDetails) {
+        long now = clock.instant().getEpochSecond();
+        User user = userDetails.user();
+        Claims claims = new Claims(user.getEmail(), user.getId(), user.getName(),
+                AuthorityUtils.authorityListToSet(userDetails.getAuthorities()).stream().sorted().toList(),
+                now, now + timeToLive.toSeconds());
+
+        try {
+            String payload = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+            return new IssuedToken(payload + "." + ENCODER.encodeToString(sign(payload)), timeToLive);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Autenticação representada pelo token, ou vazio se ele é malformado, adulterado, expirado ou revogado
+     */
+    public Optional<PreAuthenticatedAuthenticationToken> authenticate(String token) {
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 3 || !HEADER.equals(parts[0]))
+            return Optional.empty();
+
+        Claims claims;
+        try {
+            byte[] signature = DECODER.decode(parts[2]);
+            if (!MessageDigest.isEqual(signature, sign(parts[0] + "." + parts[1])))
+                return Optional.empty();
+            claims = objectMapper.readValue(DECODER.decode(parts[1]), Claims.class);
+        } catch (IllegalArgumentException | IOException e) {
+            log.debug("Token recusado: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        long now = clock.instant().getEpochSecond();
+        Long changedAt = claims.uid() == null ? null : revokedBefore.getIfPresent(claims.uid());
+        // iat tem resolução de segundos: tokens do mesmo segundo da alteração são aceitos (quem acabou de trocar a senha)
+        if (claims.exp() <= now || (changedAt != null && claims.iat() < changedAt) || claims.roles() == null)
+            return Optional.empty();
+
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList(claims.roles());
+        CustomUserDetails principal = new CustomUserDetails(User.builder()
+                .id(claims.uid())
+                .email(claims.sub())
+                .name(claims.name())
+                .role(roleOf(claims.roles()))
+                .build());
+        return Optional.of(new PreAuthenticatedAuthenticationToken(principal, null, authorities));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        revoke(event.userId(), clock.instant().getEpochSecond());
+    }
+
+    /**
+     * Recusa os tokens do usuário emitidos antes de epochSecond (revogações mais antigas não voltam a valer)
+     */
+    public void revoke(Long userId, long epochSecond) {
+        if (userId != null)
+            revokedBefore.asMap().merge(userId, epochSecond, Math::max);
+    }
+
+    private byte[] sign(String content) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(content.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static User.Role roleOf(List<String> roles) {
+        for (String role : roles) {
+            try {
+                return User.Role.valueOf(role.replaceFirst("^ROLE_", ""));
+            } catch (IllegalArgumentException e) {
+                // Papel desconhecido por esta versão: ignora
+            }
+        }
+        return null;
+    }
+
+    private static byte[] secretBytes(String secret) {
+        if (secret == null || secret.isBlank())
+            throw new IllegalArgumentException("app.security.token-secret (TOKEN_SECRET) é obrigatório, com ao menos "
+                    + MINIMUM_SECRET_BYTES + " bytes e o mesmo valor em todas as instâncias");
+
+        byte[] bytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length < MINIMUM_SECRET_BYTES)
+            throw new IllegalArgumentException("app.security.token-secret deve ter ao menos " + MINIMUM_SECRET_BYTES + " bytes");
+        return bytes;
+    }
+}
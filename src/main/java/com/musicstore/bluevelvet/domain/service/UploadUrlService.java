@@ -0,0 +1,92 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.event.FileDeletedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * URLs públicas dos uploads com impressão digital do conteúdo, usadas pelos templates (@uploadUrlService.url(...)).
+ * Arquivos endereçados por conteúdo (SHA-256 no nome, e suas variantes) já são a própria impressão digital;
+ * os nomes antigos (UUID) recebem ?v= com tamanho e data do arquivo.
+ * Só URLs com impressão digital podem ser servidas como imutáveis.
+ */
+@Service
+@Log4j2
+public class UploadUrlService {
+
+    public static final String PATH_PREFIX = "/uploads/";
+    public static final String VERSION_PARAMETER = "v";
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(-\\d+w)?(\\.[a-z0-9]{1,10})*");
+
+    private final Path uploadPath;
+
+    /** Versões dos arquivos de nome antigo; uploads nunca são sobrescritos, então não expiram */
+    private final Map<String, String> versions = new ConcurrentHashMap<>();
+
+    public UploadUrlService(@Value("${app.upload.dir}") String uploadDir) {
+        this.uploadPath = Paths.get(uploadDir);
+    }
+
+    public static boolean isContentAddressed(String filename) {
+        return filename != null && CONTENT_ADDRESSED.matcher(filename).matches();
+    }
+
+    /**
+     * URL pública do arquivo, com impressão digital; null se não houver arquivo
+     */
+    public String url(String filename) {
+        if (filename == null || filename.isBlank())
+            return null;
+        if (isContentAddressed(filename))
+            return PATH_PREFIX + filename;
+
+        String version = version(filename);
+        return version == null ? PATH_PREFIX + filename : PATH_PREFIX + filename + "?" + VERSION_PARAMETER + "=" + version;
+    }
+
+    /**
+     * A URL pedida identifica um conteúdo que nunca muda (pode ir para cache por tempo indeterminado)
+     */
+    public boolean isImmutable(String filename, String requestedVersion) {
+        if (isContentAddressed(filename))
+            return true;
+        return requestedVersion != null && requestedVersion.equals(version(filename));
+    }
+
+    @EventListener
+    public void onFileDeleted(FileDeletedEvent event) {
+        versions.remove(event.filename());
+    }
+
+    private String version(String filename) {
+        String cached = versions.get(filename);
+        if (cached != null)
+            return cached;
+
+        Path file = uploadPath.resolve(filename).normalize();
+        if (!file.startsWith(uploadPath.normalize()))
+            return null;
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            String version = Long.toHexString(attributes.size()) + Long.toHexString(attributes.lastModifiedTime().toMillis());
+            versions.put(filename, version);
+            return version;
+        } catch (IOException e) {
+            log.debug("Upload {} não encontrado para versionar", filename);
+            return null;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.musicstore.bluevelvet.domain.service;
 
+import com.musicstore.bluevelvet.domain.event.UserChangedEvent;
 import com.musicstore.bluevelvet.infrastructure.entity.User;
 import com.musicstore.bluevelvet.infrastructure.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -13,10 +15,13 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -25,7 +30,9 @@ public class UserService {
     public User save(User user) {
         // Criptografa a senha antes de salvar
         user.setPassword(passwordEncoder.encode(user.getPassword()));
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), saved.getEmail()));
+        return saved;
     }
 
     /**
@@ -46,7 +53,9 @@ public class UserService {
      * Atualiza um usuário existente
      */
     public User update(User user) {
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(saved.getId(), saved.getEmail()));
+        return saved;
     }
 
     /**
@@ -54,6 +63,7 @@ public class UserService {
      */
     public void delete(Long id) {
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id, null));
     }
 
     /**
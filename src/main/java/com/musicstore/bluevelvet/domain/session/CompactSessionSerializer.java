@@ -0,0 +1,87 @@
+package com.musicstore.bluevelvet.domain.session;
+
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Serialização dos atributos de sessão gravados no banco: serialização Java com um byte de formato na frente,
+ * comprimida com Deflate a partir de COMPRESSION_THRESHOLD bytes. O SecurityContext (nomes de classe repetidos
+ * do token, do principal e da entidade User) é o atributo típico e cai para menos da metade.
+ */
+public class CompactSessionSerializer implements Serializer<Object>, Deserializer<Object> {
+
+    static final int COMPRESSION_THRESHOLD = 256;
+    static final byte RAW = 0;
+    static final byte DEFLATED = 1;
+
+    private final ClassLoader classLoader;
+
+    public CompactSessionSerializer(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * ConversionService no formato que o JdbcIndexedSessionRepository usa para gravar e ler os atributos
+     */
+    public static ConversionService conversionService(ClassLoader classLoader) {
+        CompactSessionSerializer serializer = new CompactSessionSerializer(classLoader);
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, new SerializingConverter(serializer));
+        conversionService.addConverter(byte[].class, Object.class, new DeserializingConverter(serializer));
+        return conversionService;
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream outputStream) throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream(COMPRESSION_THRESHOLD);
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(object);
+        }
+
+        if (serialized.size() < COMPRESSION_THRESHOLD) {
+            outputStream.write(RAW);
+            serialized.writeTo(outputStream);
+            return;
+        }
+
+        outputStream.write(DEFLATED);
+        Deflater deflater = new Deflater();
+        try {
+            DeflaterOutputStream out = new DeflaterOutputStream(outputStream, deflater);
+            serialized.writeTo(out);
+            out.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) throws IOException {
+        int format = inputStream.read();
+        InputStream body = switch (format) {
+            case RAW -> inputStream;
+            case DEFLATED -> new InflaterInputStream(inputStream);
+            default -> throw new IOException("Formato de atributo de sessão desconhecido: " + format);
+        };
+
+        try (ConfigurableObjectInputStream in = new ConfigurableObjectInputStream(body, classLoader)) {
+            return in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Classe do atributo de sessão não encontrada", e);
+        }
+    }
+}
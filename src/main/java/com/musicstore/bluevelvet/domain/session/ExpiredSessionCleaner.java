@@ -0,0 +1,105 @@
+package com.musicstore.bluevelvet.domain.session;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remove as sessões expiradas da tabela do Spring Session em lotes de batchSize linhas, cada lote na sua
+ * própria instrução, até não sobrar nenhuma; os atributos saem junto pelo ON DELETE CASCADE.
+ * Substitui a limpeza padrão (um único DELETE com todas as expiradas, desligada com
+ * spring.session.jdbc.cleanup-cron: "-"), que segura bloqueios por muito tempo quando o acúmulo é grande.
+ * Várias instâncias podem limpar ao mesmo tempo: cada DELETE só apaga o que ainda está expirado.
+ */
+@Log4j2
+@Component
+public class ExpiredSessionCleaner {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Duration interval;
+    private final Clock clock;
+    private final String selectExpiredQuery;
+    private final String deleteQuery;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-cleanup");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public ExpiredSessionCleaner(JdbcTemplate jdbcTemplate,
+                                 @Value("${spring.session.jdbc.table-name:SPRING_SESSION}") String tableName,
+                                 @Value("${app.session.cleanup-batch-size:500}") int batchSize,
+                                 @Value("${app.session.cleanup-interval:1m}") Duration interval) {
+        this(jdbcTemplate, tableName, batchSize, interval, Clock.systemUTC());
+    }
+
+    ExpiredSessionCleaner(JdbcTemplate jdbcTemplate, String tableName, int batchSize, Duration interval, Clock clock) {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("app.session.cleanup-batch-size deve ser positivo");
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.interval = interval;
+        this.clock = clock;
+        this.selectExpiredQuery = "SELECT PRIMARY_ID FROM " + tableName + " WHERE EXPIRY_TIME < ? ORDER BY EXPIRY_TIME LIMIT ?";
+        this.deleteQuery = "DELETE FROM " + tableName + " WHERE EXPIRY_TIME < ? AND PRIMARY_ID IN (%s)";
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::run, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Apaga as sessões expiradas até agora, lote a lote, e retorna quantas foram removidas
+     */
+    public int cleanUp() {
+        long now = clock.millis();
+        int total = 0;
+        List<String> expired;
+        do {
+            // Ids primeiro e DELETE pela chave: portável entre MySQL e H2 e sem varrer a tabela inteira
+            expired = jdbcTemplate.queryForList(selectExpiredQuery, String.class, now, batchSize);
+            if (expired.isEmpty())
+                break;
+
+            List<Object> arguments = new ArrayList<>(expired.size() + 1);
+            arguments.add(now);
+            arguments.addAll(expired);
+            total += jdbcTemplate.update(deleteQuery.formatted(String.join(", ", Collections.nCopies(expired.size(), "?"))),
+                    arguments.toArray());
+        } while (expired.size() == batchSize);
+        return total;
+    }
+
+    private void run() {
+        try {
+            int deleted = cleanUp();
+            if (deleted > 0)
+                log.debug("{} sessão(ões) expirada(s) removida(s)", deleted);
+        } catch (DataAccessException e) {
+            log.warn("Falha ao remover sessões expiradas: {}", e.getMessage());
+        }
+    }
+}
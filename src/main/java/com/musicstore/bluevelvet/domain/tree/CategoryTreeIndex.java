@@ -0,0 +1,175 @@
+package com.musicstore.bluevelvet.domain.tree;
+
+import com.musicstore.bluevelvet.infrastructure.projection.CategoryNodeView;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Snapshot imutável da árvore de categorias.
+ * Responde buscas por id, raízes, filhos, ancestrais e subárvore sem acessar o banco.
+ */
+public final class CategoryTreeIndex {
+
+    private static final CategoryTreeIndex EMPTY = new CategoryTreeIndex(Map.of(), Map.of(), List.of());
+
+    private final Map<Long, Node> nodesById;
+    private final Map<Long, List<Node>> childrenById;
+    private final List<Node> roots;
+
+    private CategoryTreeIndex(Map<Long, Node> nodesById, Map<Long, List<Node>> childrenById, List<Node> roots) {
+        this.nodesById = nodesById;
+        this.childrenById = childrenById;
+        this.roots = roots;
+    }
+
+    public static CategoryTreeIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Monta o índice a partir da lista plana de categorias (na ordem em que devem aparecer como filhos)
+     */
+    public static CategoryTreeIndex of(Collection<? extends CategoryNodeView> views) {
+        Map<Long, Node> nodesById = new LinkedHashMap<>();
+        for (CategoryNodeView view : views) {
+            nodesById.put(view.getId(), new Node(
+                    view.getId(),
+                    view.getName(),
+                    view.getImage(),
+                    view.getParentId(),
+                    view.getIsRoot(),
+                    view.getEnabled(),
+                    view.getVersion(),
+                    view.getUpdatedAt()
+            ));
+        }
+
+        Map<Long, List<Node>> children = new HashMap<>();
+        List<Node> roots = new ArrayList<>();
+        for (Node node : nodesById.values()) {
+            if (node.parentId() != null && nodesById.containsKey(node.parentId()))
+                children.computeIfAbsent(node.parentId(), k -> new ArrayList<>()).add(node);
+
+            if (Boolean.TRUE.equals(node.isRoot()))
+                roots.add(node);
+        }
+
+        Map<Long, List<Node>> frozenChildren = new HashMap<>();
+        children.forEach((id, list) -> frozenChildren.put(id, List.copyOf(list)));
+
+        return new CategoryTreeIndex(
+                Collections.unmodifiableMap(nodesById),
+                Collections.unmodifiableMap(frozenChildren),
+                List.copyOf(roots)
+        );
+    }
+
+    public Optional<Node> findById(Long id) {
+        return Optional.ofNullable(nodesById.get(id));
+    }
+
+    public boolean contains(Long id) {
+        return nodesById.containsKey(id);
+    }
+
+    public Collection<Node> findAll() {
+        return nodesById.values();
+    }
+
+    /**
+     * Categorias marcadas como raiz (is_root = true)
+     */
+    public List<Node> findAllRoots() {
+        return roots;
+    }
+
+    public List<Node> childrenOf(Long id) {
+        return childrenById.getOrDefault(id, List.of());
+    }
+
+    /**
+     * Ancestrais da categoria, da raiz até o pai imediato (a própria categoria não é incluída)
+     */
+    public List<Node> ancestorsOf(Long id) {
+        Node node = nodesById.get(id);
+        if (node == null)
+            return List.of();
+
+        Deque<Node> path = new ArrayDeque<>();
+        Node current = nodesById.get(node.parentId());
+        while (current != null && path.size() < nodesById.size()) {
+            path.addFirst(current);
+            current = nodesById.get(current.parentId());
+        }
+        return List.copyOf(path);
+    }
+
+    /**
+     * Ids da categoria e de todos os seus ancestrais: as categorias cuja subárvore contém os produtos dela
+     */
+    public Set<Long> pathIdsOf(Long id) {
+        Set<Long> ids = new HashSet<>();
+        if (id == null || !nodesById.containsKey(id))
+            return ids;
+
+        ids.add(id);
+        ancestorsOf(id).forEach(ancestor -> ids.add(ancestor.id()));
+        return ids;
+    }
+
+    /**
+     * A categoria e todos os seus descendentes, em pré-ordem
+     */
+    public List<Node> subtreeOf(Long id) {
+        return subtreeOf(id, null);
+    }
+
+    /**
+     * A categoria e seus descendentes até depth níveis abaixo dela, em pré-ordem (null = todos)
+     */
+    public List<Node> subtreeOf(Long id, Integer depth) {
+        Node node = nodesById.get(id);
+        if (node == null)
+            return List.of();
+
+        List<Node> subtree = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Integer> levels = new ArrayDeque<>();
+        stack.push(node);
+        levels.push(0);
+        while (!stack.isEmpty() && subtree.size() < nodesById.size()) {
+            Node current = stack.pop();
+            int level = levels.pop();
+            subtree.add(current);
+            if (depth != null && level >= depth)
+                continue;
+
+            List<Node> children = childrenOf(current.id());
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+                levels.push(level + 1);
+            }
+        }
+        return subtree;
+    }
+
+    public int size() {
+        return nodesById.size();
+    }
+
+    public record Node(Long id, String name, String image, Long parentId, Boolean isRoot, Boolean enabled,
+                       Long version, LocalDateTime updatedAt) {
+    }
+}
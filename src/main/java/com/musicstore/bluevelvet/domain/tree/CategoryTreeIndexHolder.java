@@ -0,0 +1,53 @@
+package com.musicstore.bluevelvet.domain.tree;
+
+import com.musicstore.bluevelvet.domain.event.CategoryChangedEvent;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantém o CategoryTreeIndex atual do nó.
+ * O índice é montado na primeira leitura e trocado atomicamente após cada escrita confirmada.
+ */
+@Component @Log4j2 @RequiredArgsConstructor
+public class CategoryTreeIndexHolder {
+
+    private final CategoryRepository repository;
+
+    private final AtomicReference<CategoryTreeIndex> current = new AtomicReference<>();
+
+    public CategoryTreeIndex get() {
+        CategoryTreeIndex index = current.get();
+        return index != null ? index : initialize();
+    }
+
+    /**
+     * Recarrega a árvore inteira com uma única consulta e publica o novo snapshot
+     */
+    public synchronized CategoryTreeIndex rebuild() {
+        CategoryTreeIndex index = CategoryTreeIndex.of(repository.findAllNodes());
+        current.set(index);
+        log.debug("Category tree index rebuilt with {} categories", index.size());
+        return index;
+    }
+
+    /**
+     * Roda antes dos demais ouvintes, que podem recarregar caches a partir do índice novo
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        rebuild();
+    }
+
+    private synchronized CategoryTreeIndex initialize() {
+        CategoryTreeIndex index = current.get();
+        return index != null ? index : rebuild();
+    }
+}
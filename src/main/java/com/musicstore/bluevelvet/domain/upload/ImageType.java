@@ -0,0 +1,69 @@
+package com.musicstore.bluevelvet.domain.upload;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Tipos de imagem aceitos nos uploads, reconhecidos pelos primeiros bytes do conteúdo
+ * (a extensão e o Content-Type enviados pelo navegador não são confiáveis)
+ */
+public enum ImageType {
+    PNG(".png", "image/png"),
+    JPEG(".jpg", "image/jpeg"),
+    GIF(".gif", "image/gif"),
+    WEBP(".webp", "image/webp"),
+    /** Pode conter scripts: servido com CSP sandbox e como anexo (ver UploadCacheFilter) */
+    SVG(".svg", "image/svg+xml");
+
+    /** Quantos bytes do início do arquivo bastam para reconhecer o tipo */
+    public static final int HEADER_SIZE = 512;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+
+    private final String extension;
+    private final String contentType;
+
+    ImageType(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static Optional<ImageType> detect(byte[] header) {
+        if (startsWith(header, PNG_SIGNATURE))
+            return Optional.of(PNG);
+        if (startsWith(header, JPEG_SIGNATURE))
+            return Optional.of(JPEG);
+        if (startsWith(header, ascii("GIF87a")) || startsWith(header, ascii("GIF89a")))
+            return Optional.of(GIF);
+        if (header.length >= 12 && startsWith(header, ascii("RIFF"))
+                && Arrays.equals(header, 8, 12, ascii("WEBP"), 0, 4))
+            return Optional.of(WEBP);
+        if (isSvg(header))
+            return Optional.of(SVG);
+        return Optional.empty();
+    }
+
+    private static boolean isSvg(byte[] header) {
+        String text = new String(header, StandardCharsets.UTF_8).replace("\uFEFF", "").stripLeading();
+        return (text.startsWith("<svg") || text.startsWith("<?xml") || text.startsWith("<!--"))
+                && text.contains("<svg");
+    }
+
+    private static boolean startsWith(byte[] header, byte[] signature) {
+        return header.length >= signature.length && Arrays.equals(header, 0, signature.length, signature, 0, signature.length);
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
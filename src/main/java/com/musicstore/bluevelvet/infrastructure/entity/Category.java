@@ -2,13 +2,19 @@ package com.musicstore.bluevelvet.infrastructure.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity @Getter @Setter @Builder
 @NoArgsConstructor @AllArgsConstructor
-@Table(schema= "bluevelvet", name = "category")
+@Cacheable @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category")
+@Table(schema= "bluevelvet", name = "category", indexes = {
+        @Index(name = "idx_category_image", columnList = "image")
+})
 public class Category implements Serializable {
 
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -23,10 +29,27 @@ public class Category implements Serializable {
     private Category parent;
 
     @OneToMany(mappedBy = "parent")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.children")
     private List<Category> children;
 
     @Column(name="is_root")
     private Boolean isRoot;
 
     private Boolean enabled;
+
+    /**
+     * Versão para controle otimista e ETags; linhas antigas recebem 0 ao adicionar a coluna
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onWrite() {
+        updatedAt = LocalDateTime.now();
+    }
 }
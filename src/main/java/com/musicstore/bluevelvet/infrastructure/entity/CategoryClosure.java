@@ -0,0 +1,44 @@
+package com.musicstore.bluevelvet.infrastructure.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Tabela de fechamento da árvore de categorias: uma linha para cada par (ancestral, descendente),
+ * incluindo a própria categoria com profundidade 0.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(CategoryClosure.Key.class)
+@Table(schema = "bluevelvet", name = "category_closure", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, depth")
+})
+public class CategoryClosure implements Serializable {
+
+    @Id
+    @Column(name = "ancestor_id")
+    private Long ancestorId;
+
+    @Id
+    @Column(name = "descendant_id")
+    private Long descendantId;
+
+    @Column(nullable = false)
+    private Integer depth;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long ancestorId;
+        private Long descendantId;
+    }
+}
@@ -2,6 +2,8 @@ package com.musicstore.bluevelvet.infrastructure.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -13,7 +15,13 @@ import java.time.LocalDateTime;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(schema = "bluevelvet", name = "product")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
+@Table(schema = "bluevelvet", name = "product", indexes = {
+        @Index(name = "idx_product_category_name_id", columnList = "category_id, name, id"),
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_image", columnList = "image")
+})
 public class Product implements Serializable {
 
     @Id
@@ -41,6 +49,13 @@ public class Product implements Serializable {
     @Column(nullable = false)
     private Boolean enabled;
 
+    /**
+     * Versão para controle otimista e ETags; linhas antigas recebem 0 ao adicionar a coluna
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,29 @@
+package com.musicstore.bluevelvet.infrastructure.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Revogação dos tokens da API compartilhada entre as instâncias: tokens do usuário emitidos antes de
+ * revokedBefore (segundos desde a época) são recusados. A linha só importa enquanto um token antigo viveria.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(schema = "bluevelvet", name = "token_revocation", indexes = {
+        @Index(name = "idx_token_revocation_revoked_before", columnList = "revoked_before")
+})
+public class TokenRevocation implements Serializable {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revoked_before", nullable = false)
+    private Long revokedBefore;
+}
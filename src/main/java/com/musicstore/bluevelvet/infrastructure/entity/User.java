@@ -32,6 +32,20 @@ public class User implements Serializable {
     private Role role;
 
     public enum Role {
-        ADMINISTRATOR, SALES_MANAGER, EDITOR, ASSISTANT, SHIPPING_MANAGER
+        ADMINISTRATOR, SALES_MANAGER, EDITOR, ASSISTANT, SHIPPING_MANAGER;
+
+        /**
+         * Bit do papel nas máscaras de autorização (@RequiresRole, CustomUserDetails.roleMask)
+         */
+        public int mask() {
+            return 1 << ordinal();
+        }
+
+        public static int maskOf(Iterable<Role> roles) {
+            int mask = 0;
+            for (Role role : roles)
+                mask |= role.mask();
+            return mask;
+        }
     }
 }
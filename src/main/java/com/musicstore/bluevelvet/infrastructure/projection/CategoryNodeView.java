@@ -0,0 +1,17 @@
+package com.musicstore.bluevelvet.infrastructure.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção plana de uma categoria (sem filhos), usada para montar a árvore em memória
+ */
+public interface CategoryNodeView {
+    Long getId();
+    String getName();
+    String getImage();
+    Long getParentId();
+    Boolean getIsRoot();
+    Boolean getEnabled();
+    Long getVersion();
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,16 @@
+package com.musicstore.bluevelvet.infrastructure.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha da exportação CSV de produtos, já com a categoria
+ */
+public interface ProductExportView {
+    Long getId();
+    String getName();
+    BigDecimal getPrice();
+    Integer getStockQuantity();
+    Boolean getEnabled();
+    Long getCategoryId();
+    String getCategoryName();
+}
@@ -0,0 +1,11 @@
+package com.musicstore.bluevelvet.infrastructure.projection;
+
+/**
+ * Campos de um produto usados pelo índice de busca textual
+ */
+public interface ProductSearchView {
+    Long getId();
+    String getName();
+    String getDescription();
+    Boolean getEnabled();
+}
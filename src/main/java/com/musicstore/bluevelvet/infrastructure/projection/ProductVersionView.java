@@ -0,0 +1,12 @@
+package com.musicstore.bluevelvet.infrastructure.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Apenas o necessário para validar um GET condicional de produto
+ */
+public interface ProductVersionView {
+    Long getVersion();
+    LocalDateTime getUpdatedAt();
+    Long getCategoryId();
+}
@@ -0,0 +1,47 @@
+package com.musicstore.bluevelvet.infrastructure.repository;
+
+import com.musicstore.bluevelvet.infrastructure.entity.CategoryClosure;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CategoryClosureRepository extends JpaRepository<CategoryClosure, CategoryClosure.Key> {
+
+    boolean existsByAncestorIdAndDescendantId(Long ancestorId, Long descendantId);
+
+    @Query("SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :id")
+    List<Long> findDescendantIds(@Param("id") Long id);
+
+    @Query("SELECT cc.ancestorId FROM CategoryClosure cc WHERE cc.descendantId = :id AND cc.depth > 0")
+    List<Long> findAncestorIds(@Param("id") Long id);
+
+    @Modifying
+    @Query("INSERT INTO CategoryClosure (ancestorId, descendantId, depth) VALUES (:id, :id, 0)")
+    void insertSelf(@Param("id") Long id);
+
+    /**
+     * Liga uma subárvore (com raiz em id) a todos os ancestrais de parentId, inclusive o próprio parentId
+     */
+    @Modifying
+    @Query("""
+        INSERT INTO CategoryClosure (ancestorId, descendantId, depth)
+        SELECT sup.ancestorId, sub.descendantId, sup.depth + sub.depth + 1
+        FROM CategoryClosure sup, CategoryClosure sub
+        WHERE sup.descendantId = :parentId AND sub.ancestorId = :id
+    """)
+    void attachSubtree(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query("DELETE FROM CategoryClosure cc WHERE cc.descendantId IN :descendantIds AND cc.ancestorId IN :ancestorIds")
+    void detach(@Param("descendantIds") Collection<Long> descendantIds, @Param("ancestorIds") Collection<Long> ancestorIds);
+
+    @Modifying
+    @Query("DELETE FROM CategoryClosure cc WHERE cc.descendantId = :id")
+    void deleteByDescendantId(@Param("id") Long id);
+}
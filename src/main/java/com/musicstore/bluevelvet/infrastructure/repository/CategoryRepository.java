@@ -1,23 +1,75 @@
 package com.musicstore.bluevelvet.infrastructure.repository;
 
 import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import com.musicstore.bluevelvet.infrastructure.projection.CategoryNodeView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @EnableJpaRepositories @Repository
 public interface CategoryRepository extends JpaRepository<Category,Long> {
+    /**
+     * Resultado guardado na região de consultas category.roots, invalidada a cada escrita em category
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "category.roots")
+    })
     List<Category> findByIsRootIsTrue();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "category.roots")
+    })
     Page<Category> findByIsRootIsTrue(Pageable pageable);
+
+    /**
+     * Ids das categorias raiz, sem consulta de contagem
+     */
+    @Query("SELECT c.id FROM Category c WHERE c.isRoot = true")
+    Slice<Long> findRootIdsSlice(Pageable pageable);
     List<Category> findByParent(Category category, Sort sort);
 
+    /**
+     * Filhos de vários pais em uma única consulta (IN), na ordenação pedida
+     */
+    List<Category> findByParentIdIn(Collection<Long> parentIds, Sort sort);
+
     /**
      * Busca categorias por nome contendo (LIKE)
      */
     Page<Category> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    /**
+     * Página de ids apenas, sem carregar entidades nem os pais associados
+     */
+    @Query("SELECT c.id FROM Category c")
+    Page<Long> findAllIds(Pageable pageable);
+
+    /**
+     * Carrega todas as categorias como projeções planas em uma única consulta
+     */
+    @Query("""
+        SELECT c.id AS id, c.name AS name, c.image AS image, p.id AS parentId,
+               c.isRoot AS isRoot, c.enabled AS enabled, c.version AS version, c.updatedAt AS updatedAt
+        FROM Category c LEFT JOIN c.parent p
+        ORDER BY c.id
+    """)
+    List<CategoryNodeView> findAllNodes();
+
+    /**
+     * Quantas categorias usam o arquivo de imagem (contagem de referências do armazenamento de uploads)
+     */
+    long countByImage(String image);
 }
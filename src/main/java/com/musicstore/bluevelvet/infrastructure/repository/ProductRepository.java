@@ -2,13 +2,30 @@ package com.musicstore.bluevelvet.infrastructure.repository;
 
 import com.musicstore.bluevelvet.infrastructure.entity.Category;
 import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.projection.ProductExportView;
+import com.musicstore.bluevelvet.infrastructure.projection.ProductSearchView;
+import com.musicstore.bluevelvet.infrastructure.projection.ProductVersionView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByCategory(Category category, Pageable pageable);
@@ -19,12 +36,145 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Page<Product> findByEnabled(Boolean enabled, Pageable pageable);
 
+    /**
+     * Produtos da categoria e de todos os seus descendentes, em qualquer profundidade,
+     * via junção com a tabela de fechamento
+     */
     @Query(value = """
-        SELECT * FROM product p 
-        WHERE p.category_id IN (
-            SELECT c.id FROM category c
-            WHERE c.id = :id OR c.parent_id = :id
-        )
-    """, nativeQuery = true)
+        SELECT p FROM Product p, CategoryClosure cc
+        WHERE cc.descendantId = p.category.id AND cc.ancestorId = :id
+    """, countQuery = """
+        SELECT COUNT(p) FROM Product p, CategoryClosure cc
+        WHERE cc.descendantId = p.category.id AND cc.ancestorId = :id
+    """)
     Page<Product> findByCategoryAndSubcategories(@Param("id") Long id, Pageable pageable);
+
+    // ============== FATIAS SEM COUNT (size + 1 linhas) ==============
+
+    Slice<Product> findSliceBy(Pageable pageable);
+
+    @Query("""
+        SELECT p FROM Product p, CategoryClosure cc
+        WHERE cc.descendantId = p.category.id AND cc.ancestorId = :id
+    """)
+    Slice<Product> findSliceByCategoryAndSubcategories(@Param("id") Long id, Pageable pageable);
+
+    // ============== PAGINAÇÃO POR CHAVE (name, id) ==============
+
+    @Query("SELECT p FROM Product p ORDER BY p.name, p.id")
+    List<Product> findByNameKeyset(Limit limit);
+
+    /**
+     * Próximas linhas depois de (name, id), usando o índice (name, id) em vez de OFFSET
+     */
+    @Query("""
+        SELECT p FROM Product p
+        WHERE p.name > :name OR (p.name = :name AND p.id > :lastId)
+        ORDER BY p.name, p.id
+    """)
+    List<Product> findByNameKeysetAfter(@Param("name") String name, @Param("lastId") Long lastId, Limit limit);
+
+    @Query("""
+        SELECT p FROM Product p, CategoryClosure cc
+        WHERE cc.descendantId = p.category.id AND cc.ancestorId = :id
+        ORDER BY p.name, p.id
+    """)
+    List<Product> findByCategoryAndSubcategoriesKeyset(@Param("id") Long id, Limit limit);
+
+    /**
+     * Próximas linhas da subárvore depois de (name, id).
+     * O índice (category_id, name, id) só dá a busca direta pela chave quando a subárvore é uma única categoria;
+     * com várias, o banco lê o trecho depois do cursor de cada categoria e ordena a união antes do LIMIT,
+     * então o custo cresce com o número de produtos da subárvore que ainda vêm depois do cursor.
+     */
+    @Query("""
+        SELECT p FROM Product p, CategoryClosure cc
+        WHERE cc.descendantId = p.category.id AND cc.ancestorId = :id
+          AND (p.name > :name OR (p.name = :name AND p.id > :lastId))
+        ORDER BY p.name, p.id
+    """)
+    List<Product> findByCategoryAndSubcategoriesKeysetAfter(@Param("id") Long id,
+                                                            @Param("name") String name,
+                                                            @Param("lastId") Long lastId,
+                                                            Limit limit);
+
+    // ============== ÍNDICE DE BUSCA TEXTUAL ==============
+
+    /**
+     * Varredura em streaming dos campos indexados (deve ser consumida dentro de uma transação)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.enabled AS enabled FROM Product p")
+    Stream<ProductSearchView> streamSearchViews();
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.enabled AS enabled FROM Product p WHERE p.id = :id")
+    Optional<ProductSearchView> findSearchViewById(@Param("id") Long id);
+
+    @Query("SELECT p.id AS id, p.name AS name, p.description AS description, p.enabled AS enabled FROM Product p WHERE p.id IN :ids")
+    List<ProductSearchView> findSearchViewsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Carrega os produtos de uma página de resultados da busca junto com a categoria
+     */
+    @EntityGraph(attributePaths = "category")
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    // ============== EXPORTAÇÃO ==============
+
+    /**
+     * Varredura em streaming de todos os produtos com a categoria (deve ser consumida dentro de uma transação)
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("""
+        SELECT p.id AS id, p.name AS name, p.price AS price, p.stockQuantity AS stockQuantity,
+               p.enabled AS enabled, c.id AS categoryId, c.name AS categoryName
+        FROM Product p JOIN p.category c
+        ORDER BY p.id
+    """)
+    Stream<ProductExportView> streamExportViews();
+
+    /**
+     * Versão e data de alteração por chave primária, sem carregar a entidade
+     */
+    @Query("SELECT p.version AS version, p.updatedAt AS updatedAt, p.category.id AS categoryId FROM Product p WHERE p.id = :id")
+    Optional<ProductVersionView> findVersionById(@Param("id") Long id);
+
+    // ============== ATUALIZAÇÕES EM MASSA (incrementam a versão de cada linha) ==============
+
+    /**
+     * Quais dos produtos informados ainda não têm o valor de enabled pedido
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids AND (p.enabled IS NULL OR p.enabled <> :enabled)")
+    List<Long> findIdsWithEnabledOtherThan(@Param("ids") Collection<Long> ids, @Param("enabled") Boolean enabled);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT p.category.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findCategoryIdsByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.enabled = :enabled, p.updatedAt = :now, p.version = p.version + 1 WHERE p.id IN :ids")
+    int updateEnabled(@Param("ids") Collection<Long> ids, @Param("enabled") Boolean enabled, @Param("now") LocalDateTime now);
+
+    @Query("""
+        SELECT MAX(p.price) FROM Product p
+        WHERE p.category.id IN (SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)
+    """)
+    BigDecimal findMaxPriceInSubtree(@Param("categoryId") Long categoryId);
+
+    /**
+     * Multiplica o preço de todos os produtos da categoria e de seus descendentes, arredondando para centavos
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Product p SET p.price = ROUND(p.price * :factor, 2), p.updatedAt = :now, p.version = p.version + 1
+        WHERE p.category.id IN (SELECT cc.descendantId FROM CategoryClosure cc WHERE cc.ancestorId = :categoryId)
+    """)
+    int multiplyPriceInSubtree(@Param("categoryId") Long categoryId, @Param("factor") BigDecimal factor, @Param("now") LocalDateTime now);
+
+    /**
+     * Quantos produtos usam o arquivo de imagem (contagem de referências do armazenamento de uploads)
+     */
+    long countByImage(String image);
 }
@@ -0,0 +1,22 @@
+package com.musicstore.bluevelvet.infrastructure.repository;
+
+import com.musicstore.bluevelvet.infrastructure.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    List<TokenRevocation> findByRevokedBeforeGreaterThan(Long epochSecond);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TokenRevocation tr WHERE tr.revokedBefore <= :epochSecond")
+    int deleteExpired(@Param("epochSecond") Long epochSecond);
+}
@@ -31,13 +31,30 @@ CREATE TABLE IF NOT EXISTS category
     parent_id  BIGINT,
     is_root    BOOLEAN   DEFAULT TRUE,
     enabled    BOOLEAN   DEFAULT TRUE,
+    version    BIGINT    NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
-    FOREIGN KEY (parent_id) REFERENCES category (id) ON DELETE SET NULL
+    FOREIGN KEY (parent_id) REFERENCES category (id) ON DELETE SET NULL,
+    INDEX idx_category_image (image)
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8mb4
   COLLATE = utf8mb4_unicode_ci;
 
+-- ========================================
+-- TABELA DE FECHAMENTO DA ÁRVORE DE CATEGORIAS
+-- (uma linha por par ancestral/descendente, incluindo a própria categoria com depth = 0)
+-- ========================================
+CREATE TABLE IF NOT EXISTS category_closure
+(
+    ancestor_id   BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    depth         INT    NOT NULL,
+    PRIMARY KEY (ancestor_id, descendant_id),
+    FOREIGN KEY (ancestor_id) REFERENCES category (id) ON DELETE CASCADE,
+    FOREIGN KEY (descendant_id) REFERENCES category (id) ON DELETE CASCADE,
+    INDEX idx_category_closure_descendant (descendant_id, depth)
+) ENGINE = InnoDB;
+
 -- ========================================
 -- TABELA DE PRODUTOS
 -- ========================================
@@ -51,15 +68,57 @@ CREATE TABLE IF NOT EXISTS product
     image          VARCHAR(255),
     category_id    BIGINT         NOT NULL,
     enabled        BOOLEAN   DEFAULT TRUE,
+    version        BIGINT    NOT NULL DEFAULT 0,
     created_at     TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at     TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (category_id) REFERENCES category (id) ON DELETE CASCADE,
-    INDEX idx_product_category (category_id),
-    INDEX idx_product_enabled (enabled)
+    INDEX idx_product_category_name_id (category_id, name, id),
+    INDEX idx_product_name_id (name, id),
+    INDEX idx_product_enabled (enabled),
+    INDEX idx_product_image (image)
 ) ENGINE = InnoDB
   DEFAULT CHARSET = utf8mb4
   COLLATE = utf8mb4_unicode_ci;
 
+-- ========================================
+-- REVOGAÇÃO DOS TOKENS DA API (compartilhada entre instâncias, ver TokenRevocationStore)
+-- ========================================
+CREATE TABLE IF NOT EXISTS token_revocation
+(
+    user_id        BIGINT PRIMARY KEY,
+    revoked_before BIGINT NOT NULL,
+    INDEX idx_token_revocation_revoked_before (revoked_before)
+) ENGINE = InnoDB;
+
+-- ========================================
+-- SESSÕES HTTP (Spring Session JDBC, compartilhadas entre instâncias)
+-- ========================================
+CREATE TABLE IF NOT EXISTS SPRING_SESSION
+(
+    PRIMARY_ID            CHAR(36) NOT NULL,
+    SESSION_ID            CHAR(36) NOT NULL,
+    CREATION_TIME         BIGINT   NOT NULL,
+    LAST_ACCESS_TIME      BIGINT   NOT NULL,
+    MAX_INACTIVE_INTERVAL INT      NOT NULL,
+    EXPIRY_TIME           BIGINT   NOT NULL,
+    PRINCIPAL_NAME        VARCHAR(100),
+    CONSTRAINT SPRING_SESSION_PK PRIMARY KEY (PRIMARY_ID),
+    UNIQUE INDEX SPRING_SESSION_IX1 (SESSION_ID),
+    INDEX SPRING_SESSION_IX2 (EXPIRY_TIME),
+    INDEX SPRING_SESSION_IX3 (PRINCIPAL_NAME)
+) ENGINE = InnoDB
+  ROW_FORMAT = DYNAMIC;
+
+CREATE TABLE IF NOT EXISTS SPRING_SESSION_ATTRIBUTES
+(
+    SESSION_PRIMARY_ID CHAR(36)     NOT NULL,
+    ATTRIBUTE_NAME     VARCHAR(200) NOT NULL,
+    ATTRIBUTE_BYTES    BLOB         NOT NULL,
+    CONSTRAINT SPRING_SESSION_ATTRIBUTES_PK PRIMARY KEY (SESSION_PRIMARY_ID, ATTRIBUTE_NAME),
+    CONSTRAINT SPRING_SESSION_ATTRIBUTES_FK FOREIGN KEY (SESSION_PRIMARY_ID) REFERENCES SPRING_SESSION (PRIMARY_ID) ON DELETE CASCADE
+) ENGINE = InnoDB
+  ROW_FORMAT = DYNAMIC;
+
 -- ========================================
 -- ÍNDICES
 -- ========================================
@@ -100,6 +159,19 @@ VALUES ('Classic Rock Vinyls', NULL, 2, FALSE, TRUE),
        ('Pop CDs', NULL, 3, FALSE, TRUE)
 ON DUPLICATE KEY UPDATE name=name;
 
+-- Tabela de fechamento para as categorias acima
+INSERT IGNORE INTO category_closure (ancestor_id, descendant_id, depth)
+WITH RECURSIVE tree (ancestor_id, descendant_id, depth) AS (
+    SELECT id, id, 0 FROM category
+    UNION ALL
+    SELECT c.parent_id, t.descendant_id, t.depth + 1
+    FROM tree t
+             JOIN category c ON c.id = t.ancestor_id
+    WHERE c.parent_id IS NOT NULL
+)
+SELECT ancestor_id, descendant_id, depth
+FROM tree;
+
 -- ========================================
 -- PRODUTOS PARA TESTE DE PAGINAÇÃO
 -- ========================================
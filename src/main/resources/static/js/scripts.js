@@ -126,3 +126,34 @@ function clearProductSearch() {
     window.location.href = '/products?sort=' + sort;
 }
 
+
+// ==========================================
+// Autocompletar - Sugestões por prefixo
+// ==========================================
+document.addEventListener('DOMContentLoaded', () => {
+    document.querySelectorAll('input[data-suggest]').forEach(input => {
+        const datalist = document.getElementById(input.getAttribute('list'));
+        let lastQuery = '';
+
+        input.addEventListener('input', async () => {
+            const query = input.value.trim();
+            if (query.length < 2 || query === lastQuery) {
+                return;
+            }
+            lastQuery = query;
+
+            const response = await fetch('/api/suggest?type=' + input.dataset.suggest +
+                '&q=' + encodeURIComponent(query));
+            if (!response.ok || query !== input.value.trim()) {
+                return;
+            }
+
+            const suggestions = await response.json();
+            datalist.replaceChildren(...suggestions.map(suggestion => {
+                const option = document.createElement('option');
+                option.value = suggestion.name;
+                return option;
+            }));
+        });
+    });
+});
@@ -0,0 +1,88 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.domain.service.CustomUserDetails;
+import com.musicstore.bluevelvet.domain.service.UserService;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.mvc.support.RedirectAttributesModelMap;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para AuthController
+ * Valida que só administradores registram usuários e que os demais voltam ao formulário com a mensagem
+ */
+class AuthControllerTest {
+
+    private UserService userService;
+    private AuthController controller;
+
+    @BeforeEach
+    void setUp() {
+        userService = mock(UserService.class);
+        when(userService.findByEmail(any())).thenReturn(Optional.empty());
+        controller = new AuthController(userService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    /**
+     * Teste: Administrador registra o usuário e segue para o login
+     */
+    @Test
+    void testAdministratorRegisters() {
+        authenticate(authenticated(Role.ADMINISTRATOR));
+        RedirectAttributesModelMap attributes = new RedirectAttributesModelMap();
+
+        assertEquals("redirect:/login", controller.register(newUser(), attributes));
+        verify(userService).save(any(User.class));
+    }
+
+    /**
+     * Teste: Anônimo ou outro papel volta ao formulário com a mensagem, sem consultar nem gravar nada
+     */
+    @Test
+    void testOthersAreSentBackWithMessage() {
+        Authentication anonymous = new AnonymousAuthenticationToken("chave", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        for (Authentication authentication : new Authentication[]{anonymous, authenticated(Role.EDITOR), null}) {
+            authenticate(authentication);
+            RedirectAttributesModelMap attributes = new RedirectAttributesModelMap();
+
+            assertEquals(AuthController.REDIRECT_REGISTER, controller.register(newUser(), attributes));
+            assertEquals("Apenas administradores podem registrar novos usuários.",
+                    attributes.getFlashAttributes().get(AuthController.ERROR_MESSAGE));
+        }
+        verifyNoInteractions(userService);
+    }
+
+    private static void authenticate(Authentication authentication) {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
+    private static Authentication authenticated(Role role) {
+        CustomUserDetails principal = new CustomUserDetails(User.builder().id(1L).email("admin@bluevelvet.com")
+                .name("Admin").role(role).build());
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+
+    private static User newUser() {
+        return User.builder().email("novo@bluevelvet.com").name("Novo").password("senha-longa").role(Role.EDITOR).build();
+    }
+}
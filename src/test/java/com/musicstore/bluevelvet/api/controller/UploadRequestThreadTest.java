@@ -0,0 +1,146 @@
+package com.musicstore.bluevelvet.api.controller;
+
+import com.musicstore.bluevelvet.domain.service.UserService;
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Teste de integração do upload com o Tomcat real e uma única thread de requisição
+ * Valida que o formulário multipart só é lido dentro da tarefa assíncrona: enquanto o corpo não chega,
+ * a thread do Tomcat fica livre para atender outras requisições.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:upload;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.admin.username=admin@bluevelvet.com",
+        "app.admin.password=admin-senha",
+        "server.tomcat.threads.max=1",
+        "server.tomcat.threads.min-spare=1"
+})
+class UploadRequestThreadTest {
+
+    private static final String BOUNDARY = "limite-do-formulario";
+    private static final int READ_TIMEOUT_MS = 10_000;
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadDirProperty(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", uploadDir::toString);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * Teste: Com o corpo do upload pela metade, outra requisição é atendida; depois o produto é gravado com a imagem
+     */
+    @Test
+    void testRequestThreadIsReleasedBeforeBodyIsRead() throws IOException {
+        userService.save(User.builder().email("editor@bluevelvet.com").name("Editor").password("editor-senha")
+                .role(User.Role.EDITOR).build());
+        Category category = categoryRepository.save(Category.builder().name("Vinil").isRoot(true).enabled(true).build());
+
+        byte[] fields = (field("name", "LP de teste") + field("price", "10.00") + field("stockQuantity", "3")
+                + field("categoryId", category.getId().toString()) + field("enabled", "true")
+                + "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"imageFile\"; filename=\"capa.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.UTF_8);
+        byte[] image = png();
+        byte[] end = ("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8);
+
+        try (Socket upload = connect()) {
+            OutputStream out = upload.getOutputStream();
+            out.write(("POST /products HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n"
+                    + "Authorization: Basic " + Base64.getEncoder().encodeToString("editor@bluevelvet.com:editor-senha".getBytes(StandardCharsets.UTF_8)) + "\r\n"
+                    + "Content-Type: multipart/form-data; boundary=" + BOUNDARY + "\r\n"
+                    + "Content-Length: " + (fields.length + image.length + end.length) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            out.write(fields);
+            out.write(image, 0, image.length / 2);
+            out.flush();
+
+            // Única thread do Tomcat: só responde se o upload não a estiver segurando à espera do corpo
+            try (Socket other = connect()) {
+                other.getOutputStream().write("GET /login HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+                        .getBytes(StandardCharsets.UTF_8));
+                assertTrue(statusLine(other.getInputStream()).startsWith("HTTP/1.1 200"));
+            }
+            assertTrue(productRepository.findAll().isEmpty());
+
+            out.write(image, image.length / 2, image.length - image.length / 2);
+            out.write(end);
+            out.flush();
+            assertTrue(statusLine(upload.getInputStream()).startsWith("HTTP/1.1 302"));
+        }
+
+        List<Product> products = productRepository.findAll();
+        assertEquals(1, products.size());
+        assertEquals("LP de teste", products.get(0).getName());
+        assertTrue(products.get(0).getImage().endsWith(".png"));
+        assertTrue(uploadDir.resolve(products.get(0).getImage()).toFile().exists());
+    }
+
+    private Socket connect() throws IOException {
+        Socket socket = new Socket("localhost", port);
+        socket.setSoTimeout(READ_TIMEOUT_MS);
+        return socket;
+    }
+
+    private static String field(String name, String value) {
+        return "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n";
+    }
+
+    private static String statusLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = in.read(); b != -1 && b != '\n'; b = in.read())
+            line.write(b);
+        return line.toString(StandardCharsets.US_ASCII).trim();
+    }
+
+    private static byte[] png() throws IOException {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 64; x++)
+            image.setRGB(x, x, 0xFF00FF);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", bytes);
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,45 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.domain.exception.PasswordVerificationRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para PasswordVerificationRejectedFilter
+ * Valida a resposta 429 para verificações recusadas e que as demais exceções seguem adiante
+ */
+class PasswordVerificationRejectedFilterTest {
+
+    private final PasswordVerificationRejectedFilter filter = new PasswordVerificationRejectedFilter();
+
+    /**
+     * Teste: Verificação recusada vira 429 com Retry-After
+     */
+    @Test
+    void testRejectedVerificationIsTooManyRequests() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/login"), response, (request, ignored) -> {
+            throw new PasswordVerificationRejectedException("fila cheia");
+        });
+
+        assertEquals(429, response.getStatus());
+        assertEquals(PasswordVerificationRejectedFilter.RETRY_AFTER_SECONDS, response.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals("fila cheia", response.getContentAsString());
+    }
+
+    /**
+     * Teste: Outras exceções não são tratadas pelo filtro
+     */
+    @Test
+    void testOtherExceptionsPropagate() {
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", "/categories"),
+                new MockHttpServletResponse(), (request, response) -> {
+                    throw new IllegalStateException("outro erro");
+                }));
+    }
+}
@@ -0,0 +1,172 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.domain.cache.ShopPageCache;
+import com.musicstore.bluevelvet.domain.event.ImageVariantsReadyEvent;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ShopPageCacheFilter
+ * Valida o reaproveitamento das páginas renderizadas, o 304 por ETag e a purga por versão do catálogo
+ */
+class ShopPageCacheFilterTest {
+
+    private static final String PAGE = "<html><body>" + "Guitarras ".repeat(200) + "</body></html>";
+
+    private ShopPageCache pageCache;
+    private ShopPageCacheFilter filter;
+    private AtomicInteger renders;
+    private int status;
+    private String body;
+
+    @BeforeEach
+    void setUp() {
+        pageCache = new ShopPageCache();
+        filter = new ShopPageCacheFilter(pageCache);
+        renders = new AtomicInteger();
+        status = HttpServletResponse.SC_OK;
+        body = PAGE;
+    }
+
+    /**
+     * Teste: Segunda requisição servida do cache, sem renderizar de novo
+     */
+    @Test
+    void testServesRenderedBytesFromCache() throws Exception {
+        MockHttpServletResponse first = get("/shop/category/1", "page=0", null, null);
+        MockHttpServletResponse second = get("/shop/category/1", "page=0", null, null);
+
+        assertEquals(1, renders.get());
+        assertEquals(PAGE, second.getContentAsString());
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+        assertEquals("no-cache", second.getHeader(HttpHeaders.CACHE_CONTROL));
+
+        get("/shop/category/1", "page=1", null, null);
+        assertEquals(2, renders.get());
+    }
+
+    /**
+     * Teste: If-None-Match igual à ETag responde 304 sem chamar o controller
+     */
+    @Test
+    void testNotModifiedWithoutRendering() throws Exception {
+        String etag = get("/shop", null, null, null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = get("/shop", null, etag, null);
+
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(1, renders.get());
+    }
+
+    /**
+     * Teste: Versão gzip pré-comprimida para clientes que aceitam
+     */
+    @Test
+    void testServesPrecompressedGzip() throws Exception {
+        get("/shop", null, null, null);
+        MockHttpServletResponse response = get("/shop", null, null, "gzip, deflate");
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(response.getContentAsByteArray().length < PAGE.length());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals(PAGE, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED,
+                get("/shop", null, response.getHeader(HttpHeaders.ETAG), "gzip").getStatus());
+    }
+
+    /**
+     * Teste: Alteração no catálogo purga o cache e invalida as ETags anteriores
+     */
+    @Test
+    void testCatalogChangePurges() throws Exception {
+        String etag = get("/shop", null, null, null).getHeader(HttpHeaders.ETAG);
+
+        pageCache.onProductChanged(new ProductChangedEvent(1L));
+        MockHttpServletResponse response = get("/shop", null, etag, null);
+
+        assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        assertNotEquals(etag, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(2, renders.get());
+    }
+
+    /**
+     * Teste: Variantes prontas removem só as páginas que mostram a imagem sem elas, sem mudar a versão do catálogo
+     */
+    @Test
+    void testImageVariantsEvictOnlyPagesShowingTheImage() throws Exception {
+        body = "<html><body><img src=\"/uploads/capa.png\"></body></html>";
+        get("/shop/category/1", null, null, null);
+        body = PAGE;
+        get("/shop", null, null, null);
+        long version = pageCache.catalogVersion();
+
+        pageCache.onImageVariantsReady(new ImageVariantsReadyEvent("capa.png"));
+        get("/shop", null, null, null);
+        assertEquals(2, renders.get());
+        assertEquals(version, pageCache.catalogVersion());
+
+        // Renderização que começou antes das variantes ficarem prontas não é guardada
+        body = "<html><body><img src=\"/uploads/capa.png\"></body></html>";
+        get("/shop/category/1", null, null, null);
+        get("/shop/category/1", null, null, null);
+        assertEquals(4, renders.get());
+
+        body = "<html><body><img src=\"/uploads/capa.png\" srcset=\"/uploads/capa-200w.jpg 200w\"></body></html>";
+        get("/shop/category/1", null, null, null);
+        get("/shop/category/1", null, null, null);
+        assertEquals(5, renders.get());
+    }
+
+    /**
+     * Teste: Redirecionamentos e erros não entram no cache
+     */
+    @Test
+    void testDoesNotCacheNonOkResponses() throws Exception {
+        status = HttpServletResponse.SC_NOT_FOUND;
+        get("/shop/category/99", null, null, null);
+        MockHttpServletResponse response = get("/shop/category/99", null, null, null);
+
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+        assertEquals(2, renders.get());
+    }
+
+    private MockHttpServletResponse get(String uri, String query, String ifNoneMatch, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setQueryString(query);
+        if (ifNoneMatch != null)
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        if (acceptEncoding != null)
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                renders.incrementAndGet();
+                resp.setStatus(status);
+                resp.setContentType("text/html;charset=UTF-8");
+                resp.getWriter().write(body);
+            }
+        }));
+        return response;
+    }
+}
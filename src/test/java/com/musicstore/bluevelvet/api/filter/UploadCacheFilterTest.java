@@ -0,0 +1,149 @@
+package com.musicstore.bluevelvet.api.filter;
+
+import com.musicstore.bluevelvet.domain.service.UploadUrlService;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para UploadCacheFilter e as URLs de UploadUrlService
+ * Valida que só URLs com impressão digital do conteúdo são servidas como imutáveis, que erros não entram
+ * em cache e o isolamento dos SVGs
+ */
+class UploadCacheFilterTest {
+
+    private static final String HASHED = "ab".repeat(32) + ".png";
+
+    @TempDir
+    Path uploadDir;
+
+    private UploadUrlService uploadUrlService;
+    private UploadCacheFilter filter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(uploadDir.resolve(HASHED), "png");
+        Files.writeString(uploadDir.resolve("3f2a-uuid.png"), "png antigo");
+        uploadUrlService = new UploadUrlService(uploadDir.toString());
+        filter = new UploadCacheFilter(uploadUrlService);
+    }
+
+    /**
+     * Teste: Nome por SHA-256 (e suas variantes) já é a impressão digital
+     */
+    @Test
+    void testContentAddressedUrlIsImmutable() throws Exception {
+        assertEquals("/uploads/" + HASHED, uploadUrlService.url(HASHED));
+        assertEquals(UploadCacheFilter.IMMUTABLE, cacheControl("/uploads/" + HASHED, null));
+        assertEquals(UploadCacheFilter.IMMUTABLE, cacheControl("/uploads/" + "ab".repeat(32) + "-400w.jpg", null));
+        assertTrue(UploadCacheFilter.IMMUTABLE.contains("immutable"));
+    }
+
+    /**
+     * Teste: Nome antigo recebe ?v= e só é imutável quando a versão pedida é a atual
+     */
+    @Test
+    void testLegacyUrlCarriesVersion() throws Exception {
+        String url = uploadUrlService.url("3f2a-uuid.png");
+        String version = url.substring(url.indexOf("?v=") + 3);
+
+        assertTrue(url.startsWith("/uploads/3f2a-uuid.png?v="));
+        assertEquals(UploadCacheFilter.IMMUTABLE, cacheControl("/uploads/3f2a-uuid.png", version));
+        assertEquals(UploadCacheFilter.REVALIDATE, cacheControl("/uploads/3f2a-uuid.png", "velha"));
+        assertEquals(UploadCacheFilter.REVALIDATE, cacheControl("/uploads/3f2a-uuid.png", null));
+    }
+
+    /**
+     * Teste: URL imutável só leva o cabeçalho em 200, 206 e 304; 404 e falhas saem com no-store
+     */
+    @Test
+    void testErrorsAreNotCached() throws Exception {
+        String uri = "/uploads/" + "ef".repeat(32) + ".png";
+
+        assertEquals(UploadCacheFilter.IMMUTABLE, respond(uri, status(HttpServletResponse.SC_PARTIAL_CONTENT))
+                .getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(UploadCacheFilter.IMMUTABLE, respond(uri, status(HttpServletResponse.SC_NOT_MODIFIED))
+                .getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(UploadCacheFilter.NO_STORE, respond(uri, new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.sendError(HttpServletResponse.SC_NOT_FOUND);
+            }
+        }).getHeader(HttpHeaders.CACHE_CONTROL));
+
+        MockHttpServletResponse failed = new MockHttpServletResponse();
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(new MockHttpServletRequest("GET", uri), failed,
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                        throw new IllegalStateException("disco indisponível");
+                    }
+                })));
+        assertEquals(UploadCacheFilter.NO_STORE, failed.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    /**
+     * Teste: Sem arquivo não há URL
+     */
+    @Test
+    void testUrlOfMissingImage() {
+        assertNull(uploadUrlService.url(null));
+        assertEquals("/uploads/sumiu.png", uploadUrlService.url("sumiu.png"));
+    }
+
+    /**
+     * Teste: SVG é servido sem poder executar scripts e como anexo; imagens rasterizadas não
+     */
+    @Test
+    void testSvgIsSandboxed() throws Exception {
+        MockHttpServletResponse svg = serve("/uploads/" + "cd".repeat(32) + ".svg", null);
+        assertEquals(UploadCacheFilter.SVG_CONTENT_SECURITY_POLICY, svg.getHeader("Content-Security-Policy"));
+        assertEquals(UploadCacheFilter.SVG_CONTENT_DISPOSITION, svg.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+
+        MockHttpServletResponse png = serve("/uploads/" + HASHED, null);
+        assertNull(png.getHeader("Content-Security-Policy"));
+        assertNull(png.getHeader(HttpHeaders.CONTENT_DISPOSITION));
+    }
+
+    private String cacheControl(String uri, String version) throws Exception {
+        return serve(uri, version).getHeader(HttpHeaders.CACHE_CONTROL);
+    }
+
+    private MockHttpServletResponse respond(String uri, HttpServlet servlet) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static HttpServlet status(int status) {
+        return new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                resp.setStatus(status);
+            }
+        };
+    }
+
+    private MockHttpServletResponse serve(String uri, String version) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (version != null)
+            request.setParameter(UploadUrlService.VERSION_PARAMETER, version);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,130 @@
+package com.musicstore.bluevelvet.domain.cache;
+
+import com.musicstore.bluevelvet.api.request.CategoryRequest;
+import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.domain.service.CategoryService;
+import com.musicstore.bluevelvet.domain.service.UserService;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Benchmark do AuthenticationCache: GET /categories/{id} com httpBasic pela cadeia completa do Spring Security
+ * (MockMvc sobre H2), com 1 e 8 threads. "Sem cache" esvazia o cache antes de cada requisição, o que obriga
+ * a consulta do usuário e a verificação BCrypt.
+ * Fica fora da suíte normal; para rodar: mvn test -Dtest=AuthenticationCacheBenchmarkTest -Dbenchmark=true
+ */
+@Log4j2
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;NON_KEYWORDS=USER",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.admin.username=admin@bluevelvet.com",
+        "app.admin.password=admin-senha"
+})
+@AutoConfigureMockMvc
+class AuthenticationCacheBenchmarkTest {
+
+    private static final int UNCACHED_REQUESTS_PER_THREAD = 60;
+    private static final int CACHED_REQUESTS_PER_THREAD = 3_000;
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadDirProperty(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", uploadDir::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthenticationCache authenticationCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    /**
+     * Mede requisições por segundo com e sem cache; a rodada com cache deve ser mais rápida
+     */
+    @Test
+    void benchmarkHttpBasicRequests() throws Exception {
+        userService.save(User.builder().email("bench@bluevelvet.com").name("Bench").password("bench-senha")
+                .role(User.Role.ADMINISTRATOR).build());
+        CategoryResponse category = categoryService.createCategory(CategoryRequest.builder()
+                .name("Music").isRoot(true).enabled(true).build());
+        String url = "/categories/" + category.getId();
+        RequestPostProcessor credentials = httpBasic("bench@bluevelvet.com", "bench-senha");
+
+        for (int threads : new int[]{1, 8}) {
+            double uncached = measure(threads, UNCACHED_REQUESTS_PER_THREAD, url, credentials, false);
+            double cached = measure(threads, CACHED_REQUESTS_PER_THREAD, url, credentials, true);
+            log.info("threads={}: {} req/s sem cache, {} req/s com cache", threads,
+                    Math.round(uncached), Math.round(cached));
+            assertTrue(cached > uncached, "com cache: " + cached + " req/s, sem cache: " + uncached + " req/s");
+        }
+    }
+
+    /**
+     * Uma rodada de aquecimento e uma medida; retorna requisições por segundo
+     */
+    private double measure(int threads, int requestsPerThread, String url, RequestPostProcessor credentials,
+                           boolean cached) throws Exception {
+        run(threads, requestsPerThread, url, credentials, cached);
+        long start = System.nanoTime();
+        run(threads, requestsPerThread, url, credentials, cached);
+        return threads * requestsPerThread / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private void run(int threads, int requestsPerThread, String url, RequestPostProcessor credentials,
+                     boolean cached) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        if (!cached)
+                            authenticationCache.invalidateAll();
+                        int status = mockMvc.perform(get(url).with(credentials)).andReturn().getResponse().getStatus();
+                        assertEquals(200, status);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures)
+                future.get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.musicstore.bluevelvet.domain.cache;
+
+import com.musicstore.bluevelvet.config.CachingAuthenticationProvider;
+import com.musicstore.bluevelvet.domain.event.UserChangedEvent;
+import com.musicstore.bluevelvet.domain.service.CustomUserDetails;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para AuthenticationCache e CachingAuthenticationProvider
+ * Valida que a senha é verificada uma única vez por credencial, que falhas não ficam em cache
+ * e que a alteração de um usuário descarta só as entradas dele
+ */
+class AuthenticationCacheTest {
+
+    private static final CustomUserDetails ADMIN = details(1L, "admin@bluevelvet.com", "senha");
+    private static final CustomUserDetails EDITOR = details(2L, "editor@bluevelvet.com", "outra");
+
+    private AuthenticationCache cache;
+    private AtomicInteger verifications;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AuthenticationCache();
+        verifications = new AtomicInteger();
+        provider = new CachingAuthenticationProvider(new VerifyingProvider(), cache);
+    }
+
+    /**
+     * Teste: Credenciais repetidas são verificadas uma vez; senha diferente é verificada de novo
+     */
+    @Test
+    void testVerifiesCredentialsOnce() {
+        Authentication first = provider.authenticate(login("admin@bluevelvet.com", "senha"));
+        Authentication second = provider.authenticate(login("admin@bluevelvet.com", "senha"));
+
+        assertEquals(1, verifications.get());
+        assertTrue(second.isAuthenticated());
+        assertSame(first.getPrincipal(), second.getPrincipal());
+        assertNull(second.getCredentials());
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin@bluevelvet.com", "errada")));
+        assertEquals(2, verifications.get());
+    }
+
+    /**
+     * Teste: Falhas não ficam em cache e o resultado leva os detalhes da requisição atual
+     */
+    @Test
+    void testFailuresAreNotCached() {
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin@bluevelvet.com", "errada")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(login("admin@bluevelvet.com", "errada")));
+        assertEquals(2, verifications.get());
+        assertEquals(0, cache.authenticationCount());
+
+        provider.authenticate(login("admin@bluevelvet.com", "senha"));
+        UsernamePasswordAuthenticationToken request = login("admin@bluevelvet.com", "senha");
+        request.setDetails("127.0.0.2");
+        assertEquals("127.0.0.2", provider.authenticate(request).getDetails());
+    }
+
+    /**
+     * Teste: Alteração de usuário descarta os caches dele (por id ou e-mail) e preserva os demais
+     */
+    @Test
+    void testUserChangeEvictsOnlyThatUser() {
+        provider.authenticate(login("admin@bluevelvet.com", "senha"));
+        provider.authenticate(login("editor@bluevelvet.com", "outra"));
+        cache.getUser("admin@bluevelvet.com", () -> ADMIN);
+        cache.getUser("editor@bluevelvet.com", () -> EDITOR);
+
+        cache.onUserChanged(new UserChangedEvent(1L, null));
+        verifications.set(0);
+
+        provider.authenticate(login("admin@bluevelvet.com", "senha"));
+        provider.authenticate(login("editor@bluevelvet.com", "outra"));
+        assertEquals(1, verifications.get());
+        assertEquals(1, cache.userCount());
+
+        cache.onUserChanged(new UserChangedEvent(null, "EDITOR@bluevelvet.com"));
+        assertEquals(0, cache.userCount());
+    }
+
+    /**
+     * Teste: Usuário carregado enquanto era alterado não fica em cache
+     */
+    @Test
+    void testLoadRacingWithChangeIsNotCached() {
+        cache.getUser("admin@bluevelvet.com", () -> {
+            cache.onUserChanged(new UserChangedEvent(1L, "admin@bluevelvet.com"));
+            return ADMIN;
+        });
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.getUser("admin@bluevelvet.com", () -> {
+            loads.incrementAndGet();
+            return ADMIN;
+        });
+        assertEquals(1, loads.get());
+    }
+
+    private static UsernamePasswordAuthenticationToken login(String email, String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(email, password);
+    }
+
+    private static CustomUserDetails details(Long id, String email, String password) {
+        return new CustomUserDetails(User.builder().id(id).email(email).name(email).password(password)
+                .role(User.Role.ADMINISTRATOR).build());
+    }
+
+    /**
+     * Faz o papel do DaoAuthenticationProvider, contando as verificações de senha
+     */
+    private class VerifyingProvider implements AuthenticationProvider {
+
+        @Override
+        public Authentication authenticate(Authentication authentication) {
+            verifications.incrementAndGet();
+            CustomUserDetails user = ADMIN.getUsername().equals(authentication.getName()) ? ADMIN : EDITOR;
+            if (!user.getPassword().equals(authentication.getCredentials()))
+                throw new BadCredentialsException("Credenciais inválidas");
+            return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        }
+
+        @Override
+        public boolean supports(Class<?> authentication) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.musicstore.bluevelvet.domain.cache;
+
+import com.musicstore.bluevelvet.domain.cache.ShopListingCache.Listing;
+import com.musicstore.bluevelvet.domain.event.CategoryChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ShopListingCache
+ * Valida a leitura através do cache, a invalidação restrita às categorias afetadas e a expiração
+ */
+class ShopListingCacheTest {
+
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10, Sort.by("name").ascending());
+
+    private ShopListingCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ShopListingCache();
+        loads = new AtomicInteger();
+    }
+
+    /**
+     * Teste: Mesma chave carrega uma única vez; página, tamanho e ordenação fazem parte da chave
+     */
+    @Test
+    void testReadThrough() {
+        assertEquals("products-1", load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE));
+        assertEquals("products-1", load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE));
+        assertEquals(1, loads.get());
+
+        load(Listing.PRODUCTS_PAGE, 1L, PageRequest.of(1, 10, Sort.by("name").ascending()));
+        load(Listing.PRODUCTS_PAGE, 1L, PageRequest.of(0, 10, Sort.by("name").descending()));
+        load(Listing.PRODUCTS_SLICE, 1L, FIRST_PAGE);
+        assertEquals(4, loads.get());
+    }
+
+    /**
+     * Teste: Alteração de produto invalida só as listagens das categorias afetadas
+     */
+    @Test
+    void testProductChangeInvalidatesAffectedSubtrees() {
+        load(Listing.ROOTS_PAGE, null, FIRST_PAGE);
+        load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE);
+        load(Listing.PRODUCTS_PAGE, 2L, FIRST_PAGE);
+        load(Listing.PRODUCTS_SLICE, 3L, FIRST_PAGE);
+
+        cache.onProductChanged(new ProductChangedEvent(10L, Set.of(1L, 3L)));
+        loads.set(0);
+
+        load(Listing.ROOTS_PAGE, null, FIRST_PAGE);
+        load(Listing.PRODUCTS_PAGE, 2L, FIRST_PAGE);
+        assertEquals(0, loads.get());
+
+        load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE);
+        load(Listing.PRODUCTS_SLICE, 3L, FIRST_PAGE);
+        assertEquals(2, loads.get());
+    }
+
+    /**
+     * Teste: Alteração de categoria invalida as raízes e as subárvores afetadas; nulo invalida tudo
+     */
+    @Test
+    void testCategoryChangeInvalidatesRoots() {
+        load(Listing.ROOTS_SLICE, null, FIRST_PAGE);
+        load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE);
+        load(Listing.PRODUCTS_PAGE, 2L, FIRST_PAGE);
+
+        cache.onCategoryChanged(new CategoryChangedEvent(5L, Set.of()));
+        loads.set(0);
+        load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE);
+        load(Listing.PRODUCTS_PAGE, 2L, FIRST_PAGE);
+        load(Listing.ROOTS_SLICE, null, FIRST_PAGE);
+        assertEquals(1, loads.get());
+
+        cache.onCategoryChanged(new CategoryChangedEvent(null));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Teste: Uma carga que atravessa uma invalidação não fica em cache
+     */
+    @Test
+    void testLoadRacingInvalidationIsNotCached() {
+        cache.get(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE, () -> {
+            cache.onProductChanged(new ProductChangedEvent(null));
+            return "stale";
+        });
+
+        assertEquals("products-1", load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE));
+    }
+
+    /**
+     * Teste: Sem nenhum evento (escrita feita em outra instância), a entrada expira após TIME_TO_LIVE
+     */
+    @Test
+    void testEntriesExpireWithoutEvents() {
+        AtomicLong nanos = new AtomicLong();
+        cache = new ShopListingCache(nanos::get);
+
+        load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE);
+        nanos.addAndGet(ShopListingCache.TIME_TO_LIVE.minus(Duration.ofSeconds(1)).toNanos());
+        load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE);
+        assertEquals(1, loads.get());
+
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+        load(Listing.PRODUCTS_PAGE, 1L, FIRST_PAGE);
+        assertEquals(2, loads.get());
+    }
+
+    private String load(Listing listing, Long categoryId, Pageable pageable) {
+        return cache.get(listing, categoryId, pageable, () -> {
+            loads.incrementAndGet();
+            return listing.isRoots() ? "roots" : "products-" + categoryId;
+        });
+    }
+}
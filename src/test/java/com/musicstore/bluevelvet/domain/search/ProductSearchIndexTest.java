@@ -0,0 +1,113 @@
+package com.musicstore.bluevelvet.domain.search;
+
+import com.musicstore.bluevelvet.domain.event.ProductBulkChangedEvent;
+import com.musicstore.bluevelvet.infrastructure.projection.ProductSearchView;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes unitários para ProductSearchIndex
+ * Valida normalização, ranking e atualização incremental da busca textual
+ */
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(null, null);
+        index.index(view(1L, "Violão Clássico Yamaha", "Tampo de abeto, ideal para iniciantes", true));
+        index.index(view(2L, "Guitarra Elétrica Fender", "Captadores single coil", true));
+        index.index(view(3L, "Capa para violão", "Acolchoada, serve em guitarra e violão", true));
+        index.index(view(4L, "Violino 4/4", "Acompanha arco e estojo", false));
+    }
+
+    /**
+     * Teste: Busca ignora acentos e maiúsculas
+     */
+    @Test
+    void testSearchFoldsAccentsAndCase() {
+        assertEquals(Set.of(1L, 3L), Set.copyOf(index.search("VIOLAO", false)));
+        assertEquals(List.of(2L), index.search("eletrica", false));
+    }
+
+    /**
+     * Teste: Termo no nome pesa mais que na descrição
+     */
+    @Test
+    void testNameMatchesRankFirst() {
+        assertEquals(List.of(2L, 3L), index.search("guitarra", false));
+    }
+
+    /**
+     * Teste: Todos os termos devem estar presentes, com casamento por prefixo
+     */
+    @Test
+    void testSearchRequiresAllTermsAndMatchesPrefixes() {
+        assertEquals(List.of(3L), index.search("violão guitarra", false));
+        assertEquals(Set.of(1L, 3L, 4L), Set.copyOf(index.search("viol", false)));
+        assertTrue(index.search("bateria", false).isEmpty());
+        assertTrue(index.search("  ", false).isEmpty());
+    }
+
+    /**
+     * Teste: Produtos desabilitados podem ser excluídos
+     */
+    @Test
+    void testSearchEnabledOnly() {
+        assertEquals(List.of(4L), index.search("violino", false));
+        assertTrue(index.search("violino", true).isEmpty());
+    }
+
+    /**
+     * Teste: Atualização e remoção incrementais
+     */
+    @Test
+    void testIncrementalUpdateAndRemove() {
+        index.index(view(2L, "Guitarra Gibson", "Corpo em mogno", true));
+        assertTrue(index.search("fender", false).isEmpty());
+        assertEquals(List.of(2L), index.search("gibson", false));
+
+        index.remove(1L);
+        assertTrue(index.search("yamaha", false).isEmpty());
+        assertEquals(List.of(3L), index.search("violao", false));
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * Teste: Operação em massa reindexa só os produtos com enabled alterado, em uma consulta
+     */
+    @Test
+    void testBulkChangeReindexesOnlyChangedProducts() {
+        ProductRepository repository = mock(ProductRepository.class);
+        index = new ProductSearchIndex(repository, null);
+        index.index(view(1L, "Violão Clássico Yamaha", "Tampo de abeto", true));
+        index.index(view(4L, "Violino 4/4", "Acompanha arco", true));
+        when(repository.findSearchViewsByIds(Set.of(4L, 9L))).thenReturn(List.of(view(4L, "Violino 4/4", "Acompanha arco", false)));
+
+        index.onProductBulkChanged(new ProductBulkChangedEvent(Set.of(4L, 9L), Set.of(1L)));
+        index.onProductBulkChanged(new ProductBulkChangedEvent(Set.of(), Set.of(1L)));
+
+        assertEquals(List.of(1L), index.search("viol", true));
+        assertEquals(2, index.size());
+        verify(repository, times(1)).findSearchViewsByIds(any());
+        verify(repository, never()).streamSearchViews();
+    }
+
+    private static ProductSearchView view(Long id, String name, String description, Boolean enabled) {
+        return new ProductSearchView() {
+            public Long getId() { return id; }
+            public String getName() { return name; }
+            public String getDescription() { return description; }
+            public Boolean getEnabled() { return enabled; }
+        };
+    }
+}
@@ -0,0 +1,84 @@
+package com.musicstore.bluevelvet.domain.search;
+
+import com.musicstore.bluevelvet.domain.search.SuggestionIndex.Suggestion;
+import com.musicstore.bluevelvet.domain.search.SuggestionIndex.Type;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para SuggestionIndex
+ * Valida o autocompletar por prefixo e as atualizações por snapshot
+ */
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = SuggestionIndex.of(List.of(
+                new Suggestion(Type.CATEGORY, 1L, "Violões"),
+                new Suggestion(Type.CATEGORY, 2L, "Guitarras"),
+                new Suggestion(Type.PRODUCT, 10L, "Violão Clássico Yamaha"),
+                new Suggestion(Type.PRODUCT, 11L, "Guitarra Elétrica Fender"),
+                new Suggestion(Type.PRODUCT, 12L, "Violino 4/4")
+        ));
+    }
+
+    /**
+     * Teste: Prefixo ignora acentos e maiúsculas e casa com qualquer palavra do nome
+     */
+    @Test
+    void testSuggestMatchesWordPrefixes() {
+        assertEquals(List.of(10L), ids(index.suggest("VIOLÃ", null, 10)));
+        assertEquals(List.of(10L, 12L, 1L), ids(index.suggest("viol", null, 10)));
+        assertEquals(List.of(11L), ids(index.suggest("fend", null, 10)));
+        assertEquals(List.of(11L), ids(index.suggest("eletrica f", null, 10)));
+        assertTrue(index.suggest("bateria", null, 10).isEmpty());
+        assertTrue(index.suggest(" ", null, 10).isEmpty());
+    }
+
+    /**
+     * Teste: Filtro por tipo e limite de resultados
+     */
+    @Test
+    void testSuggestFiltersByTypeAndLimit() {
+        assertEquals(List.of(1L), ids(index.suggest("viol", Type.CATEGORY, 10)));
+        assertEquals(2, index.suggest("viol", Type.PRODUCT, 2).size());
+        assertEquals(1, index.suggest("viol", null, 1).size());
+    }
+
+    /**
+     * Teste: Troca e remoção de um item geram novo snapshot sem alterar o anterior
+     */
+    @Test
+    void testReplacingProducesNewSnapshot() {
+        SuggestionIndex updated = index
+                .replacing(Type.PRODUCT, 11L, new Suggestion(Type.PRODUCT, 11L, "Guitarra Gibson"))
+                .replacing(Type.PRODUCT, 12L, null);
+
+        assertTrue(updated.suggest("fender", null, 10).isEmpty());
+        assertEquals(List.of(11L), ids(updated.suggest("gibson", null, 10)));
+        assertTrue(updated.suggest("violino", null, 10).isEmpty());
+        assertEquals(List.of(11L), ids(index.suggest("fender", null, 10)));
+    }
+
+    /**
+     * Teste: Substituição de todas as categorias
+     */
+    @Test
+    void testReplacingAllCategories() {
+        SuggestionIndex updated = index.replacingAll(Type.CATEGORY,
+                List.of(new Suggestion(Type.CATEGORY, 3L, "Baterias")));
+
+        assertEquals(List.of(3L), ids(updated.suggest("bat", null, 10)));
+        assertEquals(List.of(10L, 12L), ids(updated.suggest("viol", null, 10)));
+    }
+
+    private static List<Long> ids(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::id).toList();
+    }
+}
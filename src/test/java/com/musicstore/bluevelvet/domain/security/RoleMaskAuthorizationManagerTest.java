@@ -0,0 +1,122 @@
+package com.musicstore.bluevelvet.domain.security;
+
+import com.musicstore.bluevelvet.api.controller.CategoryController;
+import com.musicstore.bluevelvet.api.controller.ProductController;
+import com.musicstore.bluevelvet.api.controller.ThymeleafController;
+import com.musicstore.bluevelvet.api.controller.UserController;
+import com.musicstore.bluevelvet.domain.service.CustomUserDetails;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import com.musicstore.bluevelvet.infrastructure.entity.User.Role;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para RoleMaskAuthorizationManager
+ * Valida a matriz papel x endpoint para os cinco papéis, a precedência do método sobre a classe
+ * e a recusa de anônimos
+ */
+class RoleMaskAuthorizationManagerTest {
+
+    private static final Map<Method, EnumSet<Role>> EXPECTED = new LinkedHashMap<>();
+
+    static {
+        EXPECTED.put(method(ThymeleafController.class, "categoriesDashboard"), EnumSet.of(Role.ADMINISTRATOR, Role.SALES_MANAGER, Role.SHIPPING_MANAGER));
+        EXPECTED.put(method(ThymeleafController.class, "categoriesList"), EnumSet.of(Role.ADMINISTRATOR, Role.EDITOR));
+        EXPECTED.put(method(ThymeleafController.class, "createCategoryForm"), EnumSet.of(Role.ADMINISTRATOR));
+        EXPECTED.put(method(ThymeleafController.class, "deleteCategory"), EnumSet.of(Role.ADMINISTRATOR, Role.EDITOR));
+        EXPECTED.put(method(ProductController.class, "listProducts"), EnumSet.of(Role.ADMINISTRATOR, Role.EDITOR, Role.SALES_MANAGER, Role.SHIPPING_MANAGER));
+        EXPECTED.put(method(ProductController.class, "deleteProduct"), EnumSet.of(Role.ADMINISTRATOR, Role.EDITOR));
+        EXPECTED.put(method(CategoryController.class, "createCategory"), EnumSet.of(Role.ADMINISTRATOR));
+        EXPECTED.put(method(UserController.class, "createUserForm"), EnumSet.of(Role.ADMINISTRATOR));
+    }
+
+    private final RoleMaskAuthorizationManager manager = new RoleMaskAuthorizationManager();
+
+    /**
+     * Teste: Cada papel acessa exatamente os endpoints previstos, com o principal do login
+     */
+    @ParameterizedTest
+    @EnumSource(Role.class)
+    void testRoleMatrix(Role role) {
+        Authentication authentication = authenticated(role);
+
+        EXPECTED.forEach((method, allowed) -> assertEquals(allowed.contains(role), isGranted(authentication, method),
+                role + " em " + method.getDeclaringClass().getSimpleName() + "." + method.getName()));
+    }
+
+    /**
+     * Teste: Sem CustomUserDetails (ex.: @WithMockUser) a máscara vem das authorities ROLE_*
+     */
+    @ParameterizedTest
+    @EnumSource(Role.class)
+    void testAuthorityFallbackMatchesPrincipalMask(Role role) {
+        Authentication mock = UsernamePasswordAuthenticationToken.authenticated("mock", null,
+                AuthorityUtils.createAuthorityList("ROLE_" + role.name(), "ROLE_DESCONHECIDO"));
+
+        assertEquals(role.mask(), RoleMaskAuthorizationManager.roleMask(mock));
+        assertEquals(RoleMaskAuthorizationManager.roleMask(authenticated(role)), RoleMaskAuthorizationManager.roleMask(mock));
+    }
+
+    /**
+     * Teste: Anônimo, não autenticado ou sem papel não passa em nenhum endpoint
+     */
+    @Test
+    void testDeniesWithoutRole() {
+        Authentication anonymous = new AnonymousAuthenticationToken("chave", "anonymousUser",
+                AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+        Authentication unauthenticated = UsernamePasswordAuthenticationToken.unauthenticated(
+                new CustomUserDetails(user(Role.ADMINISTRATOR)), "senha");
+        Authentication withoutRole = UsernamePasswordAuthenticationToken.authenticated(
+                new CustomUserDetails(user(null)), null, AuthorityUtils.NO_AUTHORITIES);
+
+        for (Method method : EXPECTED.keySet()) {
+            assertFalse(isGranted(anonymous, method));
+            assertFalse(isGranted(unauthenticated, method));
+            assertFalse(isGranted(withoutRole, method));
+            assertFalse(isGranted(null, method));
+        }
+    }
+
+    /**
+     * Teste: Método alcançado sem @RequiresRole é erro de configuração, não acesso liberado
+     */
+    @Test
+    void testMethodWithoutAnnotationFails() {
+        assertThrows(IllegalStateException.class,
+                () -> RoleMaskAuthorizationManager.requiredMask(method(ThymeleafController.class, "authorizationError")));
+    }
+
+    private boolean isGranted(Authentication authentication, Method method) {
+        return manager.authorize(() -> authentication, new SimpleMethodInvocation(null, method)).isGranted();
+    }
+
+    private static Authentication authenticated(Role role) {
+        CustomUserDetails principal = new CustomUserDetails(user(role));
+        return UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+
+    private static User user(Role role) {
+        return User.builder().id(1L).email("usuario@bluevelvet.com").name("Usuário").role(role).build();
+    }
+
+    private static Method method(Class<?> type, String name) {
+        return Arrays.stream(type.getDeclaredMethods())
+                .filter(method -> method.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,123 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndexHolder;
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para CatalogExportService
+ * Valida a ordem da árvore, o escape de campos e a saída gzip
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Import({CatalogExportService.class, CategoryTreeIndexHolder.class})
+class CatalogExportServiceTest {
+
+    @Autowired
+    private CatalogExportService exportService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryTreeIndexHolder treeIndexHolder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Category music;
+    private Category vinyl;
+    private Category jazz;
+    private Category books;
+
+    @BeforeEach
+    void setUp() {
+        music = categoryRepository.save(Category.builder().name("Music").isRoot(true).enabled(true).build());
+        books = categoryRepository.save(Category.builder().name("Books").isRoot(true).enabled(true).build());
+        vinyl = categoryRepository.save(Category.builder().name("Vinyl").parent(music).isRoot(false).enabled(true).build());
+        jazz = categoryRepository.save(Category.builder().name("Jazz, Blues").parent(vinyl).isRoot(false).enabled(true).build());
+
+        productRepository.save(product("Kind of Blue", jazz));
+        productRepository.save(product("12\" Sleeve", vinyl));
+        entityManager.flush();
+        entityManager.clear();
+
+        treeIndexHolder.rebuild();
+    }
+
+    /**
+     * Teste: Categorias em pré-ordem, com indentação por nível
+     */
+    @Test
+    void testExportCategoriesInTreeOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportCategories(out, false);
+
+        assertEquals("id,name\n"
+                + music.getId() + ",Music\n"
+                + vinyl.getId() + ",  Vinyl\n"
+                + jazz.getId() + ",\"    Jazz, Blues\"\n"
+                + books.getId() + ",Books\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Teste: Produtos com categoria e campos escapados
+     */
+    @Test
+    void testExportProducts() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportProducts(out, false);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,name,price,stock_quantity,enabled,category_id,category_name", lines[0]);
+        assertTrue(lines[1].endsWith(",Kind of Blue,10.00,5,true," + jazz.getId() + ",\"Jazz, Blues\""));
+        assertTrue(lines[2].endsWith(",\"12\"\" Sleeve\",10.00,5,true," + vinyl.getId() + ",Vinyl"));
+    }
+
+    /**
+     * Teste: Saída gzip descompacta para o mesmo CSV
+     */
+    @Test
+    void testExportGzip() throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        exportService.exportProducts(plain, false);
+        exportService.exportProducts(compressed, true);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(plain.toByteArray(), in.readAllBytes());
+        }
+    }
+
+    private static Product product(String name, Category category) {
+        return Product.builder()
+                .name(name)
+                .price(BigDecimal.TEN)
+                .stockQuantity(5)
+                .enabled(true)
+                .category(category)
+                .build();
+    }
+}
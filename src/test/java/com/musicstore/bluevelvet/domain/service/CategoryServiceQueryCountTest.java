@@ -0,0 +1,140 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.domain.cache.ShopListingCache;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndexHolder;
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para CategoryService.findAllRootsWithOrderedChildren e findAll por ids
+ * Conta as instruções SQL emitidas (Hibernate statistics) para garantir que não há N+1
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CategoryService.class, CategoryTreeIndexHolder.class, FileStorageService.class, ShopListingCache.class})
+class CategoryServiceQueryCountTest {
+
+    private static final int ROOTS = 10;
+    private static final int CHILDREN_PER_ROOT = 3;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryTreeIndexHolder treeIndexHolder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROOTS; i++) {
+            Category root = categoryRepository.save(Category.builder()
+                    .name("Root " + i).isRoot(true).enabled(true).build());
+
+            for (int j = CHILDREN_PER_ROOT; j > 0; j--) {
+                Category child = categoryRepository.save(Category.builder()
+                        .name("Child " + i + "." + j).parent(root).isRoot(false).enabled(true).build());
+
+                categoryRepository.save(Category.builder()
+                        .name("Grandchild " + i + "." + j).parent(child).isRoot(false).enabled(true).build());
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // O índice em memória é montado uma vez, fora da medição
+        treeIndexHolder.rebuild();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    /**
+     * Teste: Página de raízes + contagem + uma única consulta IN para os filhos, qualquer que seja o tamanho da página
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 5})
+    void testStatementCountIsIndependentOfPageSize(int pageSize) {
+        Page<CategoryResponse> page = categoryService.findAllRootsWithOrderedChildren(
+                PageRequest.of(0, pageSize, Sort.by("name")));
+
+        assertEquals(pageSize, page.getContent().size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Teste: Filhos agrupados por raiz e ordenados pelo critério da página
+     */
+    @Test
+    void testChildrenAreGroupedAndOrdered() {
+        Page<CategoryResponse> page = categoryService.findAllRootsWithOrderedChildren(
+                PageRequest.of(0, 2, Sort.by("name")));
+
+        CategoryResponse first = page.getContent().get(0);
+        assertEquals("Root 0", first.getName());
+        assertEquals(List.of("Child 0.1", "Child 0.2", "Child 0.3"),
+                first.getChildren().stream().map(CategoryResponse::getName).toList());
+        assertEquals("Grandchild 0.1", first.getChildren().get(0).getChildren().get(0).getName());
+
+        CategoryResponse second = page.getContent().get(1);
+        assertEquals("Root 1", second.getName());
+        assertEquals(CHILDREN_PER_ROOT, second.getChildren().size());
+    }
+
+    /**
+     * Teste: Id fora do snapshot recarrega o índice uma única vez e respeita a profundidade pedida
+     */
+    @Test
+    void testStaleSnapshotIsRebuiltOnce() {
+        Category added = categoryRepository.save(Category.builder().name("Added").isRoot(true).enabled(true).build());
+        categoryRepository.save(Category.builder().name("Added child").parent(added).isRoot(false).enabled(true).build());
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<CategoryResponse> page = categoryService.findAll(PageRequest.of(0, 100, Sort.by("id")), 0);
+
+        CategoryResponse response = page.getContent().stream()
+                .filter(category -> category.getId().equals(added.getId()))
+                .findFirst().orElseThrow();
+        assertTrue(response.getChildren().isEmpty());
+        assertEquals(ROOTS * (1 + 2 * CHILDREN_PER_ROOT) + 2, page.getContent().size());
+        // Ids (a página cabe inteira, sem contagem) + recarga do índice
+        assertEquals(2, statistics.getPrepareStatementCount());
+
+        statistics.clear();
+        categoryService.findAll(PageRequest.of(0, 100, Sort.by("id")), 0);
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
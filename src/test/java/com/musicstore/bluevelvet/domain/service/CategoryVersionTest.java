@@ -0,0 +1,118 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.request.CategoryRequest;
+import com.musicstore.bluevelvet.domain.cache.ShopListingCache;
+import com.musicstore.bluevelvet.domain.dto.ResourceVersion;
+import com.musicstore.bluevelvet.domain.exception.CategoryNotFoundException;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndexHolder;
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para CategoryService.findVersion
+ * Valida que a ETag acompanha a coluna @Version da subárvore e que é calculada sem consultar o banco
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import({CategoryService.class, CategoryTreeIndexHolder.class, FileStorageService.class, ShopListingCache.class})
+class CategoryVersionTest {
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryTreeIndexHolder treeIndexHolder;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Category root;
+    private Category child;
+
+    @BeforeEach
+    void setUp() {
+        root = categoryRepository.save(Category.builder().name("Cordas").isRoot(true).enabled(true).build());
+        child = categoryRepository.save(Category.builder().name("Violões").parent(root).isRoot(false).enabled(true).build());
+        refresh();
+    }
+
+    /**
+     * Teste: Entidades novas começam na versão 0 e a ETag é estável enquanto nada muda
+     */
+    @Test
+    void testVersionIsStableWithoutChanges() {
+        assertEquals(0L, categoryRepository.findById(root.getId()).orElseThrow().getVersion());
+
+        ResourceVersion first = categoryService.findVersion(root.getId(), null);
+        ResourceVersion second = categoryService.findVersion(root.getId(), null);
+
+        assertEquals(first, second);
+        assertTrue(first.etag().startsWith("\"c" + root.getId() + "-all-"));
+        assertTrue(first.lastModifiedMillis() > 0);
+        assertNotEquals(first.etag(), categoryService.findVersion(root.getId(), 0).etag());
+    }
+
+    /**
+     * Teste: Alterar um filho muda a ETag do pai quando ele está incluído na resposta, e só nesse caso
+     */
+    @Test
+    void testChildUpdateChangesParentEtag() {
+        ResourceVersion whole = categoryService.findVersion(root.getId(), null);
+        ResourceVersion rootOnly = categoryService.findVersion(root.getId(), 0);
+
+        categoryService.updateCategory(child.getId(), CategoryRequest.builder()
+                .name("Violões Clássicos").parentId(root.getId()).isRoot(false).enabled(true).build());
+        refresh();
+
+        assertEquals(1L, categoryRepository.findById(child.getId()).orElseThrow().getVersion());
+        assertNotEquals(whole.etag(), categoryService.findVersion(root.getId(), null).etag());
+        assertEquals(rootOnly.etag(), categoryService.findVersion(root.getId(), 0).etag());
+    }
+
+    /**
+     * Teste: A validação condicional não emite nenhuma instrução SQL
+     */
+    @Test
+    void testFindVersionDoesNotQueryDatabase() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        categoryService.findVersion(root.getId(), null);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Teste: Categoria inexistente
+     */
+    @Test
+    void testFindVersionOfMissingCategory() {
+        assertThrows(CategoryNotFoundException.class, () -> categoryService.findVersion(-1L, null));
+    }
+
+    private void refresh() {
+        entityManager.flush();
+        entityManager.clear();
+        treeIndexHolder.rebuild();
+    }
+}
@@ -0,0 +1,269 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para FileStorageService
+ * Valida o nome por SHA-256, a deduplicação de envios idênticos, a validação do tipo e do tamanho
+ * pelo conteúdo e a remoção só sem referências.
+ * Sem a transação do teste: dentro de uma transação a remoção só acontece após o commit.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true",
+        "spring.servlet.multipart.max-file-size=4KB"
+})
+@Import(FileStorageService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FileStorageServiceTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @DynamicPropertySource
+    static void uploadDirProperty(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", uploadDir::toString);
+    }
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            for (Path file : files.toList())
+                Files.delete(file);
+        }
+    }
+
+    /**
+     * Teste: O nome é o SHA-256 do conteúdo com a extensão do tipo reconhecido
+     */
+    @Test
+    void testNamesFileByContentHash() throws IOException {
+        String name = fileStorageService.saveFile(upload("Capa.PNG", png("capa do disco")));
+
+        assertTrue(name.matches("[0-9a-f]{64}\\.png"));
+        assertArrayEquals(png("capa do disco"), Files.readAllBytes(uploadDir.resolve(name)));
+        assertNotEquals(name, fileStorageService.saveFile(upload("capa.png", png("outra capa"))));
+    }
+
+    /**
+     * Teste: A extensão vem dos primeiros bytes, não do nome enviado
+     */
+    @Test
+    void testExtensionComesFromContent() throws IOException {
+        assertTrue(fileStorageService.saveFile(upload("capa.jpg", png("na verdade png"))).endsWith(".png"));
+        assertTrue(fileStorageService.saveFile(upload("capa", jpeg("sem extensão"))).endsWith(".jpg"));
+    }
+
+    /**
+     * Teste: Conteúdo que não é imagem é recusado e o temporário é removido
+     */
+    @Test
+    void testRejectsUnsupportedContent() throws IOException {
+        MockMultipartFile pdf = upload("capa.png", "%PDF-1.4 capa".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IllegalArgumentException.class, () -> fileStorageService.saveFile(pdf));
+        assertEquals(0, countFiles());
+    }
+
+    /**
+     * Teste: O limite de tamanho vale durante a cópia, mesmo quando o tamanho declarado não é confiável
+     */
+    @Test
+    void testRejectsOversizedUpload() throws IOException {
+        byte[] content = png("x".repeat(5 * 1024));
+        MockMultipartFile declared = upload("grande.png", content);
+        MockMultipartFile undeclared = new MockMultipartFile("imageFile", "grande.png", "image/png", content) {
+            @Override
+            public long getSize() {
+                return 1;
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> fileStorageService.saveFile(declared));
+        assertThrows(IllegalArgumentException.class, () -> fileStorageService.saveFile(undeclared));
+        assertEquals(0, countFiles());
+    }
+
+    /**
+     * Teste: Envios idênticos compartilham um único arquivo e nenhum temporário fica para trás
+     */
+    @Test
+    void testDeduplicatesIdenticalUploads() throws IOException {
+        String first = fileStorageService.saveFile(upload("lp.jpg", jpeg("mesma capa")));
+        String second = fileStorageService.saveFile(upload("cd.jpg", jpeg("mesma capa")));
+
+        assertEquals(first, second);
+        assertEquals(1, countFiles());
+    }
+
+    /**
+     * Teste: Tipos compressíveis ganham uma cópia .gz pré-comprimida; imagens rasterizadas não
+     */
+    @Test
+    void testPrecompressesCompressibleTypes() throws IOException {
+        String svg = fileStorageService.saveFile(upload("logo.svg", ("<svg>" + "<rect/>".repeat(100) + "</svg>").getBytes(StandardCharsets.UTF_8)));
+        String png = fileStorageService.saveFile(upload("foto.png", png("x".repeat(500))));
+
+        assertTrue(Files.exists(uploadDir.resolve(svg + ".gz")));
+        assertFalse(Files.exists(uploadDir.resolve(png + ".gz")));
+
+        fileStorageService.release(svg);
+        assertFalse(Files.exists(uploadDir.resolve(svg + ".gz")));
+    }
+
+    /**
+     * Teste: O arquivo só é apagado quando a última referência (produto ou categoria) deixa de existir
+     */
+    @Test
+    void testDeletesOnlyWhenUnreferenced() throws IOException {
+        String image = fileStorageService.saveFile(upload("capa.jpg", jpeg("capa compartilhada")));
+        Files.writeString(uploadDir.resolve(ImageVariantService.variantFilename(image, 200, ImageVariantService.JPEG)), "variante");
+        Category category = categoryRepository.save(Category.builder().name("Vinil").image(image).isRoot(true).enabled(true).build());
+        Product product = productRepository.save(Product.builder().name("LP").price(BigDecimal.TEN).stockQuantity(1)
+                .enabled(true).image(image).category(category).build());
+        fileStorageService.release(image);
+        assertEquals(2, fileStorageService.countReferences(image));
+
+        productRepository.delete(product);
+        fileStorageService.deleteFile(image);
+        assertTrue(Files.exists(uploadDir.resolve(image)));
+
+        categoryRepository.delete(category);
+        fileStorageService.deleteFile(image);
+        assertEquals(0, countFiles());
+    }
+
+    /**
+     * Teste: Dentro de uma transação a verificação de referências espera o commit
+     */
+    @Test
+    void testDeleteInsideTransactionWaitsForCommit() throws IOException {
+        String image = fileStorageService.saveFile(upload("capa.jpg", jpeg("capa")));
+        Category category = categoryRepository.save(Category.builder().name("CD").image(image).isRoot(true).enabled(true).build());
+        fileStorageService.release(image);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            fileStorageService.deleteFile(image);
+            categoryRepository.deleteById(category.getId());
+            assertTrue(Files.exists(uploadDir.resolve(image)));
+        });
+
+        assertFalse(Files.exists(uploadDir.resolve(image)));
+    }
+
+    /**
+     * Teste: Um envio deduplicado segura o arquivo enquanto a entidade não é gravada, mesmo que a última
+     * referência gravada seja removida nesse intervalo
+     */
+    @Test
+    void testPendingUploadHoldsDeduplicatedFile() throws IOException {
+        String image = fileStorageService.saveFile(upload("capa.jpg", jpeg("capa reenviada")));
+        Category category = categoryRepository.save(Category.builder().name("Vinil").image(image).isRoot(true).enabled(true).build());
+        Category other = categoryRepository.save(Category.builder().name("CD").isRoot(true).enabled(true).build());
+        fileStorageService.release(image);
+
+        String uploaded = fileStorageService.saveFile(upload("outra.jpg", jpeg("capa reenviada")));
+        assertEquals(image, uploaded);
+
+        categoryRepository.delete(category);
+        fileStorageService.deleteFile(image);
+        assertTrue(Files.exists(uploadDir.resolve(image)));
+
+        Product product = productRepository.save(Product.builder().name("LP").price(BigDecimal.TEN).stockQuantity(1)
+                .enabled(true).image(uploaded).category(other).build());
+        fileStorageService.release(uploaded);
+        assertTrue(Files.exists(uploadDir.resolve(image)));
+
+        productRepository.delete(product);
+        fileStorageService.deleteFile(image);
+        assertEquals(0, countFiles());
+    }
+
+    /**
+     * Teste: Envio cuja entidade não chega a ser gravada (rollback ou falha fora de transação) não deixa arquivo órfão
+     */
+    @Test
+    void testFailedRegistrationRemovesOrphan() throws IOException {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                String image = fileStorageService.saveFile(upload("capa.jpg", jpeg("capa descartada")));
+                categoryRepository.save(Category.builder().name("CD").image(image).isRoot(true).enabled(true).build());
+                assertTrue(Files.exists(uploadDir.resolve(image)));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            status.setRollbackOnly();
+        });
+        assertEquals(0, countFiles());
+
+        String image = fileStorageService.saveFile(upload("capa.png", png("sem produto")));
+        assertTrue(Files.exists(uploadDir.resolve(image)));
+        fileStorageService.release(image);
+        assertEquals(0, countFiles());
+    }
+
+    private static MockMultipartFile upload(String filename, byte[] content) {
+        return new MockMultipartFile("imageFile", filename, "image/png", content);
+    }
+
+    private static byte[] png(String content) {
+        return withSignature(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, content);
+    }
+
+    private static byte[] jpeg(String content) {
+        return withSignature(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}, content);
+    }
+
+    private static byte[] withSignature(byte[] signature, String content) {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes = Arrays.copyOf(signature, signature.length + body.length);
+        System.arraycopy(body, 0, bytes, signature.length, body.length);
+        return bytes;
+    }
+
+    private static long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            return files.count();
+        }
+    }
+}
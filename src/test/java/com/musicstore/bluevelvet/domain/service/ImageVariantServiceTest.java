@@ -0,0 +1,157 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.domain.event.ImageVariantsReadyEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para ImageVariantService
+ * Valida as larguras geradas, o srcset e a geração assíncrona com retorno ao original enquanto pendente
+ */
+class ImageVariantServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ImageVariantService service;
+    private List<Object> events;
+
+    @BeforeEach
+    void setUp() {
+        events = new CopyOnWriteArrayList<>();
+        service = new ImageVariantService(uploadDir.toString(), events::add, new UploadUrlService(uploadDir.toString()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    /**
+     * Teste: Imagem larga gera todas as larguras, em JPEG, com a proporção preservada
+     */
+    @Test
+    void testGeneratesAllWidths() throws IOException {
+        writePng("foto.png", 1000, 500);
+
+        ImageVariantService.Variants variants = service.generate("foto.png").variants();
+
+        assertEquals(List.of(200, 400, 800), variants.widths());
+        for (int width : variants.widths()) {
+            BufferedImage variant = ImageIO.read(uploadDir.resolve("foto-" + width + "w.jpg").toFile());
+            assertEquals(width, variant.getWidth());
+            assertEquals(width / 2, variant.getHeight());
+        }
+    }
+
+    /**
+     * Teste: Só gera larguras menores que o original; imagem pequena demais fica sem variantes
+     */
+    @Test
+    void testNeverUpscales() throws IOException {
+        writePng("media.png", 500, 500);
+        writePng("icone.png", 150, 150);
+
+        assertEquals(List.of(200, 400), service.generate("media.png").variants().widths());
+        assertTrue(service.generate("icone.png").variants().widths().isEmpty());
+        assertFalse(Files.exists(uploadDir.resolve("icone-200w.jpg")));
+    }
+
+    /**
+     * Teste: Arquivo que não é imagem não gera variantes
+     */
+    @Test
+    void testIgnoresNonImages() throws IOException {
+        Files.writeString(uploadDir.resolve("manual.pdf"), "%PDF-1.4");
+
+        assertSame(ImageVariantService.Variants.NONE, service.generate("manual.pdf").variants());
+    }
+
+    /**
+     * Teste: Imagem acima de MAX_PIXELS é recusada pelo cabeçalho, sem ser decodificada
+     */
+    @Test
+    void testSkipsImagesAbovePixelBudget() throws IOException {
+        // Binária (1 bit por pixel): o arquivo e a imagem do teste ficam pequenos, a decodificação não
+        BufferedImage huge = new BufferedImage(8_000, 6_000, BufferedImage.TYPE_BYTE_BINARY);
+        ImageIO.write(huge, "png", uploadDir.resolve("enorme.png").toFile());
+
+        assertSame(ImageVariantService.Variants.NONE, service.generate("enorme.png").variants());
+        assertFalse(Files.exists(uploadDir.resolve("enorme-800w.jpg")));
+    }
+
+    /**
+     * Teste: srcset é nulo enquanto a geração está pendente e aponta para as variantes depois dela
+     */
+    @Test
+    void testSrcsetFallsBackWhilePending() throws Exception {
+        String capa = "0".repeat(64) + ".png";
+        writePng(capa, 900, 900);
+
+        assertNull(service.srcset(capa, ImageVariantService.JPEG));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (events.isEmpty() && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+
+        String base = "/uploads/" + "0".repeat(64);
+        assertEquals(List.of(new ImageVariantsReadyEvent(capa)), events);
+        assertEquals(base + "-200w.jpg 200w, " + base + "-400w.jpg 400w, " + base + "-800w.jpg 800w",
+                service.srcset(capa, ImageVariantService.JPEG));
+        assertNull(service.srcset(null, ImageVariantService.JPEG));
+    }
+
+    /**
+     * Teste: Depois de um reinício as variantes em disco bastam: o srcset sai na primeira renderização,
+     * sem nova geração nem evento
+     */
+    @Test
+    void testRestoresVariantsFromDisk() throws Exception {
+        String disco = "1".repeat(64) + ".png";
+        writePng(disco, 500, 250);
+        assertTrue(service.generate(disco).written());
+        assertFalse(service.generate(disco).written());
+        assertSame(ImageVariantService.Variants.NONE, service.fromDisk("ausente.png"));
+
+        service.shutdown();
+        service = new ImageVariantService(uploadDir.toString(), events::add, new UploadUrlService(uploadDir.toString()));
+
+        String base = "/uploads/" + "1".repeat(64);
+        assertEquals(base + "-200w.jpg 200w, " + base + "-400w.jpg 400w", service.srcset(disco, ImageVariantService.JPEG));
+        Thread.sleep(200);
+        assertTrue(events.isEmpty());
+
+        Files.delete(uploadDir.resolve("1".repeat(64) + "-400w.jpg"));
+        assertNull(service.fromDisk(disco));
+    }
+
+    /**
+     * Teste: Nomes das variantes derivam do nome do original
+     */
+    @Test
+    void testVariantFilename() {
+        assertEquals("abc-400w.jpg", ImageVariantService.variantFilename("abc.png", 400, ImageVariantService.JPEG));
+        assertEquals("abc-200w.webp", ImageVariantService.variantFilename("abc", 200, ImageVariantService.WEBP));
+        assertEquals(6, ImageVariantService.variantFilenames("abc.png").size());
+    }
+
+    private void writePng(String filename, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < width; x++)
+            for (int y = 0; y < height; y++)
+                image.setRGB(x, y, 0xFF000000 | (x * 255 / width) << 16 | (y * 255 / height) << 8);
+        ImageIO.write(image, "png", uploadDir.resolve(filename).toFile());
+    }
+}
@@ -0,0 +1,103 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.response.PasswordVerificationStatsResponse;
+import com.musicstore.bluevelvet.domain.exception.PasswordVerificationRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para PasswordVerificationService
+ * Valida que as verificações rodam no pool limitado, que o excesso é recusado na hora e as métricas
+ */
+class PasswordVerificationServiceTest {
+
+    private PasswordVerificationService service;
+    private CountDownLatch release;
+    private CountDownLatch started;
+    private PasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        service = new PasswordVerificationService(1, 1);
+        release = new CountDownLatch(1);
+        started = new CountDownLatch(1);
+        encoder = service.bounded(new SlowEncoder());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    /**
+     * Teste: Com a thread ocupada e a fila cheia, a próxima verificação é recusada sem esperar
+     */
+    @Test
+    void testRejectsWhenSaturated() throws Exception {
+        CompletableFuture<Boolean> running = CompletableFuture.supplyAsync(() -> encoder.matches("senha", "senha"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> encoder.matches("errada", "senha"));
+        while (service.stats().getQueueDepth() == 0)
+            Thread.sleep(5);
+
+        assertThrows(PasswordVerificationRejectedException.class, () -> encoder.matches("senha", "senha"));
+
+        PasswordVerificationStatsResponse stats = service.stats();
+        assertEquals(1, stats.getActive());
+        assertEquals(1, stats.getQueueDepth());
+        assertEquals(1L, stats.getRejectedCount());
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertFalse(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Teste: Latência de espera e de verificação são medidas; encode não passa pelo pool
+     */
+    @Test
+    void testRecordsLatency() {
+        release.countDown();
+        assertNull(service.stats().getAverageVerificationMillis());
+
+        assertTrue(encoder.matches("senha", "senha"));
+        assertEquals("{lenta}senha", encoder.encode("senha"));
+
+        PasswordVerificationStatsResponse stats = service.stats();
+        assertEquals(1L, stats.getCompletedCount());
+        assertEquals(0L, stats.getRejectedCount());
+        assertTrue(stats.getAverageVerificationMillis() >= 0);
+        assertEquals(stats.getAverageVerificationMillis(), stats.getMaxVerificationMillis());
+    }
+
+    /**
+     * Simula o BCrypt: segura a thread do pool até o teste liberar
+     */
+    private class SlowEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "{lenta}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.musicstore.bluevelvet.api.request.CategoryRequest;
+import com.musicstore.bluevelvet.api.request.ProductBulkRequest;
+import com.musicstore.bluevelvet.api.request.ProductBulkRequest.Operation;
+import com.musicstore.bluevelvet.api.request.ProductBulkRequest.StockItem;
+import com.musicstore.bluevelvet.api.request.ProductBulkRequest.Type;
+import com.musicstore.bluevelvet.api.response.CategoryResponse;
+import com.musicstore.bluevelvet.api.response.ProductBulkResponse;
+import com.musicstore.bluevelvet.domain.cache.ShopListingCache;
+import com.musicstore.bluevelvet.domain.event.ProductBulkChangedEvent;
+import com.musicstore.bluevelvet.domain.event.ProductChangedEvent;
+import com.musicstore.bluevelvet.domain.search.ProductSearchIndex;
+import com.musicstore.bluevelvet.domain.tree.CategoryTreeIndexHolder;
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import com.musicstore.bluevelvet.infrastructure.repository.CategoryRepository;
+import com.musicstore.bluevelvet.infrastructure.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para ProductService.bulkUpdate
+ * Valida as operações em massa por conjunto e as contagens retornadas
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Import({ProductService.class, ProductSearchIndex.class, CategoryService.class,
+        CategoryTreeIndexHolder.class, FileStorageService.class, ShopListingCache.class})
+@RecordApplicationEvents
+class ProductBulkUpdateTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryTreeIndexHolder treeIndexHolder;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    private Product stratocaster;
+    private Product capo;
+    private Product drumSticks;
+
+    @BeforeEach
+    void setUp() {
+        CategoryResponse guitars = categoryService.createCategory(category("Guitarras", null));
+        CategoryResponse electric = categoryService.createCategory(category("Elétricas", guitars.getId()));
+        CategoryResponse accessories = categoryService.createCategory(category("Acessórios", electric.getId()));
+        CategoryResponse drums = categoryService.createCategory(category("Baterias", null));
+
+        stratocaster = productRepository.save(product("Stratocaster", "7999.90", electric.getId()));
+        capo = productRepository.save(product("Capo", "9.99", accessories.getId()));
+        drumSticks = productRepository.save(product("Baquetas", "50.00", drums.getId()));
+    }
+
+    /**
+     * Teste: Desabilitar por lista de ids
+     */
+    @Test
+    void testSetEnabled() {
+        ProductBulkResponse response = productService.bulkUpdate(request(Operation.builder()
+                .type(Type.SET_ENABLED).ids(List.of(stratocaster.getId(), capo.getId(), 999L)).enabled(false).build()));
+
+        assertEquals(2, response.getTotalAffected());
+        assertFalse(reload(stratocaster).getEnabled());
+        assertFalse(reload(capo).getEnabled());
+        assertTrue(reload(drumSticks).getEnabled());
+    }
+
+    /**
+     * Teste: Reajuste percentual em toda a subárvore, arredondado para centavos
+     */
+    @Test
+    void testAdjustPriceInSubtree() {
+        Long guitarsId = reload(stratocaster).getCategory().getParent().getId();
+
+        ProductBulkResponse response = productService.bulkUpdate(request(Operation.builder()
+                .type(Type.ADJUST_PRICE).categoryId(guitarsId).percent(new BigDecimal("10")).build()));
+
+        assertEquals(2, response.getTotalAffected());
+        assertEquals(new BigDecimal("8799.89"), reload(stratocaster).getPrice());
+        assertEquals(new BigDecimal("10.99"), reload(capo).getPrice());
+        assertEquals(new BigDecimal("50.00"), reload(drumSticks).getPrice());
+    }
+
+    /**
+     * Teste: Estoque a partir de uma lista, ignorando ids inexistentes
+     */
+    @Test
+    void testSetStockAndCombineOperations() {
+        ProductBulkResponse response = productService.bulkUpdate(request(
+                Operation.builder().type(Type.SET_STOCK).stock(List.of(
+                        new StockItem(stratocaster.getId(), 0),
+                        new StockItem(capo.getId(), 42),
+                        new StockItem(999L, 1))).build(),
+                Operation.builder().type(Type.SET_ENABLED).ids(List.of(drumSticks.getId())).enabled(false).build()));
+
+        assertEquals(List.of(2, 1), response.getResults().stream().map(ProductBulkResponse.Result::getAffected).toList());
+        assertEquals(3, response.getTotalAffected());
+        assertEquals(0, reload(stratocaster).getStockQuantity());
+        assertEquals(42, reload(capo).getStockQuantity());
+    }
+
+    /**
+     * Teste: Um único evento com as categorias tocadas e só os produtos cujo enabled mudou
+     */
+    @Test
+    void testPublishesPreciseEvent() {
+        Category electric = reload(stratocaster).getCategory();
+        Long guitarsId = electric.getParent().getId();
+        Long accessoriesId = reload(capo).getCategory().getId();
+        Long drumsId = reload(drumSticks).getCategory().getId();
+        treeIndexHolder.rebuild();
+
+        productService.bulkUpdate(request(
+                Operation.builder().type(Type.SET_ENABLED).ids(List.of(stratocaster.getId(), drumSticks.getId())).enabled(false).build(),
+                Operation.builder().type(Type.SET_ENABLED).ids(List.of(stratocaster.getId())).enabled(false).build(),
+                Operation.builder().type(Type.SET_STOCK).stock(List.of(new StockItem(capo.getId(), 1))).build()));
+
+        assertEquals(0, events.stream(ProductChangedEvent.class).count());
+        ProductBulkChangedEvent event = events.stream(ProductBulkChangedEvent.class).findFirst().orElseThrow();
+        assertEquals(Set.of(stratocaster.getId(), drumSticks.getId()), event.enabledChangedIds());
+        assertEquals(Set.of(guitarsId, electric.getId(), accessoriesId, drumsId), event.affectedCategoryIds());
+    }
+
+    /**
+     * Teste: Reajuste de preço toca a subárvore e seus ancestrais, sem reindexar a busca
+     */
+    @Test
+    void testAdjustPriceEventCoversSubtree() {
+        Category electric = reload(stratocaster).getCategory();
+        Long accessoriesId = reload(capo).getCategory().getId();
+        treeIndexHolder.rebuild();
+
+        productService.bulkUpdate(request(Operation.builder()
+                .type(Type.ADJUST_PRICE).categoryId(electric.getId()).percent(new BigDecimal("5")).build()));
+
+        ProductBulkChangedEvent event = events.stream(ProductBulkChangedEvent.class).findFirst().orElseThrow();
+        assertTrue(event.enabledChangedIds().isEmpty());
+        assertEquals(Set.of(electric.getParent().getId(), electric.getId(), accessoriesId), event.affectedCategoryIds());
+    }
+
+    /**
+     * Teste: Operações inválidas são rejeitadas
+     */
+    @Test
+    void testInvalidOperations() {
+        assertThrows(IllegalArgumentException.class, () -> productService.bulkUpdate(new ProductBulkRequest()));
+        assertThrows(IllegalArgumentException.class, () -> productService.bulkUpdate(request(Operation.builder()
+                .type(Type.ADJUST_PRICE).categoryId(1L).percent(new BigDecimal("-100")).build())));
+        assertThrows(IllegalArgumentException.class, () -> productService.bulkUpdate(request(Operation.builder()
+                .type(Type.SET_STOCK).stock(List.of(new StockItem(capo.getId(), -1))).build())));
+    }
+
+    /**
+     * Teste: Reajuste que estouraria DECIMAL(10, 2) em algum produto da subárvore é rejeitado sem alterar nada
+     */
+    @Test
+    void testAdjustPriceRejectsOverflow() {
+        Long guitarsId = reload(stratocaster).getCategory().getParent().getId();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> productService.bulkUpdate(
+                request(Operation.builder().type(Type.ADJUST_PRICE).categoryId(guitarsId).percent(new BigDecimal("1500000")).build())));
+        assertTrue(exception.getMessage().contains("7999.90"));
+        assertEquals(new BigDecimal("7999.90"), reload(stratocaster).getPrice());
+
+        // O mesmo reajuste cabe numa subárvore só com preços menores
+        Long drumsId = reload(drumSticks).getCategory().getId();
+        productService.bulkUpdate(request(Operation.builder()
+                .type(Type.ADJUST_PRICE).categoryId(drumsId).percent(new BigDecimal("1500000")).build()));
+        assertEquals(new BigDecimal("750050.00"), reload(drumSticks).getPrice());
+    }
+
+    private Product reload(Product product) {
+        return productRepository.findById(product.getId()).orElseThrow();
+    }
+
+    private static ProductBulkRequest request(Operation... operations) {
+        return ProductBulkRequest.builder().operations(List.of(operations)).build();
+    }
+
+    private static CategoryRequest category(String name, Long parentId) {
+        return CategoryRequest.builder().name(name).parentId(parentId).isRoot(parentId == null).enabled(true).build();
+    }
+
+    private Product product(String name, String price, Long categoryId) {
+        Category category = categoryRepository.findById(categoryId).orElseThrow();
+        return Product.builder()
+                .name(name)
+                .price(new BigDecimal(price))
+                .stockQuantity(5)
+                .enabled(true)
+                .category(category)
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicstore.bluevelvet.domain.event.UserChangedEvent;
+import com.musicstore.bluevelvet.infrastructure.entity.TokenRevocation;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import com.musicstore.bluevelvet.infrastructure.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para TokenRevocationStore
+ * Valida que a revogação feita em uma instância chega às outras pelo banco e que as linhas vencidas são apagadas.
+ * Sem a transação do teste: cada "instância" grava e lê com as próprias transações.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationStoreTest {
+
+    private static final String SECRET = "segredo-de-teste-com-mais-de-32-bytes";
+    private static final Duration TTL = Duration.ofMinutes(15);
+    private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+    private final CustomUserDetails editor = new CustomUserDetails(User.builder().id(7L).email("editor@bluevelvet.com")
+            .name("Editor").role(User.Role.EDITOR).build());
+
+    @Autowired
+    private TokenRevocationRepository repository;
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAll();
+    }
+
+    /**
+     * Teste: Token emitido antes da alteração é recusado pela outra instância depois da sincronização
+     */
+    @Test
+    void testRevocationReachesOtherInstance() {
+        TokenService nodeA = tokenService(NOW);
+        TokenService nodeB = tokenService(NOW.plusSeconds(30));
+        String token = nodeA.issue(editor).value();
+        assertTrue(nodeB.authenticate(token).isPresent());
+
+        store(nodeA, NOW.plusSeconds(30)).onUserChanged(new UserChangedEvent(7L, "editor@bluevelvet.com"));
+
+        assertTrue(nodeB.authenticate(token).isPresent());
+        assertEquals(1, store(nodeB, NOW.plusSeconds(30)).synchronize());
+        assertTrue(nodeB.authenticate(token).isEmpty());
+        assertTrue(nodeB.authenticate(nodeB.issue(editor).value()).isPresent());
+    }
+
+    /**
+     * Teste: Revogação mais velha que o TTL não é carregada e sai do banco
+     */
+    @Test
+    void testExpiredRevocationsAreDeleted() {
+        repository.save(new TokenRevocation(7L, NOW.minus(TTL).getEpochSecond()));
+        repository.save(new TokenRevocation(8L, NOW.minus(TTL).getEpochSecond() + 1));
+
+        assertEquals(1, store(tokenService(NOW), NOW).synchronize());
+        assertEquals(1, repository.count());
+        assertTrue(repository.existsById(8L));
+    }
+
+    private static TokenService tokenService(Instant instant) {
+        return new TokenService(SECRET, TTL, new ObjectMapper(), Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private TokenRevocationStore store(TokenService tokenService, Instant instant) {
+        return new TokenRevocationStore(repository, tokenService, TTL, Duration.ofSeconds(10), Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,158 @@
+package com.musicstore.bluevelvet.domain.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.musicstore.bluevelvet.domain.event.UserChangedEvent;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para TokenService
+ * Valida a ida e volta do token, a recusa de tokens adulterados ou expirados e a revogação por alteração do usuário
+ */
+class TokenServiceTest {
+
+    private static final String SECRET = "segredo-de-teste-com-mais-de-32-bytes";
+    private static final Instant NOW = Instant.parse("2026-01-10T12:00:00Z");
+
+    private final CustomUserDetails editor = new CustomUserDetails(User.builder().id(7L).email("editor@bluevelvet.com")
+            .name("Editor").password("hash-bcrypt").role(User.Role.EDITOR).build());
+
+    private TokenService service;
+
+    @BeforeEach
+    void setUp() {
+        service = at(NOW, Duration.ofMinutes(15));
+    }
+
+    /**
+     * Teste: O token carrega usuário e papéis, sem a senha, e é validado sem banco
+     */
+    @Test
+    void testRoundTrip() {
+        TokenService.IssuedToken token = service.issue(editor);
+
+        Authentication authentication = service.authenticate(token.value()).orElseThrow();
+        CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(Set.of("ROLE_EDITOR"), AuthorityUtils.authorityListToSet(authentication.getAuthorities()));
+        assertEquals(7L, principal.user().getId());
+        assertEquals("editor@bluevelvet.com", principal.getUsername());
+        assertEquals(User.Role.EDITOR, principal.user().getRole());
+        assertNull(principal.getPassword());
+        assertEquals(Duration.ofMinutes(15), token.expiresIn());
+    }
+
+    /**
+     * Teste: Conteúdo alterado, outra chave, outro algoritmo ou formato inválido são recusados
+     */
+    @Test
+    void testRejectsTamperedTokens() {
+        String[] parts = service.issue(editor).value().split("\\.");
+        String admin = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8).replace("ROLE_EDITOR", "ROLE_ADMINISTRATOR");
+        String forged = parts[0] + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(admin.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        String none = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(service.authenticate(forged).isEmpty());
+        assertTrue(service.authenticate(none + "." + parts[1] + ".").isEmpty());
+        assertTrue(service.authenticate(parts[0] + "." + parts[1]).isEmpty());
+        assertTrue(service.authenticate("não é um token").isEmpty());
+
+        TokenService otherKey = new TokenService("outro-segredo-tambem-com-mais-de-32-bytes", Duration.ofMinutes(15),
+                new ObjectMapper(), Clock.fixed(NOW, ZoneOffset.UTC));
+        assertTrue(otherKey.authenticate(String.join(".", parts)).isEmpty());
+    }
+
+    /**
+     * Teste: Token deixa de valer ao expirar
+     */
+    @Test
+    void testRejectsExpiredTokens() {
+        String token = service.issue(editor).value();
+
+        assertTrue(at(NOW.plus(Duration.ofMinutes(14)), Duration.ofMinutes(15)).authenticate(token).isPresent());
+        assertTrue(at(NOW.plus(Duration.ofMinutes(15)), Duration.ofMinutes(15)).authenticate(token).isEmpty());
+    }
+
+    /**
+     * Teste: Alteração do usuário revoga os tokens emitidos até então, só os dele
+     */
+    @Test
+    void testUserChangeRevokesEarlierTokens() {
+        MutableClock clock = new MutableClock(NOW);
+        service = new TokenService(SECRET, Duration.ofMinutes(15), new ObjectMapper(), clock);
+        String token = service.issue(editor).value();
+        String other = service.issue(new CustomUserDetails(User.builder().id(8L).email("outro@bluevelvet.com")
+                .name("Outro").role(User.Role.ASSISTANT).build())).value();
+
+        clock.instant = NOW.plusSeconds(30);
+        service.onUserChanged(new UserChangedEvent(7L, "editor@bluevelvet.com"));
+
+        assertTrue(service.authenticate(token).isEmpty());
+        assertTrue(service.authenticate(other).isPresent());
+        assertTrue(service.authenticate(service.issue(editor).value()).isPresent());
+    }
+
+    /**
+     * Teste: Revogação recebida de outra instância vale para os tokens anteriores e não é desfeita por uma mais antiga
+     */
+    @Test
+    void testRevokeKeepsLatestRevocation() {
+        String token = service.issue(editor).value();
+
+        service.revoke(7L, NOW.getEpochSecond() + 60);
+        service.revoke(7L, NOW.getEpochSecond() - 60);
+
+        assertTrue(service.authenticate(token).isEmpty());
+    }
+
+    /**
+     * Teste: Segredo ausente ou curto demais é recusado na inicialização
+     */
+    @Test
+    void testRejectsShortSecret() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenService("curto", Duration.ofMinutes(15), new ObjectMapper()));
+        assertThrows(IllegalArgumentException.class, () -> new TokenService("", Duration.ofMinutes(15), new ObjectMapper()));
+    }
+
+    private static TokenService at(Instant instant, Duration timeToLive) {
+        return new TokenService(SECRET, timeToLive, new ObjectMapper(), Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
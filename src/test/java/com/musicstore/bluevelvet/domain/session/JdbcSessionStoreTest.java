@@ -0,0 +1,174 @@
+package com.musicstore.bluevelvet.domain.session;
+
+import com.musicstore.bluevelvet.domain.service.CustomUserDetails;
+import com.musicstore.bluevelvet.infrastructure.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.session.jdbc.JdbcIndexedSessionRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração da sessão no banco (Spring Session JDBC sobre H2)
+ * Valida o login compartilhado entre duas instâncias (sem o hash da senha), o tamanho da serialização compacta
+ * e a limpeza das sessões expiradas em lotes.
+ * Sem a transação do teste: cada "instância" grava e lê com as próprias transações.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcSessionStoreTest {
+
+    private static final String SECURITY_CONTEXT = HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(
+                new ClassPathResource("org/springframework/session/jdbc/schema-drop-h2.sql"),
+                new ClassPathResource("org/springframework/session/jdbc/schema-h2.sql"));
+        schema.execute(dataSource);
+    }
+
+    /**
+     * Teste: Login gravado por uma instância é reconhecido pela outra, sem o hash da senha, e alterações voltam
+     */
+    @Test
+    void testSessionIsSharedBetweenInstances() {
+        SessionRepository<Session> nodeA = node();
+        SessionRepository<Session> nodeB = node();
+
+        Session session = nodeA.createSession();
+        session.setAttribute(SECURITY_CONTEXT, securityContext());
+        nodeA.save(session);
+
+        Session onB = nodeB.findById(session.getId());
+        SecurityContext context = onB.getAttribute(SECURITY_CONTEXT);
+        CustomUserDetails principal = (CustomUserDetails) context.getAuthentication().getPrincipal();
+        assertEquals("editor@bluevelvet.com", principal.getUsername());
+        assertEquals(User.Role.EDITOR.mask(), principal.roleMask());
+        assertNull(principal.getPassword());
+
+        onB.setAttribute("cartItems", 3);
+        nodeB.save(onB);
+        assertEquals(3, (Integer) nodeA.findById(session.getId()).getAttribute("cartItems"));
+
+        nodeB.deleteById(session.getId());
+        assertNull(nodeA.findById(session.getId()));
+    }
+
+    /**
+     * Teste: O SecurityContext é gravado comprimido e bem menor que na serialização Java pura
+     */
+    @Test
+    void testSecurityContextIsStoredCompactly() throws IOException {
+        SessionRepository<Session> node = node();
+        Session session = node.createSession();
+        session.setAttribute(SECURITY_CONTEXT, securityContext());
+        session.setAttribute("page", 2);
+        node.save(session);
+
+        byte[] stored = attributeBytes(SECURITY_CONTEXT);
+        assertEquals(CompactSessionSerializer.DEFLATED, stored[0]);
+        int plain = javaSerialized(securityContext()).length;
+        assertTrue(stored.length < plain * 0.6, stored.length + " bytes comprimidos contra " + plain);
+        assertEquals(CompactSessionSerializer.RAW, attributeBytes("page")[0]);
+    }
+
+    /**
+     * Teste: Só as expiradas são removidas, com os atributos, em vários lotes
+     */
+    @Test
+    void testCleanerRemovesExpiredSessionsInBatches() {
+        SessionRepository<Session> node = node();
+        Instant now = Instant.now();
+        for (int i = 0; i < 25; i++)
+            save(node, now.minus(Duration.ofHours(2)));
+        String active = save(node, now);
+
+        ExpiredSessionCleaner cleaner = new ExpiredSessionCleaner(jdbcTemplate, "SPRING_SESSION", 10,
+                Duration.ofMinutes(1), Clock.fixed(now, ZoneOffset.UTC));
+
+        assertEquals(25, cleaner.cleanUp());
+        assertEquals(1, count("SPRING_SESSION"));
+        assertEquals(1, count("SPRING_SESSION_ATTRIBUTES"));
+        assertNotNull(node.findById(active));
+        assertEquals(0, cleaner.cleanUp());
+    }
+
+    /**
+     * Uma "instância" da aplicação: repositório próprio sobre o mesmo banco
+     */
+    @SuppressWarnings("unchecked")
+    private SessionRepository<Session> node() {
+        JdbcIndexedSessionRepository repository = new JdbcIndexedSessionRepository(jdbcTemplate,
+                new TransactionTemplate(transactionManager));
+        repository.setConversionService(CompactSessionSerializer.conversionService(getClass().getClassLoader()));
+        return (SessionRepository<Session>) (SessionRepository<?>) repository;
+    }
+
+    private static String save(SessionRepository<Session> node, Instant lastAccessedTime) {
+        Session session = node.createSession();
+        session.setLastAccessedTime(lastAccessedTime);
+        session.setAttribute("page", 1);
+        node.save(session);
+        return session.getId();
+    }
+
+    private static SecurityContext securityContext() {
+        CustomUserDetails principal = new CustomUserDetails(User.builder().id(7L).email("editor@bluevelvet.com")
+                .name("Editor").password("$2a$10$hashbcryptdeexemplocomsessentaecaracteresparaoteste").role(User.Role.EDITOR).build());
+        return new SecurityContextImpl(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+    }
+
+    private byte[] attributeBytes(String name) {
+        return jdbcTemplate.queryForObject("SELECT ATTRIBUTE_BYTES FROM SPRING_SESSION_ATTRIBUTES WHERE ATTRIBUTE_NAME = ?",
+                byte[].class, name);
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+    }
+
+    private static byte[] javaSerialized(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,100 @@
+package com.musicstore.bluevelvet.domain.tree;
+
+import com.musicstore.bluevelvet.infrastructure.projection.CategoryNodeView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes unitários para CategoryTreeIndex
+ * Valida as consultas em memória sobre a árvore de categorias
+ */
+class CategoryTreeIndexTest {
+
+    private CategoryTreeIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = CategoryTreeIndex.of(List.of(
+                node(1L, "Music", null, true),
+                node(2L, "Vinyl", 1L, false),
+                node(3L, "Jazz Vinyls", 2L, false),
+                node(4L, "CDs", 1L, false),
+                node(5L, "Books", null, true)
+        ));
+    }
+
+    /**
+     * Teste: Buscar categoria por ID
+     */
+    @Test
+    void testFindById() {
+        assertTrue(index.findById(3L).isPresent());
+        assertEquals("Jazz Vinyls", index.findById(3L).get().name());
+        assertFalse(index.findById(99L).isPresent());
+    }
+
+    /**
+     * Teste: Listar categorias raiz
+     */
+    @Test
+    void testFindAllRoots() {
+        List<CategoryTreeIndex.Node> roots = index.findAllRoots();
+
+        assertEquals(List.of(1L, 5L), roots.stream().map(CategoryTreeIndex.Node::id).toList());
+    }
+
+    /**
+     * Teste: Filhos diretos de uma categoria
+     */
+    @Test
+    void testChildrenOf() {
+        assertEquals(List.of(2L, 4L), index.childrenOf(1L).stream().map(CategoryTreeIndex.Node::id).toList());
+        assertTrue(index.childrenOf(3L).isEmpty());
+    }
+
+    /**
+     * Teste: Ancestrais da raiz até o pai imediato
+     */
+    @Test
+    void testAncestorsOf() {
+        assertEquals(List.of(1L, 2L), index.ancestorsOf(3L).stream().map(CategoryTreeIndex.Node::id).toList());
+        assertTrue(index.ancestorsOf(1L).isEmpty());
+    }
+
+    /**
+     * Teste: Subárvore em pré-ordem
+     */
+    @Test
+    void testSubtreeOf() {
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.subtreeOf(1L).stream().map(CategoryTreeIndex.Node::id).toList());
+        assertTrue(index.subtreeOf(99L).isEmpty());
+    }
+
+    /**
+     * Teste: Subárvore limitada em profundidade
+     */
+    @Test
+    void testSubtreeOfWithDepth() {
+        assertEquals(List.of(1L), index.subtreeOf(1L, 0).stream().map(CategoryTreeIndex.Node::id).toList());
+        assertEquals(List.of(1L, 2L, 4L), index.subtreeOf(1L, 1).stream().map(CategoryTreeIndex.Node::id).toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.subtreeOf(1L, 2).stream().map(CategoryTreeIndex.Node::id).toList());
+    }
+
+    private static CategoryNodeView node(Long id, String name, Long parentId, Boolean isRoot) {
+        return new CategoryNodeView() {
+            public Long getId() { return id; }
+            public String getName() { return name; }
+            public String getImage() { return null; }
+            public Long getParentId() { return parentId; }
+            public Boolean getIsRoot() { return isRoot; }
+            public Boolean getEnabled() { return true; }
+            public Long getVersion() { return 0L; }
+            public LocalDateTime getUpdatedAt() { return null; }
+        };
+    }
+}
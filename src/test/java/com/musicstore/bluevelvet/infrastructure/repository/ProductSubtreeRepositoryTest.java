@@ -0,0 +1,176 @@
+package com.musicstore.bluevelvet.infrastructure.repository;
+
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import com.musicstore.bluevelvet.infrastructure.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para a listagem de produtos por subárvore de categorias
+ * Monta uma árvore com 5 níveis e valida a busca pela tabela de fechamento
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+class ProductSubtreeRepositoryTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryClosureRepository closureRepository;
+
+    private final List<Category> levels = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Music > Instruments > Guitars > Electric > Seven Strings
+        String[] names = {"Music", "Instruments", "Guitars", "Electric", "Seven Strings"};
+        Category parent = null;
+        for (String name : names) {
+            Category category = categoryRepository.save(Category.builder()
+                    .name(name)
+                    .parent(parent)
+                    .isRoot(parent == null)
+                    .enabled(true)
+                    .build());
+            closureRepository.insertSelf(category.getId());
+            if (parent != null)
+                closureRepository.attachSubtree(category.getId(), parent.getId());
+
+            levels.add(category);
+            parent = category;
+        }
+
+        // Um produto em cada nível
+        for (Category category : levels) {
+            productRepository.save(Product.builder()
+                    .name("Produto " + category.getName())
+                    .price(new BigDecimal("100.00"))
+                    .stockQuantity(1)
+                    .enabled(true)
+                    .category(category)
+                    .build());
+        }
+
+        // Categoria irmã, fora da subárvore
+        Category other = categoryRepository.save(Category.builder()
+                .name("Books").isRoot(true).enabled(true).build());
+        closureRepository.insertSelf(other.getId());
+        productRepository.save(Product.builder()
+                .name("Produto Books")
+                .price(new BigDecimal("50.00"))
+                .stockQuantity(1)
+                .enabled(true)
+                .category(other)
+                .build());
+    }
+
+    /**
+     * Teste: A tabela de fechamento tem uma linha por par ancestral/descendente
+     */
+    @Test
+    void testClosureRows() {
+        // 5 + 4 + 3 + 2 + 1 linhas para a cadeia, mais 1 para a categoria irmã
+        assertEquals(16, closureRepository.count());
+    }
+
+    /**
+     * Teste: A raiz enxerga os produtos de todos os 5 níveis
+     */
+    @Test
+    void testFindByCategoryAndSubcategoriesFromRoot() {
+        Page<Product> page = productRepository.findByCategoryAndSubcategories(
+                levels.get(0).getId(), PageRequest.of(0, 10, Sort.by("name")));
+
+        assertEquals(5, page.getTotalElements());
+        assertTrue(page.getContent().stream().noneMatch(p -> p.getName().equals("Produto Books")));
+    }
+
+    /**
+     * Teste: Um nível intermediário enxerga apenas a própria subárvore
+     */
+    @Test
+    void testFindByCategoryAndSubcategoriesFromMiddle() {
+        Page<Product> page = productRepository.findByCategoryAndSubcategories(
+                levels.get(2).getId(), PageRequest.of(0, 10, Sort.by("name")));
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("Produto Electric", "Produto Guitars", "Produto Seven Strings"),
+                page.getContent().stream().map(Product::getName).toList());
+    }
+
+    /**
+     * Teste: A folha enxerga apenas os próprios produtos
+     */
+    @Test
+    void testFindByCategoryAndSubcategoriesFromLeaf() {
+        Page<Product> page = productRepository.findByCategoryAndSubcategories(
+                levels.get(4).getId(), PageRequest.of(0, 10));
+
+        assertEquals(1, page.getTotalElements());
+        assertEquals("Produto Seven Strings", page.getContent().get(0).getName());
+    }
+
+    /**
+     * Teste: Paginação sobre a subárvore
+     */
+    @Test
+    void testFindByCategoryAndSubcategoriesPagination() {
+        Page<Product> page = productRepository.findByCategoryAndSubcategories(
+                levels.get(0).getId(), PageRequest.of(1, 2, Sort.by("name")));
+
+        assertEquals(2, page.getContent().size());
+        assertEquals(3, page.getTotalPages());
+    }
+
+    /**
+     * Teste: Paginação por chave (name, id) percorre a subárvore inteira sem repetir linhas
+     */
+    @Test
+    void testFindByCategoryAndSubcategoriesKeyset() {
+        Long rootId = levels.get(0).getId();
+
+        List<Product> firstPage = productRepository.findByCategoryAndSubcategoriesKeyset(rootId, Limit.of(2));
+        assertEquals(List.of("Produto Electric", "Produto Guitars"), firstPage.stream().map(Product::getName).toList());
+
+        Product last = firstPage.get(1);
+        List<Product> secondPage = productRepository.findByCategoryAndSubcategoriesKeysetAfter(
+                rootId, last.getName(), last.getId(), Limit.of(10));
+        assertEquals(List.of("Produto Instruments", "Produto Music", "Produto Seven Strings"),
+                secondPage.stream().map(Product::getName).toList());
+    }
+
+    /**
+     * Teste: Fatia da subárvore indica se há próxima página sem contar o total
+     */
+    @Test
+    void testFindSliceByCategoryAndSubcategories() {
+        Long rootId = levels.get(0).getId();
+
+        Slice<Product> first = productRepository.findSliceByCategoryAndSubcategories(rootId, PageRequest.of(0, 3, Sort.by("name")));
+        Slice<Product> last = productRepository.findSliceByCategoryAndSubcategories(rootId, PageRequest.of(1, 3, Sort.by("name")));
+
+        assertEquals(3, first.getContent().size());
+        assertTrue(first.hasNext());
+        assertEquals(2, last.getContent().size());
+        assertFalse(last.hasNext());
+    }
+}
@@ -0,0 +1,114 @@
+package com.musicstore.bluevelvet.infrastructure.repository;
+
+import com.musicstore.bluevelvet.config.CacheConfig;
+import com.musicstore.bluevelvet.infrastructure.entity.Category;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de integração para o cache de segundo nível
+ * Valida que categorias e a consulta de raízes são servidas pelo cache após a primeira leitura.
+ * Sem a transação do teste: o cache READ_WRITE só guarda o que foi efetivado.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true"
+})
+@Import(CacheConfig.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private Category guitars;
+
+    @BeforeEach
+    void setUp() {
+        guitars = categoryRepository.save(Category.builder().name("Guitarras").isRoot(true).enabled(true).build());
+        categoryRepository.save(Category.builder().name("Violões").parent(guitars).isRoot(false).enabled(true).build());
+
+        transaction = new TransactionTemplate(transactionManager);
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        categoryRepository.findAll().stream()
+                .filter(category -> category.getParent() != null)
+                .forEach(categoryRepository::delete);
+        categoryRepository.deleteAll();
+    }
+
+    /**
+     * Teste: Segunda leitura por id não vai ao banco
+     */
+    @Test
+    void testFindByIdHitsCache() {
+        categoryRepository.findById(guitars.getId()).orElseThrow();
+        long statements = statistics.getPrepareStatementCount();
+
+        Category cached = categoryRepository.findById(guitars.getId()).orElseThrow();
+
+        assertEquals("Guitarras", cached.getName());
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertTrue(region(CacheConfig.CATEGORY_REGION).getHitCount() >= 1);
+    }
+
+    /**
+     * Teste: Coleção children em cache
+     */
+    @Test
+    void testChildrenCollectionHitsCache() {
+        assertEquals(1, childCount());
+        assertEquals(1, childCount());
+        assertEquals(1, region(CacheConfig.CATEGORY_CHILDREN_REGION).getHitCount());
+    }
+
+    /**
+     * Teste: Consulta de raízes em cache e invalidada por escrita em category
+     */
+    @Test
+    void testRootQueryCachedAndInvalidated() {
+        assertEquals(1, categoryRepository.findByIsRootIsTrue().size());
+        assertEquals(1, categoryRepository.findByIsRootIsTrue().size());
+        assertEquals(1, region(CacheConfig.CATEGORY_ROOTS_REGION).getHitCount());
+
+        categoryRepository.saveAndFlush(Category.builder().name("Teclados").isRoot(true).enabled(true).build());
+
+        assertEquals(2, categoryRepository.findByIsRootIsTrue().size());
+    }
+
+    private int childCount() {
+        return transaction.execute(status ->
+                categoryRepository.findById(guitars.getId()).orElseThrow().getChildren().size());
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return statistics.getCacheRegionStatistics(name);
+    }
+}